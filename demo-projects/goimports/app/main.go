@@ -0,0 +1,25 @@
+// Package main imports packages in each form of importSpec: plain, dot, blank and aliased,
+// in a grouped and in a single import declaration.
+//
+// The full run and the import-only run of this tree should build the same imports:
+//   java -jar <executable> golang demo-projects/goimports goimports full
+//   java -jar <executable> golang demo-projects/goimports goimports imports --imports-only
+// full-out/full_edge.csv and imports-out/imports_edge.csv have the same Import edges, by the labels in *_node.csv
+// (the ids differ, since the import-only run builds no functions or variables):
+//   goimports/app/main.go -> shape, geo, and driver with weight 2.
+// The aliases are the same in both runs, e.g. "." for shape, "_" and "" for driver and "geo" for shape/geo.
+package main
+
+import (
+	"fmt"
+	. "goimports/shape"
+	_ "goimports/driver"
+	geo "goimports/shape/geo"
+)
+
+import "goimports/driver"
+
+func main() {
+	driver.Register("sqlite")
+	fmt.Println(Area(2, 3), geo.Dist(1, 2))
+}
@@ -0,0 +1,11 @@
+package driver
+
+var drivers []string
+
+func init() {
+	Register("default")
+}
+
+func Register(name string) {
+	drivers = append(drivers, name)
+}
@@ -0,0 +1,8 @@
+package geo
+
+func Dist(a, b int) int {
+	if a > b {
+		return a - b
+	}
+	return b - a
+}
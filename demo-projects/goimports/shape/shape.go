@@ -0,0 +1,5 @@
+package shape
+
+func Area(w, h int) int {
+	return w * h
+}
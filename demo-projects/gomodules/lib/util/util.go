@@ -0,0 +1,3 @@
+package util
+
+func Help() int { return 1 }
@@ -0,0 +1,6 @@
+// Package api imports example.com/lib/util, which is the local module lib by go.work and by the replace in svc/go.mod.
+package api
+
+import "example.com/lib/util"
+
+func Serve() int { return util.Help() }
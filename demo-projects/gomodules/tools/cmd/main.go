@@ -0,0 +1,21 @@
+// Package main imports a package from each source of the import paths:
+// a vendored copy of a local module, a vendored module, another module of go.work, and the standard library.
+//
+//   java -jar <executable> golang demo-projects/gomodules gomodules gomodules
+//
+// In gomodules-out/gomodules_edge.csv, this file imports the packages of these dirs:
+//   example.com/lib/util -> tools/vendor/example.com/lib/util, the vendored copy wins over the module lib
+//   ext.io/dep           -> tools/vendor/ext.io/dep
+//   example.com/svc/api  -> svc/api
+//   fmt                  -> none, it is not in the source code
+// svc/api imports lib/util, and "Imports resolved:  4 of 5" is printed.
+package main
+
+import (
+	"example.com/lib/util"
+	"example.com/svc/api"
+	"ext.io/dep"
+	"fmt"
+)
+
+func main() { fmt.Println(util.Help(), api.Serve()); dep.D() }
@@ -0,0 +1,8 @@
+module example.com/tools
+
+go 1.21
+
+require (
+	example.com/lib v0.0.0
+	ext.io/dep v1.0.0
+)
@@ -0,0 +1,131 @@
+package client;
+
+import entitybuilder.CacheStatis;
+import entitybuilder.EntityCache;
+import hianalyzer.HiDepData;
+import parser.ParseStatis;
+import priextractor.goextractor.search.NameSearchTable;
+import priextractor.py3extractor.searcher.NameSearch;
+import uerr.SingleCollect;
+import uerr.SymbolTable;
+import util.Configure;
+
+/**
+ * the configuration and the stores of one analysis: the entities, the symbols, the hierarchical dependencies,
+ * the python scopes, the golang scope tables, and the statistics of parsing and caching.
+ * Different sessions share nothing, so several repositories can be analyzed in parallel in one process,
+ * one session (and one TemplateWork) per repository.
+ *
+ * The stages (BuilderIntf, AnayzerIntf, HiDeper, Formator, WriterIntf) are given their session.
+ * The classes below them still call SingleCollect.getSingleCollectInstance() and the like,
+ * which return the stores of the session bound to the current thread.
+ * A thread inherits the session bound to the thread that created it, e.g. the parsing threads.
+ */
+public class AnalysisSession {
+
+    //a thread never bound to a session uses this one, e.g. a single analysis started from Main.
+    private static final AnalysisSession defaultSession = new AnalysisSession();
+
+    private static final InheritableThreadLocal<AnalysisSession> currentSession = new InheritableThreadLocal<AnalysisSession>() {
+        @Override
+        protected AnalysisSession initialValue() {
+            return defaultSession;
+        }
+    };
+
+    private Configure configure;
+    private SingleCollect singleCollect;
+    private SymbolTable symbolTable;
+    private HiDepData hiDepData;
+    private NameSearch nameSearch;
+    private NameSearchTable nameSearchTable;
+    private ParseStatis parseStatis;
+    private CacheStatis cacheStatis;
+    //kept across resetModel(), so the rounds of the watch mode reuse the unchanged files
+    private EntityCache entityCache = null;
+
+    public AnalysisSession() {
+        configure = new Configure();
+        resetModel();
+    }
+
+    /**
+     * @return the session bound to the current thread
+     */
+    public static AnalysisSession getCurrentSession() {
+        return currentSession.get();
+    }
+
+    /**
+     * bind this session to the current thread, and to the threads created by it from now on.
+     * @return the session bound before, to be given to restore()
+     */
+    public AnalysisSession bind() {
+        AnalysisSession previous = currentSession.get();
+        currentSession.set(this);
+        return previous;
+    }
+
+    /**
+     * bind the previous session to the current thread again
+     * @param previous  returned by bind()
+     */
+    public static void restore(AnalysisSession previous) {
+        currentSession.set(previous);
+    }
+
+    /**
+     * drop the entities, symbols, dependencies and statistics of the last analysis, and keep the configuration.
+     */
+    public void resetModel() {
+        singleCollect = new SingleCollect();
+        symbolTable = new SymbolTable();
+        hiDepData = new HiDepData();
+        nameSearch = new NameSearch(singleCollect, symbolTable);
+        nameSearchTable = new NameSearchTable(singleCollect, symbolTable);
+        parseStatis = new ParseStatis();
+        cacheStatis = new CacheStatis();
+    }
+
+    public Configure getConfigure() {
+        return configure;
+    }
+
+    public SingleCollect getSingleCollect() {
+        return singleCollect;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    public HiDepData getHiDepData() {
+        return hiDepData;
+    }
+
+    public NameSearch getNameSearch() {
+        return nameSearch;
+    }
+
+    public NameSearchTable getNameSearchTable() {
+        return nameSearchTable;
+    }
+
+    public ParseStatis getParseStatis() {
+        return parseStatis;
+    }
+
+    public CacheStatis getCacheStatis() {
+        return cacheStatis;
+    }
+
+    /**
+     * @return the entity cache, which is created at the first call, or null if it is not used
+     */
+    public EntityCache getEntityCache() {
+        if(entityCache == null && (configure.getCacheDir() != null || configure.isWatch())) {
+            entityCache = new EntityCache(configure.getCacheDir());
+        }
+        return entityCache;
+    }
+}
@@ -0,0 +1,130 @@
+package client;
+
+import util.FileUtil;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * watch the source files under a directory by WatchService.
+ * Each directory which is not excluded is registered, including the ones created later.
+ */
+public class FileWatcher {
+
+    //an editor or a "git checkout" often writes many times for one save,
+    //so wait until no more change comes in this period.
+    private static final long QUIET_MILLIS = 200;
+
+    private WatchService watchService;
+    private String suffix;
+    private List<String> excludePatterns;
+    private Map<WatchKey, Path> watchedDirs = new HashMap<WatchKey, Path>();
+
+    public FileWatcher(String dirName, String suffix, List<String> excludePatterns) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.suffix = suffix;
+        this.excludePatterns = excludePatterns;
+        register(dirName);
+    }
+
+    /**
+     * register dirName and all its sub directories
+     * @param dirName
+     */
+    private void register(String dirName) {
+        FileUtil.walkDirs(dirName, excludePatterns, new FileUtil.FoundFileHandler() {
+            @Override
+            public void handle(String dir) {
+                Path path = Paths.get(dir);
+                try {
+                    WatchKey key = path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                    watchedDirs.put(key, path);
+                } catch (IOException e) {
+                    System.out.println("Cannot watch: " + dir);
+                }
+            }
+        });
+    }
+
+    /**
+     * block until some source files are created, modified or deleted, and then no more change comes for a while.
+     * @return the changed source files or directories, or null if the watching is interrupted or closed.
+     */
+    public Set<String> awaitChanges() {
+        Set<String> changedPaths = new TreeSet<String>();
+        try {
+            WatchKey key = watchService.take();
+            while (key != null) {
+                collectChanges(key, changedPaths);
+                if(changedPaths.isEmpty()) {
+                    key = watchService.take();
+                }
+                else {
+                    key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ClosedWatchServiceException e) {
+            return null;
+        }
+        return changedPaths;
+    }
+
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * the changes of source files, new directories, and deleted watched directories are collected.
+     * @param key
+     * @param changedPaths
+     */
+    private void collectChanges(WatchKey key, Set<String> changedPaths) {
+        Path dir = watchedDirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if(dir == null) {
+                continue;
+            }
+            if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                //some events are lost, so anything under dir may be changed
+                changedPaths.add(dir.toString());
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if(event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                register(path.toString());
+                changedPaths.add(path.toString());
+            }
+            else if(event.kind() == StandardWatchEventKinds.ENTRY_DELETE && watchedDirs.containsValue(path)) {
+                changedPaths.add(path.toString());
+            }
+            else if(path.toString().endsWith(suffix)) {
+                changedPaths.add(path.toString());
+            }
+        }
+        if(!key.reset()) {
+            watchedDirs.remove(key);
+        }
+    }
+}
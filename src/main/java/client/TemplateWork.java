@@ -6,59 +6,103 @@ import entitybuilder.BuilderIntf;
 import formator.Formator;
 import formator.fjson.JDepObject;
 import formator.fxml.XDepObject;
-import hianalyzer.HiDepData;
 import hianalyzer.HiDeper;
 import priextractor.goextractor.GoRelationInf;
 import priextractor.py3extractor.PyRelationInf;
 import uerr.RelationInterface;
+import uerr.SingleCollect;
 import writer.JsonWriter;
 import writer.UndWriter;
 import writer.WriterIntf;
 import util.Configure;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Set;
 
 public class TemplateWork {
 
-    protected static Configure configure = Configure.getConfigureInstance();
+    protected AnalysisSession session;
+    protected Configure configure;
 
+    public TemplateWork() {
+        this(new AnalysisSession());
+    }
+
+    /**
+     * @param session  a new session for each analysis, so that several TemplateWorks can run in parallel
+     */
+    public TemplateWork(AnalysisSession session) {
+        this.session = session;
+        configure = session.getConfigure();
+    }
 
     public final void workflow(String[] args) {
-        String lang = args[0];
-        String inputDir = args[1];
-        String usageDir = args[2];
+        AnalysisSession previous = session.bind();
+        try {
+            work(args);
+        } finally {
+            AnalysisSession.restore(previous);
+        }
+    }
+
+    private void work(String[] args) {
+        String[] params = getPositionalParams(args);
+        String lang = params[0];
+        String inputDir = params[1];
+        String usageDir = params[2];
         String projectName = usageDir;
         String depMask = "111111111";
-        if (args.length > 3) {
-            projectName = args[3];
+        if (params.length > 3) {
+            projectName = params[3];
         }
-        if (args.length > 4) {
-            depMask = args[4];
+        if (params.length > 4) {
+            depMask = params[4];
         }
 
         config(lang, inputDir, usageDir, projectName);
+        configOptions(args);
         String[] depTypes = getDepType(depMask);
 
+        analyze(depTypes);
+
+        if(configure.isWatch()) {
+            watch(depTypes);
+        }
+    }
+
+    /**
+     * build the entities, resolve the dependencies, and write all outputs.
+     * @param depTypes
+     */
+    private void analyze(String[] depTypes) {
         long startTime = System.currentTimeMillis();
 
         //identify Entities
-        BuilderIntf entityTreeBuilder = new BuilderIntf();
+        BuilderIntf entityTreeBuilder = new BuilderIntf(session);
         entityTreeBuilder.run();
 
         //extract Deps
-        AnayzerIntf entityDepAnalyzer = new AnayzerIntf();
+        AnayzerIntf entityDepAnalyzer = new AnayzerIntf(session);
         entityDepAnalyzer.run();
 
+        //the structure of the entities is final from here
+        SingleCollect singleCollect = session.getSingleCollect();
+        singleCollect.freeze();
+        System.out.println(singleCollect.getEntityStore().storeStatis()
+                + singleCollect.getRelationStore().relationStatis()
+                + session.getSymbolTable().symbolStatis()
+                + singleCollect.scratchStatis());
+
         long endTime = System.currentTimeMillis();
         System.out.println("\nConsumed time: " + (float) ((endTime - startTime) / 1000.00) + " s,  or " + (float) ((endTime - startTime) / 60000.00) + " min.\n");
 
         //build hierarchical dependencies
-        HiDeper hiDeper = new HiDeper();
+        HiDeper hiDeper = new HiDeper(session);
         hiDeper.run();
         //hiDeper.tmpOutput();
-        HiDepData hiDepData = HiDepData.getInstance();
 
-        Formator formator = new Formator(depTypes);
+        Formator formator = new Formator(session, depTypes);
         JDepObject jDepObject = formator.getfJsonDataModel();
         XDepObject xDepObject = formator.getfXmlDataModel();
 
@@ -67,7 +111,7 @@ public class TemplateWork {
         ArrayList<String[]> allNodes = csvgrapher.getNodes();
         ArrayList<String[]> allEdges = csvgrapher.getEdges();
 
-        WriterIntf writer = new WriterIntf();
+        WriterIntf writer = new WriterIntf(session);
         writer.run(jDepObject, xDepObject, allNodes, allEdges);
 
         //output the summary of the acquired results.
@@ -78,6 +122,51 @@ public class TemplateWork {
 
     }
 
+    /**
+     * keep this process, with its loaded classes and warm parser cache, and analyze again
+     * each time the source files change, until the process is stopped.
+     * Only the changed files are hashed and parsed again, the others are replayed from the entity cache in memory,
+     * and all dependencies are resolved again.
+     * @param depTypes
+     */
+    private void watch(String[] depTypes) {
+        FileWatcher fileWatcher;
+        try {
+            fileWatcher = new FileWatcher(configure.getInputSrcPath(), configure.getCurr_pro_suffix(),
+                    configure.getExcludePatterns());
+        } catch (IOException e) {
+            System.out.println("Cannot watch: " + configure.getInputSrcPath());
+            return;
+        }
+        System.out.println("Watching " + configure.getInputSrcPath() + " ...");
+        while (true) {
+            Set<String> changedPaths = fileWatcher.awaitChanges();
+            if(changedPaths == null) {
+                break;
+            }
+            for (String changedPath : changedPaths) {
+                System.out.println("Changed: " + changedPath);
+            }
+            session.getEntityCache().invalidate(changedPaths);
+            resetModel();
+            try {
+                analyze(depTypes);
+            } catch (RuntimeException e) {
+                //a broken round should not stop watching
+                e.printStackTrace();
+            }
+            System.out.println("Watching " + configure.getInputSrcPath() + " ...");
+        }
+        fileWatcher.close();
+    }
+
+    /**
+     * drop the entities and dependencies of the last round
+     */
+    private void resetModel() {
+        session.resetModel();
+    }
+
     /**
      * parse the input parameter, save into configure
      *
@@ -93,6 +182,79 @@ public class TemplateWork {
         configure.setDefault();
     }
 
+    /**
+     * the positional parameters, i.e., all parameters except "--name=value" options
+     * @param args
+     * @return
+     */
+    private String[] getPositionalParams(String[] args) {
+        ArrayList<String> params = new ArrayList<String>();
+        for (String arg : args) {
+            if(!arg.startsWith(Configure.OPTION_PREFIX)) {
+                params.add(arg);
+            }
+        }
+        return params.toArray(new String[params.size()]);
+    }
+
+    /**
+     * parse the optional "--name=value" parameters, save into configure
+     * @param args
+     */
+    private void configOptions(String[] args) {
+        for (String arg : args) {
+            if(!arg.startsWith(Configure.OPTION_PREFIX)) {
+                continue;
+            }
+            String[] tmp = arg.substring(Configure.OPTION_PREFIX.length()).split(Configure.EQUAL, 2);
+            String name = tmp[0];
+            String value = Configure.NULL_STRING;
+            if(tmp.length > 1) {
+                value = tmp[1];
+            }
+            try {
+                if (name.equals(Configure.OPTION_THREADS)) {
+                    configure.setThreadNum(Integer.parseInt(value));
+                } else if (name.equals(Configure.OPTION_WARMUP)) {
+                    configure.setWarmUp(isOptionOn(value));
+                } else if (name.equals(Configure.OPTION_WATCH)) {
+                    configure.setWatch(isOptionOn(value));
+                } else if (name.equals(Configure.OPTION_IMPORTS_ONLY)) {
+                    configure.setImportsOnly(isOptionOn(value));
+                } else if (name.equals(Configure.OPTION_MAX_PARSE_TIME)) {
+                    configure.setMaxParseMillis(Long.parseLong(value));
+                } else if (name.equals(Configure.OPTION_MAX_TOKENS)) {
+                    configure.setMaxParseTokens(Integer.parseInt(value));
+                } else if (name.equals(Configure.OPTION_BUDGET_ACTION)) {
+                    if (!configure.setBudgetAction(value)) {
+                        System.out.println("Wrong value of option: " + arg);
+                    }
+                } else if (name.equals(Configure.OPTION_CALL_SITES)) {
+                    configure.setCallSites(isOptionOn(value));
+                } else if (name.equals(Configure.OPTION_CACHE)) {
+                    configure.setCacheDir(value);
+                } else if (name.equals(Configure.OPTION_EXCLUDE)) {
+                    for (String pattern : value.split(Configure.COMMA)) {
+                        configure.addExcludePattern(pattern);
+                    }
+                } else {
+                    System.out.println("Not support this option: " + arg);
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Wrong value of option: " + arg);
+            }
+        }
+    }
+
+
+    /**
+     * a switch option is on when it is given without value, or with value "true"
+     * @param value
+     * @return
+     */
+    private boolean isOptionOn(String value) {
+        return value.equals(Configure.NULL_STRING) || Boolean.parseBoolean(value);
+    }
 
     private String[] getDepType(String depMask) {
         ArrayList<String> depStrs = new ArrayList<String>();
@@ -124,7 +286,6 @@ public class TemplateWork {
     }
 
     private void summary() {
-        Configure configure = Configure.getConfigureInstance();
         RelationInterface relationInterface = null;
         if (configure.getLang().equals(Configure.GO_LANG)) {
             relationInterface = new GoRelationInf();
@@ -151,7 +312,7 @@ public class TemplateWork {
 
         //export external implicit calls at file level
         String[] partialDepType = new String[]{Configure.RELATION_IMPLICIT_EXTERNAL_CALL};
-        Formator partialFormator = new Formator(partialDepType);
+        Formator partialFormator = new Formator(session, partialDepType);
         JDepObject partialJDepObject = partialFormator.getfJsonDataModel();
         JsonWriter jsonWriter = new JsonWriter();
         String partialJsonfile = configure.getAnalyzedProjectName() + "_implicit_dep.json";
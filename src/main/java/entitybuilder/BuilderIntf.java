@@ -1,21 +1,70 @@
 package entitybuilder;
 
+import client.AnalysisSession;
+import entitybuilder.gobuilder.govisitor.GoImportScanner;
+import entitybuilder.pybuilder.pyvisitor.PyImportScanner;
+import org.antlr.v4.runtime.Token;
 import parser.ParserInf;
+import priextractor.goextractor.search.GoModFile;
 import entitybuilder.gobuilder.govisitor.GoEntityVisitor;
 import entitybuilder.pybuilder.pyvisitor.PyEntityVisitor;
 import org.antlr.v4.runtime.tree.AbstractParseTreeVisitor;
 import org.antlr.v4.runtime.tree.ParseTree;
+import uerr.SingleCollect;
 import util.Configure;
 import util.FileUtil;
+import util.ParallelUtil;
 import util.StringUtil;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BuilderIntf {
 
-    private Configure configure = Configure.getConfigureInstance();
+    private AnalysisSession session;
+    private Configure configure;
+    private SingleCollect singleCollect;
     private AbstractParseTreeVisitor visitor = null; //from this package
     private ParseTree tree = null;
+    private List<Token> tokens = null; //in the import-only mode, or for a file over the parse budget
+    private boolean isOverBudget = false;
+    private EntityCache entityCache = null;
+
+    public BuilderIntf(AnalysisSession session) {
+        this.session = session;
+        configure = session.getConfigure();
+        singleCollect = session.getSingleCollect();
+    }
+
+    /**
+     * the handler of the files without the source suffix found by the discovery walk.
+     * For golang, it keeps go.mod and go.work for resolving the import paths, so they are not searched again.
+     * @return the handler, or null if they are not needed
+     */
+    private FileUtil.FoundFileHandler getOtherFileHandler() {
+        if(!configure.getLang().equals(Configure.GO_LANG)) {
+            return null;
+        }
+        return new FileUtil.FoundFileHandler() {
+            @Override
+            public void handle(String fileFullPath) {
+                if(GoModFile.isModFile(fileFullPath)) {
+                    singleCollect.addModFile(fileFullPath);
+                }
+            }
+        };
+    }
 
     /**
      * get visitor from current package
@@ -42,32 +91,367 @@ public class BuilderIntf {
         ParserInf parserInterface = new ParserInf();
         try {
             tree = parserInterface.rootEntry(fileFullPath);
+            tokens = parserInterface.getFallbackTokens();
+            isOverBudget = parserInterface.isOverBudget();
         } catch (IOException e) {
             e.printStackTrace();
         }
 
     }
 
+    /**
+     * visit the current tree by our customizer visitor, then drop both of them.
+     * @param fileFullPath
+     */
+    private void visitTree(String fileFullPath) {
+        setVisitor(StringUtil.unifyPath(fileFullPath)); //our customizer visitor, use the unified path
 
+        if(tree != null && visitor != null) {
+            System.out.println(fileFullPath);
+            try {
+                visitor.visit(tree);
+            } catch (RuntimeException e) {
+                //a partial tree of a file over the parse budget may miss any node
+                if(!isOverBudget) {
+                    throw e;
+                }
+                System.out.println("Cannot visit the partial tree of: " + fileFullPath);
+            }
+        }
+        tree = null;
+        visitor = null;
+    }
 
-    public void run(){
-        FileUtil fileUtil = new FileUtil(configure.getInputSrcPath());
-        for (String fileFullPath : fileUtil.getFileNameList(configure.getCurr_pro_suffix())) {
+    /**
+     * get tokens from lexer, for the import-only mode
+     * @param fileFullPath
+     */
+    private void setTokens(String fileFullPath) {
+        ParserInf parserInterface = new ParserInf();
+        try {
+            tokens = parserInterface.lexEntry(fileFullPath);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-            setTree(fileFullPath); //use the original filepath, Antlr Parser will read the content of the file.
-            setVisitor(StringUtil.unifyPath(fileFullPath)); //our customizer visitor, use the unified path
+    /**
+     * scan the imports from the current tokens, then drop them.
+     * the same files are skipped as setVisitor.
+     * @param fileFullPath
+     */
+    private void scanTokens(String fileFullPath) {
+        String unifiedPath = StringUtil.unifyPath(fileFullPath);
+        if(tokens != null) {
+            if(configure.getLang().equals(Configure.GO_LANG)) {
+                if(!unifiedPath.endsWith("_test.go")) {
+                    System.out.println(fileFullPath);
+                    new GoImportScanner(unifiedPath).scan(tokens);
+                }
+            }
+            else if (configure.getLang().equals(Configure.PYTHON_LANG)) {
+                if(!unifiedPath.endsWith("_test.py")) {
+                    System.out.println(fileFullPath);
+                    new PyImportScanner(unifiedPath).scan(tokens);
+                }
+            }
+        }
+        tokens = null;
+    }
 
-            if(tree != null && visitor != null) {
+    /**
+     * build the entities of one file: replay its cached record if there is one,
+     * otherwise visit the current tree and cache the built entities.
+     * @param fileFullPath
+     * @param contentHash
+     * @param record
+     */
+    private void buildEntities(String fileFullPath, String contentHash, EntityCache.FileRecord record) {
+        if(record != null) {
+            if(!record.isEmpty()) {
                 System.out.println(fileFullPath);
-                visitor.visit(tree);
             }
+            entityCache.replay(record);
             tree = null;
-            visitor = null;
+            tokens = null;
+            return;
+        }
+        int startId = singleCollect.getCurrentIndex();
+        if(tokens != null) {
+            scanTokens(fileFullPath);
+        }
+        else {
+            visitTree(fileFullPath);
+        }
+        //the result over the budget depends on the machine load, so it is not cached
+        if(entityCache != null && !isOverBudget) {
+            entityCache.save(fileFullPath, contentHash, startId);
+        }
+        isOverBudget = false;
+    }
+
+
+    /**
+     * the visitors, and the parsing threads created here, work in the session of this builder.
+     */
+    public void run(){
+        AnalysisSession previous = session.bind();
+        try {
+            buildAll();
+        } finally {
+            AnalysisSession.restore(previous);
+        }
+    }
+
+    private void buildAll() {
+        entityCache = session.getEntityCache();
+        if(configure.isWarmUp()) {
+            new ParserInf().warmUp();
+        }
+        if(configure.getThreadNum() > 1) {
+            runPipeline();
+        }
+        else {
+            //parse and visit each file as soon as it is found, and drop its tree before the next one.
+            FileUtil.walkFiles(configure.getInputSrcPath(), configure.getCurr_pro_suffix(),
+                    configure.getExcludePatterns(), new FileUtil.FoundFileHandler() {
+                @Override
+                public void handle(String fileFullPath) {
+                    String contentHash = null;
+                    EntityCache.FileRecord record = null;
+                    if(entityCache != null) {
+                        contentHash = entityCache.hashContent(fileFullPath);
+                        record = entityCache.load(fileFullPath, contentHash);
+                    }
+                    if(record == null && configure.isImportsOnly()) {
+                        setTokens(fileFullPath);
+                    }
+                    else if(record == null) {
+                        setTree(fileFullPath); //use the original filepath, Antlr Parser will read the content of the file.
+                    }
+                    buildEntities(fileFullPath, contentHash, record);
+                }
+            }, getOtherFileHandler());
         }
         System.out.println("Identify entities successfully...");
+        System.out.println(session.getParseStatis().parseStatis());
+        System.out.println(session.getParseStatis().budgetReport());
+        if(entityCache != null) {
+            System.out.println(session.getCacheStatis().cacheStatis());
+        }
+
+
+    }
+
+    /**
+     * a pipeline of three stages: discovery -> parsing -> visiting.
+     *
+     * The discovery thread walks the tree, submits each found file to a pool of parsing threads,
+     * and puts the pending result into a bounded queue in the discovery order.
+     * The current thread takes the results from the queue one by one, visits the tree and drops it.
+     * When the queue is full, the discovery blocks, so at most a bounded number of trees is alive,
+     * whatever the size of the repository.
+     *
+     * The visitors assign entity ids by the current size of SingleCollect, and search the packages created by
+     * previous files, so visiting in the discovery order as the sequential run keeps the ids and outputs identical.
+     */
+    private void runPipeline() {
+        int threadNum = configure.getThreadNum();
+        final ExecutorService parsingExecutor = Executors.newFixedThreadPool(threadNum);
+        final BlockingQueue<Future<ParsedFile>> parsedFiles = new ArrayBlockingQueue<Future<ParsedFile>>(threadNum * 2);
+        //set when the visiting ends, normally or by an exception, so the discovery stops instead of waiting for room
+        final AtomicBoolean isCancelled = new AtomicBoolean(false);
+        final FileUtil.FoundFileHandler otherFileHandler = getOtherFileHandler();
+
+        Thread discoveryThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    FileUtil.walkFiles(configure.getInputSrcPath(), configure.getCurr_pro_suffix(),
+                            configure.getExcludePatterns(), new FileUtil.FoundFileHandler() {
+                        @Override
+                        public void handle(String fileFullPath) {
+                            Future<ParsedFile> parsedFile;
+                            try {
+                                parsedFile = parsingExecutor.submit(new ParseTask(fileFullPath, entityCache));
+                            } catch (RejectedExecutionException e) {
+                                throw new DiscoveryCancelledException();
+                            }
+                            if (!offerUntilCancelled(parsedFiles, parsedFile, isCancelled)) {
+                                parsedFile.cancel(true);
+                                throw new DiscoveryCancelledException();
+                            }
+                        }
+                    }, otherFileHandler);
+                } catch (DiscoveryCancelledException e) {
+                    //the visiting has ended
+                } catch (Throwable e) {
+                    //the visiting thread rethrows it, as the walk in the sequential run does
+                    offerUntilCancelled(parsedFiles, failedFuture(e), isCancelled);
+                } finally {
+                    offerUntilCancelled(parsedFiles, END_OF_FILES, isCancelled);
+                }
+            }
+        }, "discovery");
+        discoveryThread.setDaemon(true);
+        discoveryThread.start();
+
+        try {
+            while (true) {
+                Future<ParsedFile> future = parsedFiles.take();
+                if (future == END_OF_FILES) {
+                    break;
+                }
+                ParsedFile parsedFile;
+                try {
+                    parsedFile = future.get();
+                } catch (ExecutionException e) {
+                    throw ParallelUtil.rethrowCause(e);
+                }
+                tree = parsedFile.tree;
+                tokens = parsedFile.tokens;
+                isOverBudget = parsedFile.isOverBudget;
+                buildEntities(parsedFile.fileFullPath, parsedFile.contentHash, parsedFile.record);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            e.printStackTrace();
+        } finally {
+            //drop the pending parse results, and let the discovery exit if it is waiting for room in the queue
+            isCancelled.set(true);
+            parsedFiles.clear();
+            parsingExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * put future into queue, waiting for room until the pipeline is cancelled
+     * @param queue
+     * @param future
+     * @param isCancelled
+     * @return false if the pipeline is cancelled before future is put
+     */
+    private static boolean offerUntilCancelled(BlockingQueue<Future<ParsedFile>> queue, Future<ParsedFile> future,
+                                               AtomicBoolean isCancelled) {
+        boolean interrupted = false;
+        try {
+            while (!isCancelled.get()) {
+                try {
+                    if (queue.offer(future, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            return false;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 
+    //how long the discovery waits for room in the queue before checking the cancellation again
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
 
+    /**
+     * stops the walk of the discovery thread when the pipeline is cancelled
+     */
+    private static class DiscoveryCancelledException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * @param cause
+     * @return a done future whose get() throws cause in an ExecutionException
+     */
+    private static Future<ParsedFile> failedFuture(final Throwable cause) {
+        FutureTask<ParsedFile> future = new FutureTask<ParsedFile>(new Callable<ParsedFile>() {
+            @Override
+            public ParsedFile call() throws Exception {
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw new Exception(cause);
+            }
+        });
+        future.run();
+        return future;
     }
 
+    //marks the end of the discovery in the queue
+    private static final Future<ParsedFile> END_OF_FILES = new FutureTask<ParsedFile>(new Callable<ParsedFile>() {
+        @Override
+        public ParsedFile call() {
+            return null;
+        }
+    });
+
+
+    /**
+     * a file and its tree (or its tokens in the import-only mode), or its cached record instead
+     */
+    private static class ParsedFile {
+        private String fileFullPath;
+        private ParseTree tree;
+        private List<Token> tokens;
+        private boolean isOverBudget;
+        private String contentHash;
+        private EntityCache.FileRecord record;
+
+        ParsedFile(String fileFullPath, ParseTree tree, List<Token> tokens, boolean isOverBudget,
+                   String contentHash, EntityCache.FileRecord record) {
+            this.fileFullPath = fileFullPath;
+            this.tree = tree;
+            this.tokens = tokens;
+            this.isOverBudget = isOverBudget;
+            this.contentHash = contentHash;
+            this.record = record;
+        }
+    }
+
+    /**
+     * load the cached record of one file, or parse it when there is no valid record, in a worker thread
+     */
+    private static class ParseTask implements Callable<ParsedFile> {
+        private String fileFullPath;
+        private EntityCache entityCache;
+
+        ParseTask(String fileFullPath, EntityCache entityCache) {
+            this.fileFullPath = fileFullPath;
+            this.entityCache = entityCache;
+        }
+
+        @Override
+        public ParsedFile call() {
+            String contentHash = null;
+            if(entityCache != null) {
+                contentHash = entityCache.hashContent(fileFullPath);
+                EntityCache.FileRecord record = entityCache.load(fileFullPath, contentHash);
+                if(record != null) {
+                    return new ParsedFile(fileFullPath, null, null, false, contentHash, record);
+                }
+            }
+            ParserInf parserInterface = new ParserInf();
+            ParseTree tree = null;
+            List<Token> tokens = null;
+            try {
+                if(Configure.getConfigureInstance().isImportsOnly()) {
+                    tokens = parserInterface.lexEntry(fileFullPath);
+                }
+                else {
+                    tree = parserInterface.rootEntry(fileFullPath);
+                    tokens = parserInterface.getFallbackTokens();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return new ParsedFile(fileFullPath, tree, tokens, parserInterface.isOverBudget(), contentHash, null);
+        }
+    }
 
 }
@@ -0,0 +1,35 @@
+package entitybuilder;
+
+import client.AnalysisSession;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * the hits and misses of the entity cache in one analysis, shared by all parsing threads.
+ */
+public class CacheStatis {
+    private AtomicInteger hitFileNum = new AtomicInteger(0);
+    private AtomicInteger missFileNum = new AtomicInteger(0);
+
+    /**
+     * @return the statistics of the session bound to the current thread
+     */
+    public static CacheStatis getCacheStatisInstance() {
+        return AnalysisSession.getCurrentSession().getCacheStatis();
+    }
+
+    public void addHitFile() {
+        hitFileNum.incrementAndGet();
+    }
+
+    public void addMissFile() {
+        missFileNum.incrementAndGet();
+    }
+
+    public String cacheStatis() {
+        String str = "";
+        str += ("Cached files:      " + hitFileNum.get() + "\n");
+        str += ("Re-parsed files:   " + missFileNum.get() + "\n");
+        return str;
+    }
+}
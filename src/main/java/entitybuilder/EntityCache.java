@@ -0,0 +1,374 @@
+package entitybuilder;
+
+import entitybuilder.gobuilder.govisitor.ProcessTask;
+import uerr.AbsEntity;
+import uerr.AbsFLDEntity;
+import uerr.AbsFUNEntity;
+import uerr.AbsVAREntity;
+import uerr.SingleCollect;
+import util.Configure;
+import util.StringUtil;
+import util.Tuple;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * on-disk cache of the entities built from each source file.
+ *
+ * After a file is visited, the entities it added into SingleCollect (with its names, localNames, local blocks,
+ * called function strings and imports, all unresolved yet) are stored as one record, together with the content hash.
+ * In a later run, if the hash of the file is unchanged, the record is replayed into SingleCollect instead of
+ * parsing and visiting the file again. The dependencies are always resolved again by priextractor.
+ *
+ * The records are also kept in memory, serialized, so that the rounds of the watch mode do not read the disk,
+ * and the content hash of each file is kept until invalidate() is called with it, so that only the changed files
+ * are read and hashed again. A record is deserialized for each replay, because the replayed entities
+ * are changed by remapping their ids and by resolving the dependencies.
+ *
+ * The ids of a replayed record are remapped to the current end of SingleCollect.
+ * A golang file refers to its package, which may be created by an earlier file,
+ * so packages are matched by their full path as GoEntityVisitor does.
+ */
+public class EntityCache {
+
+    private static final String RECORD_SUFFIX = ".ser";
+    private static final String HASH_ALGORITHM = "SHA-1";
+    //bump it when the fields of a cached class change, so the records written before are read as misses
+    private static final int FORMAT_VERSION = 1;
+
+    private Configure configure = Configure.getConfigureInstance();
+    private File cacheDir = null;
+
+    //unified file path -> the content hash when it was hashed, or the serialized record of the last save or load
+    private ConcurrentHashMap<String, String> contentHashes = new ConcurrentHashMap<String, String>();
+    private ConcurrentHashMap<String, byte[]> memoryRecords = new ConcurrentHashMap<String, byte[]>();
+
+    /**
+     * @param cacheDir the dir of the records, or null to keep them only in memory
+     */
+    public EntityCache(String cacheDir) {
+        if(cacheDir != null) {
+            this.cacheDir = new File(cacheDir);
+            this.cacheDir.mkdirs();
+        }
+    }
+
+
+    /**
+     * the entities built from one file
+     */
+    public static class FileRecord implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private int formatVersion = FORMAT_VERSION;
+        private String contentHash;
+        private ArrayList<AbsEntity> entities = new ArrayList<AbsEntity>();
+        //the folders referred but not built by this file: old id -> (fullPath, name)
+        private HashMap<Integer, Tuple<String, String>> externalFolders = new HashMap<Integer, Tuple<String, String>>();
+
+        public boolean isEmpty() {
+            return entities.isEmpty();
+        }
+    }
+
+
+    /**
+     * the hash of the file content, or null if it cannot be read.
+     * The file is read only the first time, or the first time after it is invalidated.
+     * @param fileFullPath
+     * @return
+     */
+    public String hashContent(String fileFullPath) {
+        String unifiedPath = StringUtil.unifyPath(fileFullPath);
+        String contentHash = contentHashes.get(unifiedPath);
+        if(contentHash != null) {
+            return contentHash;
+        }
+        try {
+            contentHash = toHex(digest(Files.readAllBytes(Paths.get(fileFullPath))));
+        } catch (IOException e) {
+            return null;
+        }
+        contentHashes.put(unifiedPath, contentHash);
+        return contentHash;
+    }
+
+    /**
+     * forget the hashes and the records of the changed files, and of all files under the changed directories.
+     * @param changedPaths
+     */
+    public void invalidate(Collection<String> changedPaths) {
+        for (String changedPath : changedPaths) {
+            String unifiedPath = StringUtil.unifyPath(changedPath);
+            String dirPrefix = unifiedPath + "/";
+            for (String path : contentHashes.keySet()) {
+                if(path.equals(unifiedPath) || path.startsWith(dirPrefix)) {
+                    contentHashes.remove(path);
+                    memoryRecords.remove(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * it can be called by any thread.
+     * @param fileFullPath
+     * @param contentHash
+     * @return the record of the file if its content is unchanged, otherwise null.
+     */
+    public FileRecord load(String fileFullPath, String contentHash) {
+        if(contentHash != null) {
+            String unifiedPath = StringUtil.unifyPath(fileFullPath);
+            byte[] bytes = memoryRecords.get(unifiedPath);
+            if(bytes == null) {
+                bytes = readRecordFile(fileFullPath);
+            }
+            FileRecord record = bytes == null ? null : toRecord(bytes);
+            if(record != null && record.formatVersion == FORMAT_VERSION && record.contentHash.equals(contentHash)) {
+                memoryRecords.put(unifiedPath, bytes);
+                CacheStatis.getCacheStatisInstance().addHitFile();
+                return record;
+            }
+        }
+        CacheStatis.getCacheStatisInstance().addMissFile();
+        return null;
+    }
+
+    /**
+     * store the entities from startId to the end of SingleCollect, which are just built from the file.
+     * it must be called right after the file is visited, before the next file changes these entities.
+     * @param fileFullPath
+     * @param contentHash
+     * @param startId
+     */
+    public void save(String fileFullPath, String contentHash, int startId) {
+        if(contentHash == null) {
+            return;
+        }
+        SingleCollect singleCollect = SingleCollect.getSingleCollectInstance();
+        FileRecord record = new FileRecord();
+        record.contentHash = contentHash;
+        int endId = singleCollect.getCurrentIndex();
+        for (int id = startId; id < endId; id++) {
+            AbsEntity entity = singleCollect.getEntities().get(id);
+            record.entities.add(entity);
+            int parentId = entity.getParentId();
+            if(parentId != -1 && parentId < startId && singleCollect.isFolder(parentId)) {
+                AbsFLDEntity folder = (AbsFLDEntity) singleCollect.getEntities().get(parentId);
+                record.externalFolders.put(parentId, new Tuple<String, String>(folder.getFullPath(), folder.getName()));
+            }
+        }
+
+        byte[] bytes = toBytes(record);
+        if(bytes == null) {
+            System.out.println("Cannot write cache for: " + fileFullPath);
+            return;
+        }
+        memoryRecords.put(StringUtil.unifyPath(fileFullPath), bytes);
+        if(cacheDir == null) {
+            return;
+        }
+        OutputStream out = null;
+        try {
+            out = new BufferedOutputStream(new FileOutputStream(getRecordFile(fileFullPath)));
+            out.write(bytes);
+        } catch (IOException e) {
+            System.out.println("Cannot write cache for: " + fileFullPath);
+        } finally {
+            close(out);
+        }
+    }
+
+    /**
+     * add the entities of record into SingleCollect, in the same order as visiting the file.
+     * @param record
+     */
+    public void replay(FileRecord record) {
+        SingleCollect singleCollect = SingleCollect.getSingleCollectInstance();
+        boolean isGo = configure.getLang().equals(Configure.GO_LANG);
+        ProcessTask processTask = new ProcessTask();
+        Map<Integer, Integer> idMap = new HashMap<Integer, Integer>();
+        //the old ids of entities whose parent is not built by this record
+        Set<Integer> childrenOfExternals = new HashSet<Integer>();
+
+        //the referred folders, create them if they are gone.
+        for (Map.Entry<Integer, Tuple<String, String>> entry : record.externalFolders.entrySet()) {
+            String fullPath = entry.getValue().x;
+            int folderId = processTask.searchPackageIndex(fullPath);
+            if(folderId == -1) {
+                folderId = processTask.processPackageDecl(fullPath, entry.getValue().y);
+            }
+            idMap.put(entry.getKey(), folderId);
+        }
+
+        //a golang package built by this file may have been built by an earlier file in this run
+        ArrayList<AbsEntity> newEntities = new ArrayList<AbsEntity>();
+        int nextId = singleCollect.getCurrentIndex();
+        for (AbsEntity entity : record.entities) {
+            if(isGo && entity instanceof AbsFLDEntity) {
+                int folderId = processTask.searchPackageIndex(((AbsFLDEntity) entity).getFullPath());
+                if(folderId != -1) {
+                    idMap.put(entity.getId(), folderId);
+                    continue;
+                }
+            }
+            idMap.put(entity.getId(), nextId);
+            nextId++;
+            newEntities.add(entity);
+        }
+        //the folders found or created above are not in this record, so they need to add their children
+        int replayStartId = singleCollect.getCurrentIndex();
+        for (AbsEntity entity : newEntities) {
+            Integer newParentId = idMap.get(entity.getParentId());
+            if(newParentId != null && newParentId < replayStartId) {
+                childrenOfExternals.add(entity.getId());
+            }
+        }
+
+        Set<Integer> blockScopedVars = getBlockScopedVars(record);
+        for (AbsEntity entity : newEntities) {
+            int oldId = entity.getId();
+            boolean isEntityScoped = isGo && entity instanceof AbsVAREntity
+                    && !blockScopedVars.contains(oldId)
+                    && ((AbsVAREntity) entity).getLocalBlockId() == entity.getParentId();
+            entity.remapIds(idMap);
+            if(isEntityScoped) {
+                ((AbsVAREntity) entity).setLocalBlockId(entity.getParentId());
+            }
+            singleCollect.addEntity(entity);
+            if(childrenOfExternals.contains(oldId)) {
+                singleCollect.getEntities().get(entity.getParentId()).addChildId(entity.getId());
+            }
+        }
+    }
+
+    /**
+     * golang ProcessTask sets the localBlockId of receivers, parameters, returns and file-level vars
+     * to their parent entity id, while the vars inside a function body hold the index of their local block.
+     * @param record
+     * @return the old ids of vars inside function bodies
+     */
+    private Set<Integer> getBlockScopedVars(FileRecord record) {
+        Set<Integer> vars = new HashSet<Integer>();
+        for (AbsEntity entity : record.entities) {
+            if(entity instanceof AbsFUNEntity) {
+                vars.addAll(entity.getChildrenIds());
+            }
+        }
+        return vars;
+    }
+
+    /**
+     * @param fileFullPath
+     * @return the bytes of the record file, or null if there is no cache dir or no readable record
+     */
+    private byte[] readRecordFile(String fileFullPath) {
+        if(cacheDir == null) {
+            return null;
+        }
+        File recordFile = getRecordFile(fileFullPath);
+        if(!recordFile.isFile()) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(recordFile.toPath());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static byte[] toBytes(FileRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = null;
+        try {
+            out = new ObjectOutputStream(bytes);
+            out.writeObject(record);
+        } catch (IOException e) {
+            return null;
+        } finally {
+            close(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param bytes
+     * @return the record, or null if it is unreadable or written by other classes
+     */
+    private static FileRecord toRecord(byte[] bytes) {
+        ObjectInputStream in = null;
+        try {
+            in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+            return (FileRecord) in.readObject();
+        } catch (IOException e) {
+            //an unreadable or outdated record is the same as no record
+            return null;
+        } catch (ClassNotFoundException e) {
+            //same as above
+            return null;
+        } catch (ClassCastException e) {
+            //same as above
+            return null;
+        } finally {
+            close(in);
+        }
+    }
+
+    private File getRecordFile(String fileFullPath) {
+        String key = configure.getLang() + "\n"
+                + configure.isImportsOnly() + "\n"
+                + StringUtil.unifyPath(fileFullPath) + "\n"
+                + configure.getUnifiedInputSrcpath() + "\n"
+                + configure.getUsageSrcPath();
+        try {
+            return new File(cacheDir, toHex(digest(key.getBytes("UTF-8"))) + RECORD_SUFFIX);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] digest(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM).digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder str = new StringBuilder();
+        for (byte b : bytes) {
+            str.append(String.format("%02x", b));
+        }
+        return str.toString();
+    }
+
+    private static void close(java.io.Closeable closeable) {
+        if(closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
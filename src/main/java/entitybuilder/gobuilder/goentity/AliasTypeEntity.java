@@ -1,6 +1,12 @@
 package entitybuilder.gobuilder.goentity;
 
+import uerr.EntityKind;
+
 public class AliasTypeEntity extends TypeEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.ALIAS_TYPE;
+    }
     String type; //it real type
     //String name; //it's alias type
 
@@ -23,8 +29,8 @@ public class AliasTypeEntity extends TypeEntity {
         str += ("id:" + id + ',');
         str += ("type:" + type + ',');
         str += ("parentId:" + parentId + ",");
-        str += ("childrenIds:" + childrenIds + ",");
-        str += ("relations:" + relations);
+        str += ("childrenIds:" + getChildrenIds() + ",");
+        str += ("relations:" + getRelations());
         str += ")\n";
         return str;
     }
@@ -1,8 +1,13 @@
 package entitybuilder.gobuilder.goentity;
 
 import uerr.AbsVAREntity;
+import uerr.EntityKind;
 
 public class ConstEntity extends AbsVAREntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.CONST;
+    }
     public ConstEntity(int i, String type, String name) {
         super(i,type,name);
         setSimpleName();
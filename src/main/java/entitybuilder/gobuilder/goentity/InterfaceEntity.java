@@ -1,6 +1,12 @@
 package entitybuilder.gobuilder.goentity;
 
+import uerr.EntityKind;
+
 public class InterfaceEntity extends TypeEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.INTERFACE;
+    }
 
     public InterfaceEntity(int id, String name) {
         this.id = id;
@@ -16,8 +22,8 @@ public class InterfaceEntity extends TypeEntity {
         str += ("id:" + Integer.toString(id) + ",");
         str += ("name:" + name + ",");
         str += ("parentId:" + parentId + ",");
-        str += ("childrenIds:" + childrenIds + ",");
-        str += ("relations:" + relations);
+        str += ("childrenIds:" + getChildrenIds() + ",");
+        str += ("relations:" + getRelations());
         str += ")\n";
         return str;
     }
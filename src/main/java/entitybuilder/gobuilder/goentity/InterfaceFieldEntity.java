@@ -1,12 +1,16 @@
 package entitybuilder.gobuilder.goentity;
 
-
 import uerr.AbsEntity;
 import uerr.AbsVAREntity;
+import uerr.EntityKind;
 
 import java.util.ArrayList;
 
 public class InterfaceFieldEntity extends AbsEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.INTERFACE_FIELD;
+    }
     private String type; //"METHOD" or "TYPE"
     //private String parameters; //if type = METHOD, it maybe will have
     //private String returns;    //if type = METHOD, it maybe will have
@@ -1,8 +1,15 @@
 package entitybuilder.gobuilder.goentity;
 
 import uerr.AbsFUNEntity;
+import uerr.EntityKind;
+
+import java.util.Map;
 
 public class MethodEntity extends AbsFUNEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.METHOD;
+    }
     //private AbsVAREntity receiver;
     private int receiverVarId;
 
@@ -27,6 +34,12 @@ public class MethodEntity extends AbsFUNEntity {
         this.receiverVarId = receiverVarId;
     }
 
+    @Override
+    public void remapIds(Map<Integer, Integer> idMap) {
+        super.remapIds(idMap);
+        receiverVarId = remapId(receiverVarId, idMap);
+    }
+
     @Override
     public String toString() {
         String str = "";
@@ -37,7 +50,7 @@ public class MethodEntity extends AbsFUNEntity {
         str += ("parameters:" + parameters + ",");
         str += ("returns:" + returns + ",");
         str += ("parentId:" + parentId + ",");
-        str += ("childrenIds:" + childrenIds);
+        str += ("childrenIds:" + getChildrenIds());
         str += ")\n";
         return str;
     }
@@ -1,17 +1,36 @@
 package entitybuilder.gobuilder.goentity;
 
+import uerr.SymbolTable;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class Signature {
     private String name;
     private ArrayList<String> inputTypes;
     private ArrayList<String> outputsTypes;
+    //the ids of name and types in SymbolTable, for comparing signatures
+    private int nameId;
+    private int[] inputTypeIds;
+    private int[] outputTypeIds;
 
 
     public Signature(String name, ArrayList<String> inputTypes, ArrayList<String> outputsTypes) {
         this.name = name;
         this.inputTypes = inputTypes;
         this.outputsTypes = outputsTypes;
+        SymbolTable symbolTable = SymbolTable.getSymbolTableInstance();
+        this.nameId = symbolTable.getId(name);
+        this.inputTypeIds = toIds(inputTypes, symbolTable);
+        this.outputTypeIds = toIds(outputsTypes, symbolTable);
+    }
+
+    private static int[] toIds(ArrayList<String> types, SymbolTable symbolTable) {
+        int[] ids = new int[types.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = symbolTable.getId(types.get(i));
+        }
+        return ids;
     }
 
     public String getName() {
@@ -26,28 +45,54 @@ public class Signature {
         return outputsTypes;
     }
 
+    public int getNameId() {
+        return nameId;
+    }
+
     public boolean isEqual(Signature signature1) {
-        if (!(name.equals(signature1.getName()))) {
+        if (nameId != signature1.nameId) {
             return false;
         }
-        if (inputTypes.size() != signature1.getInputTypes().size()) {
+        if (inputTypeIds.length != signature1.inputTypeIds.length) {
             return false;
         }
-        if (outputsTypes.size() != signature1.getOutputsTypes().size()) {
+        if (outputTypeIds.length != signature1.outputTypeIds.length) {
             return false;
         }
-        for (int i = 0; i < inputTypes.size(); i++) {
-            if(!(inputTypes.get(i).equals(signature1.getInputTypes().get(i)))) {
+        for (int i = 0; i < inputTypeIds.length; i++) {
+            if(inputTypeIds[i] != signature1.inputTypeIds[i]) {
                 return false;
             }
         }
 
-        for (int i = 0; i < outputsTypes.size(); i++) {
-            if(!(outputsTypes.get(i).equals(signature1.getOutputsTypes().get(i)))) {
+        for (int i = 0; i < outputTypeIds.length; i++) {
+            if(outputTypeIds[i] != signature1.outputTypeIds[i]) {
                 return false;
             }
         }
         return true;
     }
 
+    /**
+     * two signatures are equal if isEqual(), so a signature can be a key of a map
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Signature)) {
+            return false;
+        }
+        return isEqual((Signature) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = nameId;
+        hash = 31 * hash + Arrays.hashCode(inputTypeIds);
+        hash = 31 * hash + Arrays.hashCode(outputTypeIds);
+        return hash;
+    }
+
 }
@@ -1,6 +1,12 @@
 package entitybuilder.gobuilder.goentity;
 
+import uerr.EntityKind;
+
 public class StructEntity extends TypeEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.STRUCT;
+    }
 
     public StructEntity(int id, String name) {
         this.id = id;
@@ -16,8 +22,8 @@ public class StructEntity extends TypeEntity {
         str += ("id:" + Integer.toString(id) + ",");
         str += ("name:" + name + ",");
         str += ("parentId:" + parentId + ",");
-        str += ("childrenIds:" + childrenIds + ",");
-        str += ("relations:" + relations);
+        str += ("childrenIds:" + getChildrenIds() + ",");
+        str += ("relations:" + getRelations());
         str += ")\n";
         return str;
 
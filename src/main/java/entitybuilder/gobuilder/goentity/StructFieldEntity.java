@@ -1,8 +1,13 @@
 package entitybuilder.gobuilder.goentity;
 
 import uerr.AbsVAREntity;
+import uerr.EntityKind;
 
 public class StructFieldEntity extends AbsVAREntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.STRUCT_FIELD;
+    }
     public StructFieldEntity(int id, String type, String name) {
         this.id = id;
         this.type = type;
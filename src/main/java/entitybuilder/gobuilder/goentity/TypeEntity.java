@@ -1,7 +1,12 @@
 package entitybuilder.gobuilder.goentity;
 
 import uerr.AbsCLSEntity;
+import uerr.EntityKind;
 
 public class TypeEntity extends AbsCLSEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.TYPE;
+    }
 
 }
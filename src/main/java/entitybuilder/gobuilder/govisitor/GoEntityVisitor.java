@@ -88,7 +88,7 @@ public class GoEntityVisitor extends GolangBaseVisitor<String> {
         String importName = Configure.NULL_STRING;
         String importPath = Configure.NULL_STRING;
 
-        if (ctx.getChild(0).equals(Configure.DOT)) {
+        if (ctx.getChild(0).getText().equals(Configure.DOT)) {
             importName = Configure.DOT;
         } else if (ctx.IDENTIFIER() != null) {
             importName = ctx.IDENTIFIER().getText();
@@ -834,10 +834,12 @@ public class GoEntityVisitor extends GolangBaseVisitor<String> {
     public String visitMethodCallPrimaryExpr(GolangParser.MethodCallPrimaryExprContext ctx) {
         String str = Configure.NULL_STRING;
         if (ctx != null) {
-            str = visitPrimaryExpr(ctx.primaryExpr()) + visitArguments(ctx.arguments());
+            str = visitPrimaryExpr(ctx.primaryExpr());
+            //if the callee starts with a call, e.g. f() of f().m(), it is the last call in the callee
+            int lastCallIndex = processTask.getCallSiteNum(functionIndex) - 1;
+            str += visitArguments(ctx.arguments());
+            processTask.processCallSite(functionIndex, ctx, lastCallIndex);
         }
-
-        processTask.processMethodCallPrimaryExpr(functionIndex, str);
         return str;
     }
 
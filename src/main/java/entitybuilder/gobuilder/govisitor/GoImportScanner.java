@@ -0,0 +1,124 @@
+package entitybuilder.gobuilder.govisitor;
+
+import org.antlr.v4.runtime.Token;
+import parser.parsego.GolangLexer;
+import util.Configure;
+
+import java.util.List;
+
+/**
+ * the import-only counterpart of GoEntityVisitor.
+ * It reads the package clause and the import declarations from the tokens of a file,
+ * and saves the same package entity, file entity and imports as GoEntityVisitor, without parsing.
+ *
+ * sourceFile: packageClause eos ( importDecl eos )* ...
+ * packageClause: 'package' IDENTIFIER;
+ * importDecl: 'import' ( importSpec | '(' ( importSpec eos )* ')' );
+ * importSpec: ( '.' | IDENTIFIER )? importPath;
+ */
+public class GoImportScanner {
+
+    private static final String PACKAGE = "package";
+    private static final String IMPORT = "import";
+
+    private ProcessTask processTask = new ProcessTask();
+
+    private String fileFullPath;
+    private List<Token> tokens;
+    private int index = 0;
+
+    public GoImportScanner(String fileFullPath) {
+        this.fileFullPath = fileFullPath;
+    }
+
+    /**
+     * @param tokens the tokens on the default channel
+     */
+    public void scan(List<Token> tokens) {
+        this.tokens = tokens;
+        this.index = 0;
+
+        if(!isText(PACKAGE) || lookAhead(1).getType() != GolangLexer.IDENTIFIER) {
+            return;
+        }
+        int fileIndex = processPackageClause(lookAhead(1).getText());
+        index += 2;
+        skipSemicolons();
+
+        //the import declarations are only before all top level declarations
+        while (isText(IMPORT)) {
+            index++;
+            if(isText(Configure.LEFT_PARENTHESES)) {
+                index++;
+                while (!isEnd() && !isText(Configure.RIGHT_PARENTHESES)) {
+                    if(!scanImportSpec(fileIndex)) {
+                        index++;
+                    }
+                    skipSemicolons();
+                }
+                index++;
+            }
+            else {
+                scanImportSpec(fileIndex);
+            }
+            skipSemicolons();
+        }
+    }
+
+    /**
+     * the same as GoEntityVisitor.visitPackageClause
+     * @param packageName
+     * @return fileIndex
+     */
+    private int processPackageClause(String packageName) {
+        String packagePath = processTask.getPackagePath(fileFullPath);
+        int packageIndex = processTask.searchPackageIndex(packagePath);
+        if (packageIndex == -1) {
+            packageIndex = processTask.processPackageDecl(packagePath, packageName);
+        }
+        return processTask.processFile(packageIndex, fileFullPath);
+    }
+
+    /**
+     * importSpec: ( '.' | IDENTIFIER )? importPath;
+     * @param fileIndex
+     * @return false if the current tokens are not an importSpec
+     */
+    private boolean scanImportSpec(int fileIndex) {
+        String importName = Configure.NULL_STRING;
+        int pathIndex = index;
+        if(isText(Configure.DOT)) {
+            importName = Configure.DOT;
+            pathIndex++;
+        }
+        else if(lookAhead(0).getType() == GolangLexer.IDENTIFIER) {
+            importName = lookAhead(0).getText();
+            pathIndex++;
+        }
+        if(pathIndex >= tokens.size() || tokens.get(pathIndex).getType() != GolangLexer.STRING_LIT) {
+            return false;
+        }
+        processTask.processImport(importName + Configure.SEMICOLON + tokens.get(pathIndex).getText(), fileIndex);
+        index = pathIndex + 1;
+        return true;
+    }
+
+    private void skipSemicolons() {
+        while (isText(Configure.SEMICOLON)) {
+            index++;
+        }
+    }
+
+    private Token lookAhead(int offset) {
+        int i = Math.min(index + offset, tokens.size() - 1);
+        return tokens.get(i);
+    }
+
+    private boolean isEnd() {
+        return index >= tokens.size() || tokens.get(index).getType() == Token.EOF;
+    }
+
+    private boolean isText(String text) {
+        return !isEnd() && tokens.get(index).getText().equals(text);
+    }
+}
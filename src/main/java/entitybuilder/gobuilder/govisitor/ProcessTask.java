@@ -369,18 +369,12 @@ public class ProcessTask {
 
 
 
+    /**
+     * @param packagePath
+     * @return the id of the package with packagePath, or -1
+     */
     public int searchPackageIndex(String packagePath) {
-        //System.out.println("searchPackageIndex: searched-" + packagePath);
-        ArrayList<AbsEntity> entities = singleCollect.getEntities();
-        for (int i = 0; i < entities.size(); i++) {
-            if (entities.get(i) instanceof AbsFLDEntity) {
-                //System.out.println("searchPackageIndex: ing-" + ((AbsFLDEntity) entities.get(i)).getFullPath());
-                if (((AbsFLDEntity) entities.get(i)).getFullPath().equals(packagePath)) {
-                    return i;
-                }
-            }
-        }
-        return -1;
+        return singleCollect.getFolderIdByPath(packagePath);
     }
 
 
@@ -613,18 +607,91 @@ public class ProcessTask {
 
 
     /**
-     * process the called original str
+     * the number of call sites saved in functionIndex, so the next one has this index
      * @param functionIndex
-     * @param str
+     * @return
      */
-    public void processMethodCallPrimaryExpr(int functionIndex, String str) {
-        if (functionIndex != -1) {
-            if (singleCollect.getEntities().get(functionIndex) instanceof AbsFUNEntity) {
-                ((AbsFUNEntity) singleCollect.getEntities().get(functionIndex)).addCalledFunction(str);
-            } else if (singleCollect.getEntities().get(functionIndex) instanceof MethodEntity) {
-                ((MethodEntity) singleCollect.getEntities().get(functionIndex)).addCalledFunction(str);
+    public int getCallSiteNum(int functionIndex) {
+        if (functionIndex != -1 && singleCollect.isKind(functionIndex, EntityKind.FUNCTION)) {
+            return ((AbsFUNEntity) singleCollect.getEntities().get(functionIndex)).getCallSites().size();
+        }
+        return 0;
+    }
+
+    /**
+     * save the call "calleeCtx arguments" as a call site of functionIndex.
+     * the names of the callee are taken from the selectors and the operandName at the head of calleeCtx.
+     * @param functionIndex
+     * @param ctx   the call
+     * @param lastCallIndex  the index of the last call visited in the callee, which is the head of the callee if it is a call.
+     */
+    public void processCallSite(int functionIndex, GolangParser.MethodCallPrimaryExprContext ctx, int lastCallIndex) {
+        if (functionIndex == -1 || !singleCollect.isKind(functionIndex, EntityKind.FUNCTION)) {
+            return;
+        }
+        //the names from the last one, e.g. m, field, v of v.field.m()
+        ArrayList<String> names = new ArrayList<String>();
+        GolangParser.PrimaryExprContext headCtx = ctx.primaryExpr();
+        while (headCtx instanceof GolangParser.SelectorPrimaryExprContext) {
+            names.add(((GolangParser.SelectorPrimaryExprContext) headCtx).selector().IDENTIFIER().getText());
+            headCtx = ((GolangParser.SelectorPrimaryExprContext) headCtx).primaryExpr();
+        }
+        int receiverCallIndex = -1;
+        boolean isSelectorChain = true;
+        if (headCtx instanceof GolangParser.MethodCallPrimaryExprContext) {
+            receiverCallIndex = lastCallIndex;
+        }
+        else if (headCtx instanceof GolangParser.OperandPrimaryExprContext) {
+            isSelectorChain = addOperandNames(((GolangParser.OperandPrimaryExprContext) headCtx).operand(), names);
+        }
+        else {
+            isSelectorChain = false;
+        }
+
+        String[] calleeNames = null;
+        if (isSelectorChain) {
+            calleeNames = new String[names.size()];
+            for (int i = 0; i < calleeNames.length; i++) {
+                calleeNames[i] = names.get(calleeNames.length - 1 - i);
             }
         }
+        CallSite callSite = new CallSite(calleeNames, receiverCallIndex,
+                ctx.getStart().getLine(), ctx.getStart().getCharPositionInLine());
+        ((AbsFUNEntity) singleCollect.getEntities().get(functionIndex)).addCallSite(callSite);
+    }
+
+    /**
+     * add the names of operand in the reverse order
+     * operand : literal | operandName | methodExpr | '(' expression ')';
+     * operandName: IDENTIFIER | qualifiedIdent;
+     * methodExpr: receiverType '.' IDENTIFIER, whose receiverType is a typeName.
+     * @param ctx
+     * @param names
+     * @return false if operand is not a name
+     */
+    private boolean addOperandNames(GolangParser.OperandContext ctx, ArrayList<String> names) {
+        if (ctx.operandName() != null) {
+            addTypeNames(ctx.operandName().IDENTIFIER(), ctx.operandName().qualifiedIdent(), names);
+            return true;
+        }
+        else if (ctx.methodExpr() != null && ctx.methodExpr().receiverType().typeName() != null
+                && ctx.methodExpr().receiverType().getChildCount() == 1) {
+            names.add(ctx.methodExpr().IDENTIFIER().getText());
+            GolangParser.TypeNameContext typeNameCtx = ctx.methodExpr().receiverType().typeName();
+            addTypeNames(typeNameCtx.IDENTIFIER(), typeNameCtx.qualifiedIdent(), names);
+            return true;
+        }
+        return false;
+    }
+
+    private void addTypeNames(TerminalNode identifier, GolangParser.QualifiedIdentContext qualifiedIdentCtx, ArrayList<String> names) {
+        if (identifier != null) {
+            names.add(identifier.getText());
+        }
+        else {
+            names.add(qualifiedIdentCtx.IDENTIFIER(1).getText());
+            names.add(qualifiedIdentCtx.IDENTIFIER(0).getText());
+        }
     }
 
 
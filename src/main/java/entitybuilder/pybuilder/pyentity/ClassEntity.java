@@ -1,10 +1,16 @@
 package entitybuilder.pybuilder.pyentity;
 
 import uerr.AbsCLSEntity;
+import uerr.EntityKind;
 
 import java.util.ArrayList;
+import java.util.Map;
 
 public class ClassEntity extends AbsCLSEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.PY_CLASS;
+    }
 
     public ClassEntity(int id, String name) {
         this.id = id;
@@ -31,6 +37,12 @@ public class ClassEntity extends AbsCLSEntity {
         return baseClassIdList;
     }
 
+    @Override
+    public void remapIds(Map<Integer, Integer> idMap) {
+        super.remapIds(idMap);
+        remapIdList(baseClassIdList, idMap);
+    }
+
     @Override
     public String toString() {
         String str = "";
@@ -38,9 +50,9 @@ public class ClassEntity extends AbsCLSEntity {
         str += ("id:" + Integer.toString(id) + ",");
         str += ("name:" + name + ",");
         str += ("parentId:" + parentId + ",");
-        str += ("childrenIds:" + childrenIds + ",");
+        str += ("childrenIds:" + getChildrenIds() + ",");
         str += ("baseclasses:" + baseClassNameList + ",");
-        str += ("relations:" + relations);
+        str += ("relations:" + getRelations());
         str += ")\n";
         return str;
 
@@ -1,7 +1,12 @@
 package entitybuilder.pybuilder.pyentity;
 
+import uerr.EntityKind;
 
 public class ClassMethodEntity extends PyMethodEntity{
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.CLASS_METHOD;
+    }
 
     public ClassMethodEntity(int id, String name) {
         this.id = id;
@@ -16,8 +21,8 @@ public class ClassMethodEntity extends PyMethodEntity{
         str += ("id:" + Integer.toString(id) + ",");
         str += ("name:" + name + ",");
         str += ("parentId:" + parentId + ",");
-        str += ("childrenIds:" + childrenIds + ",");
-        str += ("relations:" + relations);
+        str += ("childrenIds:" + getChildrenIds() + ",");
+        str += ("relations:" + getRelations());
         str += ")\n";
         return str;
 
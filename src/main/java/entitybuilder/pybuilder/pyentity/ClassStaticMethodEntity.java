@@ -1,6 +1,12 @@
 package entitybuilder.pybuilder.pyentity;
 
+import uerr.EntityKind;
+
 public class ClassStaticMethodEntity extends PyMethodEntity{
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.CLASS_STATIC_METHOD;
+    }
 
     public ClassStaticMethodEntity(int id, String name) {
         this.id = id;
@@ -15,8 +21,8 @@ public class ClassStaticMethodEntity extends PyMethodEntity{
         str += ("id:" + Integer.toString(id) + ",");
         str += ("name:" + name + ",");
         str += ("parentId:" + parentId + ",");
-        str += ("childrenIds:" + childrenIds + ",");
-        str += ("relations:" + relations);
+        str += ("childrenIds:" + getChildrenIds() + ",");
+        str += ("relations:" + getRelations());
         str += ")\n";
         return str;
 
@@ -1,8 +1,13 @@
 package entitybuilder.pybuilder.pyentity;
 
 import uerr.AbsVAREntity;
+import uerr.EntityKind;
 
 public class ClassVarEntity extends AbsVAREntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.CLASS_VAR;
+    }
     public ClassVarEntity(int id, String name) {
         this.id = id;
         this.name = name;
@@ -1,6 +1,9 @@
 package entitybuilder.pybuilder.pyentity;
 
-public class ImportStmt {
+import java.io.Serializable;
+
+public class ImportStmt implements Serializable {
+    private static final long serialVersionUID = 1L;
     private String from;
     private String impor;
     private String as;
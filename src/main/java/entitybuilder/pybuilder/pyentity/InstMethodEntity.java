@@ -1,6 +1,12 @@
 package entitybuilder.pybuilder.pyentity;
 
+import uerr.EntityKind;
+
 public class InstMethodEntity extends PyMethodEntity{
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.INST_METHOD;
+    }
 
     public InstMethodEntity(int id, String name) {
         this.id = id;
@@ -15,8 +21,8 @@ public class InstMethodEntity extends PyMethodEntity{
         str += ("id:" + Integer.toString(id) + ",");
         str += ("name:" + name + ",");
         str += ("parentId:" + parentId + ",");
-        str += ("childrenIds:" + childrenIds + ",");
-        str += ("relations:" + relations);
+        str += ("childrenIds:" + getChildrenIds() + ",");
+        str += ("relations:" + getRelations());
         str += ")\n";
         return str;
 
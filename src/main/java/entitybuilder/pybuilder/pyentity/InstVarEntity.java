@@ -1,8 +1,13 @@
 package entitybuilder.pybuilder.pyentity;
 
 import uerr.AbsVAREntity;
+import uerr.EntityKind;
 
 public class InstVarEntity extends AbsVAREntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.INST_VAR;
+    }
     public InstVarEntity(int id, String name) {
         this.id = id;
         this.name = name;
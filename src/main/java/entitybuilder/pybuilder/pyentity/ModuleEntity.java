@@ -2,11 +2,16 @@ package entitybuilder.pybuilder.pyentity;
 
 import uerr.AbsFILEntity;
 import uerr.LocalName;
+import uerr.EntityKind;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 
 public class ModuleEntity extends AbsFILEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.MODULE;
+    }
     private String moduleSimpleName; // without path, a simple name
 
     //init form of functioncalls
@@ -99,10 +104,10 @@ public class ModuleEntity extends AbsFILEntity {
         //str += ("packageId:" + packageId + ",");
         //str += ("includes:" + includedEntities + "\n");
         str += ("parentId:" + parentId + ",");
-        str += ("childrenIds:" + childrenIds + ",");
+        str += ("childrenIds:" + getChildrenIds() + ",");
         str += ("calledFunctions:" + calledFunctions + ",");
         str += ("imports:" + importStmts + ",");
-        str += ("relations:" + relations + ")\n");
+        str += ("relations:" + getRelations() + ")\n");
         //str += ("calledFunctions with weight" + calledWeightedFunctions + ")\n");
         return str;
     }
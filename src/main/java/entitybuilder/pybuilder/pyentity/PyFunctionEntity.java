@@ -1,12 +1,17 @@
 package entitybuilder.pybuilder.pyentity;
 
 import uerr.AbsFUNEntity;
+import uerr.EntityKind;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
 public class PyFunctionEntity extends AbsFUNEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.PY_FUNCTION;
+    }
     protected ArrayList<ImportStmt> importStmts = new ArrayList<ImportStmt>();
     //imported id->above list index
     protected HashMap<Integer, Integer> importedId2Indexs = new HashMap<Integer, Integer>();
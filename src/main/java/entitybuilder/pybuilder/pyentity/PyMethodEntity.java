@@ -1,5 +1,11 @@
 package entitybuilder.pybuilder.pyentity;
 
+import uerr.EntityKind;
+
 public class PyMethodEntity extends PyFunctionEntity{
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.PY_METHOD;
+    }
 
 }
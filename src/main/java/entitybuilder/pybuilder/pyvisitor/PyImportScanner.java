@@ -0,0 +1,450 @@
+package entitybuilder.pybuilder.pyvisitor;
+
+import entitybuilder.pybuilder.PyConstantString;
+import org.antlr.v4.runtime.Token;
+import parser.parsepy.Python3Lexer;
+import parser.parsepy.Python3Parser;
+import util.Configure;
+
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * the import-only counterpart of PyEntityVisitor.
+ * It reads the tokens of a file, tracks the blocks by INDENT and DEDENT,
+ * and saves the import statements into the same module or function as PyEntityVisitor.
+ *
+ * Only the entities which may be the target or the owner of an import are saved:
+ * package, module, class, function, method, "__main__" function, and the module-level "x = ..." variables.
+ * Like PyEntityVisitor, the bodies of nested functions and inner classes are not visited.
+ */
+public class PyImportScanner {
+    private PyProcessTask processTask = new PyProcessTask();
+    private PyContextHelper contextHelper = new PyContextHelper();
+
+    private int moduleId = -1;
+    private int classId = -1;
+    private int functionId = -1;
+    private boolean isSkipped = false; //inside a body which PyEntityVisitor does not visit
+    private String methodDecoration = "";
+
+    private List<Token> tokens;
+    private int index = 0;
+    private int depth = 0;
+    private Stack<Block> blocks = new Stack<Block>();
+
+    /**
+     * the state before entering a block, restored when leaving it
+     */
+    private static class Block {
+        private int depth; //the depth of its body, or -1 for a body on the same line
+        private int classId;
+        private int functionId;
+        private boolean isSkipped;
+        private int supplementedClassId = -1;
+        private boolean isIfStmt = false; //continues with the following elif and else
+
+        Block(int depth, int classId, int functionId, boolean isSkipped) {
+            this.depth = depth;
+            this.classId = classId;
+            this.functionId = functionId;
+            this.isSkipped = isSkipped;
+        }
+    }
+
+    public PyImportScanner(String fileFullPath) {
+        //the same as PyEntityVisitor
+        if(contextHelper.isInitFile(fileFullPath)) {
+            processTask.processPackage(fileFullPath);
+        }
+        moduleId = processTask.processModule(fileFullPath);
+    }
+
+    /**
+     * @param tokens the tokens on the default channel
+     */
+    public void scan(List<Token> tokens) {
+        this.tokens = tokens;
+        this.index = 0;
+        boolean isStmtStart = true;
+        while (index < tokens.size() && tokens.get(index).getType() != Token.EOF) {
+            Token token = tokens.get(index);
+            int type = token.getType();
+            if(type == Python3Lexer.NEWLINE) {
+                while (!blocks.isEmpty() && blocks.peek().depth == -1) {
+                    leaveBlock(blocks.pop());
+                }
+                isStmtStart = true;
+                index++;
+            }
+            else if(type == Python3Parser.INDENT) {
+                depth++;
+                isStmtStart = true;
+                index++;
+            }
+            else if(type == Python3Parser.DEDENT) {
+                depth--;
+                index++;
+                while (!blocks.isEmpty() && blocks.peek().depth > depth) {
+                    if(blocks.peek().isIfStmt && (isAt(Python3Lexer.ELIF) || isAt(Python3Lexer.ELSE))) {
+                        break;
+                    }
+                    leaveBlock(blocks.pop());
+                }
+                isStmtStart = true;
+            }
+            else if(type == Python3Lexer.SEMI_COLON) {
+                isStmtStart = true;
+                index++;
+            }
+            else if(type == Python3Lexer.AT && isStmtStart) {
+                scanDecorator();
+            }
+            else if(type == Python3Lexer.IF && isStmtStart && depth == 0 && blocks.isEmpty() && isMainIf()) {
+                scanMainIf();
+                isStmtStart = isAt(Python3Lexer.NEWLINE);
+            }
+            else if(type == Python3Lexer.DEF) {
+                scanFuncdef();
+                isStmtStart = isAt(Python3Lexer.NEWLINE);
+            }
+            else if(type == Python3Lexer.CLASS) {
+                scanClassdef();
+                isStmtStart = isAt(Python3Lexer.NEWLINE);
+            }
+            else if(type == Python3Lexer.FROM) {
+                scanImportFrom();
+                isStmtStart = false;
+            }
+            else if(type == Python3Lexer.IMPORT) {
+                scanImportName();
+                isStmtStart = false;
+            }
+            else if(type == Python3Lexer.NAME && isStmtStart) {
+                scanModuleVars();
+                isStmtStart = false;
+            }
+            else {
+                if(type != Python3Lexer.ASYNC) {
+                    isStmtStart = false;
+                }
+                index++;
+            }
+        }
+        while (!blocks.isEmpty()) {
+            leaveBlock(blocks.pop());
+        }
+    }
+
+    /**
+     * decorator: '@' dotted_name ( '(' (arglist)? ')' )? NEWLINE;
+     */
+    private void scanDecorator() {
+        index++;
+        String decorator = scanDottedName();
+        if(methodDecoration.equals(Configure.NULL_STRING)) {
+            methodDecoration = decorator;
+        }
+        else {
+            methodDecoration += (Configure.COMMA + decorator);
+        }
+        while (index < tokens.size() && !isAt(Python3Lexer.NEWLINE) && !isAt(Token.EOF)) {
+            index++;
+        }
+    }
+
+    /**
+     * funcdef: 'def' NAME parameters ('->' test)? ':' suite;
+     * the same branches as PyEntityVisitor.visitFuncdef
+     */
+    private void scanFuncdef() {
+        boolean isAsync = index > 0 && tokens.get(index - 1).getType() == Python3Lexer.ASYNC;
+        index++;
+        if(!isAt(Python3Lexer.NAME)) {
+            return;
+        }
+        String functionName = tokens.get(index).getText();
+        skipToSuite();
+        Block block = enterBlock();
+        if(isSkipped) {
+            //keep skipping
+        }
+        else if(moduleId != -1 && classId == -1 && functionId == -1) {
+            functionId = processTask.processFunction(moduleId, functionName, Configure.NULL_STRING);
+        }
+        else if(moduleId != -1 && functionId != -1) {
+            processTask.processFunction(functionId, functionName, Configure.NULL_STRING);
+            isSkipped = true;
+        }
+        else if(classId != -1 && functionId == -1) {
+            String decoration = isAsync ? Configure.NULL_STRING : methodDecoration;
+            functionId = processTask.processMethod(decoration, classId, functionName, Configure.NULL_STRING);
+        }
+        else {
+            isSkipped = true;
+        }
+        methodDecoration = "";
+        blocks.push(block);
+    }
+
+    /**
+     * classdef: 'class' NAME ('(' (arglist)? ')')? ':' suite;
+     * the same branches as PyEntityVisitor.visitClassdef
+     */
+    private void scanClassdef() {
+        index++;
+        if(!isAt(Python3Lexer.NAME)) {
+            return;
+        }
+        String className = tokens.get(index).getText();
+        skipToSuite();
+        Block block = enterBlock();
+        if(isSkipped) {
+            //keep skipping
+        }
+        else if(moduleId != -1 && functionId == -1 && classId == -1) {
+            classId = processTask.processClass(moduleId, className, Configure.NULL_STRING);
+            block.supplementedClassId = classId;
+        }
+        else {
+            if(classId != -1 && functionId == -1) {
+                processTask.processClass(classId, className, Configure.NULL_STRING);
+            }
+            else if(functionId != -1 && classId == -1) {
+                processTask.processClass(functionId, className, Configure.NULL_STRING);
+            }
+            isSkipped = true;
+        }
+        methodDecoration = "";
+        blocks.push(block);
+    }
+
+    /**
+     * if __name__ ...: at top level
+     * @return
+     */
+    private boolean isMainIf() {
+        return index + 1 < tokens.size()
+                && tokens.get(index + 1).getType() == Python3Lexer.NAME
+                && tokens.get(index + 1).getText().equals(PyConstantString.IF_NAME);
+    }
+
+    /**
+     * PyEntityVisitor.visitIf_stmt saves the suites of "if __name__ ..." into a "__main__" function
+     */
+    private void scanMainIf() {
+        skipToSuite();
+        Block block = enterBlock();
+        block.isIfStmt = true;
+        functionId = processTask.processFunction(moduleId, PyConstantString.MAIN_NAME, Configure.NULL_STRING);
+        blocks.push(block);
+    }
+
+    /**
+     * import_from: ('from' (('.' | '...')* dotted_name | ('.' | '...')+)
+     *               'import' ('*' | '(' import_as_names ')' | import_as_names));
+     * the same as PyEntityVisitor.visitImport_from
+     */
+    private void scanImportFrom() {
+        index++;
+        String from = "";
+        int childNum = 0;
+        while (isAt(Python3Lexer.DOT) || isAt(Python3Lexer.ELLIPSIS)) {
+            childNum++;
+            index++;
+        }
+        if(isAt(Python3Lexer.NAME)) {
+            from = scanDottedName();
+            childNum++;
+        }
+        if(!isAt(Python3Lexer.IMPORT)) {
+            return;
+        }
+        index++;
+
+        String importStr = "";
+        //PyEntityVisitor only recognizes '*' as the fourth child of import_from
+        if(isAt(Python3Lexer.STAR)) {
+            index++;
+            if(childNum == 1) {
+                importStr = Configure.STAR;
+            }
+        }
+        else {
+            boolean isParenthesized = isAt(Python3Lexer.OPEN_PAREN);
+            if(isParenthesized) {
+                index++;
+            }
+            importStr = scanImportAsNames();
+            if(isParenthesized && isAt(Python3Lexer.CLOSE_PAREN)) {
+                index++;
+            }
+        }
+        if(isSkipped) {
+            return;
+        }
+        if(functionId != -1) {
+            processTask.processFromImport(from, importStr, functionId);
+        }
+        else {
+            processTask.processFromImport(from, importStr, moduleId);
+        }
+    }
+
+    /**
+     * import_name: 'import' dotted_as_names;
+     * dotted_as_names: dotted_as_name (',' dotted_as_name)*;
+     * dotted_as_name: dotted_name ('as' NAME)?;
+     * the same as PyEntityVisitor.visitImport_name
+     */
+    private void scanImportName() {
+        index++;
+        String str = "";
+        while (isAt(Python3Lexer.NAME)) {
+            if(!str.equals(Configure.NULL_STRING)) {
+                str += Configure.COMMA;
+            }
+            str += scanDottedName();
+            if(isAt(Python3Lexer.AS)) {
+                index++;
+                if(isAt(Python3Lexer.NAME)) {
+                    str += (Configure.SEMICOLON + tokens.get(index).getText());
+                    index++;
+                }
+            }
+            if(!isAt(Python3Lexer.COMMA)) {
+                break;
+            }
+            index++;
+        }
+        if(isSkipped || str.equals(Configure.NULL_STRING)) {
+            return;
+        }
+        if(functionId != -1) {
+            processTask.processImportName(str, functionId);
+        }
+        else {
+            processTask.processImportName(str, moduleId);
+        }
+    }
+
+    /**
+     * import_as_names: import_as_name (',' import_as_name)* (',')?;
+     * import_as_name: NAME ('as' NAME)?;
+     * @return x;y,z
+     */
+    private String scanImportAsNames() {
+        String str = "";
+        while (isAt(Python3Lexer.NAME)) {
+            if(!str.equals(Configure.NULL_STRING)) {
+                str += Configure.COMMA;
+            }
+            str += tokens.get(index).getText();
+            index++;
+            if(isAt(Python3Lexer.AS)) {
+                index++;
+                if(isAt(Python3Lexer.NAME)) {
+                    str += (Configure.SEMICOLON + tokens.get(index).getText());
+                    index++;
+                }
+            }
+            if(!isAt(Python3Lexer.COMMA)) {
+                break;
+            }
+            index++;
+        }
+        return str;
+    }
+
+    /**
+     * the module-level variables: x = ...  or  x, y = ...
+     */
+    private void scanModuleVars() {
+        int start = index;
+        int end = index;
+        while (end + 1 < tokens.size()
+                && tokens.get(end + 1).getType() == Python3Lexer.COMMA
+                && end + 2 < tokens.size()
+                && tokens.get(end + 2).getType() == Python3Lexer.NAME) {
+            end += 2;
+        }
+        index = end + 1;
+        if(!isAt(Python3Lexer.ASSIGN)) {
+            return;
+        }
+        if(isSkipped || classId != -1 || functionId != -1) {
+            return;
+        }
+        for (int i = start; i <= end; i += 2) {
+            processTask.processAtomExpr(true, moduleId, classId, functionId,
+                    tokens.get(i).getText(), PyConstantString.NAME_USAGE_SET);
+        }
+    }
+
+    /**
+     * dotted_name: NAME ('.' NAME)*;
+     * @return
+     */
+    private String scanDottedName() {
+        String str = "";
+        if(!isAt(Python3Lexer.NAME)) {
+            return str;
+        }
+        str += tokens.get(index).getText();
+        index++;
+        while (isAt(Python3Lexer.DOT) && index + 1 < tokens.size()
+                && tokens.get(index + 1).getType() == Python3Lexer.NAME) {
+            str += (Configure.DOT + tokens.get(index + 1).getText());
+            index += 2;
+        }
+        return str;
+    }
+
+    /**
+     * move to the first token of the suite, after the ':' outside of any brackets
+     */
+    private void skipToSuite() {
+        int opened = 0;
+        while (index < tokens.size() && !isAt(Token.EOF)) {
+            int type = tokens.get(index).getType();
+            if(type == Python3Lexer.OPEN_PAREN || type == Python3Lexer.OPEN_BRACK
+                    || type == Python3Lexer.OPEN_BRACE) {
+                opened++;
+            }
+            else if(type == Python3Lexer.CLOSE_PAREN || type == Python3Lexer.CLOSE_BRACK
+                    || type == Python3Lexer.CLOSE_BRACE) {
+                opened--;
+            }
+            else if(type == Python3Lexer.COLON && opened <= 0) {
+                index++;
+                return;
+            }
+            index++;
+        }
+    }
+
+    /**
+     * the block of the suite at the current token: an indented body after NEWLINE, or a simple statement on the same line.
+     * @return
+     */
+    private Block enterBlock() {
+        int bodyDepth = -1;
+        if(isAt(Python3Lexer.NEWLINE)) {
+            bodyDepth = depth + 1;
+        }
+        return new Block(bodyDepth, classId, functionId, isSkipped);
+    }
+
+    private void leaveBlock(Block block) {
+        if(block.supplementedClassId != -1) {
+            processTask.supplementInitMethod(block.supplementedClassId);
+        }
+        classId = block.classId;
+        functionId = block.functionId;
+        isSkipped = block.isSkipped;
+    }
+
+    private boolean isAt(int type) {
+        return index < tokens.size() && tokens.get(index).getType() == type;
+    }
+}
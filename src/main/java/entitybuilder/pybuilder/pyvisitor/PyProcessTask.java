@@ -298,7 +298,7 @@ public class PyProcessTask {
         //it should not be duplicated
         ClassVarEntity classVarEntity = new ClassVarEntity(varId, str);
         classVarEntity.setParentId(classId);
-        singleCollect.getEntities().add(classVarEntity);
+        singleCollect.addEntity(classVarEntity);
 
         singleCollect.getEntities().get(classId).addChildId(varId);
         return varId;
@@ -315,7 +315,7 @@ public class PyProcessTask {
         int varId = singleCollect.getCurrentIndex();
         InstVarEntity instVarEntity = new InstVarEntity(varId, varName);
         instVarEntity.setParentId(classId);
-        singleCollect.getEntities().add(instVarEntity);
+        singleCollect.addEntity(instVarEntity);
         singleCollect.getEntities().get(classId).addChildId(varId);
 
         return varId;
@@ -413,7 +413,7 @@ public class PyProcessTask {
         varId = singleCollect.getCurrentIndex();
         AbsVAREntity varEntity = new AbsVAREntity(varId, "", str);
         varEntity.setParentId(moduleOrFunctionId);
-        singleCollect.getEntities().add(varEntity);
+        singleCollect.addEntity(varEntity);
 
         singleCollect.getEntities().get(moduleOrFunctionId).addChildId(varId);
         return varId;
@@ -570,7 +570,7 @@ public class PyProcessTask {
             localNames = ((ModuleEntity) entity).getLocalNames();
         }
         else if(entity instanceof PyFunctionEntity) {
-            localNames = ((PyFunctionEntity) entity).getLocalNames();
+            return ((PyFunctionEntity) entity).searchFirstLocalName(name);
         }
         if(localNames == null) {
             return -1;
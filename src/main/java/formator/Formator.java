@@ -1,6 +1,7 @@
 package formator;
 
 
+import client.AnalysisSession;
 import formator.fjson.JBuildObject;
 import formator.fjson.JDepObject;
 import formator.fxml.XBuildObject;
@@ -8,23 +9,39 @@ import formator.fxml.XDepObject;
 import formator.spreadsheet.Csvgrapher;
 
 public class Formator {
+    private AnalysisSession session;
     private MapObject mapObject;
 
-    public Formator(String[] depTypes) {
-
-        mapObject = new MapObject(depTypes);
+    public Formator(AnalysisSession session, String[] depTypes) {
+        this.session = session;
+        AnalysisSession previous = session.bind();
+        try {
+            mapObject = new MapObject(depTypes);
+        } finally {
+            AnalysisSession.restore(previous);
+        }
     }
 
     public XDepObject getfXmlDataModel() {
-        XBuildObject xBuildObject = new XBuildObject();
-        XDepObject xDepObject = xBuildObject.buildObjectProcess(mapObject);
-        return xDepObject;
+        AnalysisSession previous = session.bind();
+        try {
+            XBuildObject xBuildObject = new XBuildObject();
+            XDepObject xDepObject = xBuildObject.buildObjectProcess(mapObject);
+            return xDepObject;
+        } finally {
+            AnalysisSession.restore(previous);
+        }
     }
 
     public JDepObject getfJsonDataModel() {
-        JBuildObject jBuildObject = new JBuildObject();
-        JDepObject jDepObject = jBuildObject.buildObjectProcess(mapObject);
-        return jDepObject;
+        AnalysisSession previous = session.bind();
+        try {
+            JBuildObject jBuildObject = new JBuildObject();
+            JDepObject jDepObject = jBuildObject.buildObjectProcess(mapObject);
+            return jDepObject;
+        } finally {
+            AnalysisSession.restore(previous);
+        }
 
         //JsonWriter jasonFormat = new JsonWriter();
         //jasonFormat.toJson(jDepObject);
@@ -2,7 +2,6 @@ package formator.spreadsheet;
 
 import uerr.*;
 import util.Configure;
-import util.Tuple;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -45,9 +44,10 @@ public class Csvgrapher {
         Map<Integer, Map<Integer, Map<String, Map<String, Integer>>>> deps = new HashMap<Integer, Map<Integer, Map<String, Map<String, Integer>>>>();
         for (AbsEntity entity : singleCollect.getEntities()) {
             int id1 = entity.getId();
-            for (Tuple<String, Integer> re : entity.getRelations()) {
-                int id2 = re.y;
-                String pritiveType = re.x;
+            RelationStore.Edges re = singleCollect.getRelationStore().forward(entity.getId());
+            while (re.next()) {
+                int id2 = re.getTarget();
+                String pritiveType = re.getLabel();
                 if(!(pritiveType.equals(Configure.RELATION_IMPORT)
                         || pritiveType.equals(Configure.RELATION_INHERIT)
                         || pritiveType.equals(Configure.RELATION_EXTEND)
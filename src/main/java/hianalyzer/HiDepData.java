@@ -1,12 +1,12 @@
 package hianalyzer;
 
+import client.AnalysisSession;
 import util.Configure;
 
 import java.util.HashMap;
 import java.util.Map;
 
 public class HiDepData {
-    private static HiDepData ourInstance = new HiDepData();
     private Map<Integer, String[]> functions = new HashMap<Integer, String[]>();
     private Map<Integer, String[]> classes = new HashMap<Integer, String[]>();
     private Map<Integer, String[]> files = new HashMap<Integer, String[]>();
@@ -18,11 +18,17 @@ public class HiDepData {
     private Map<Integer, Map<Integer, Map<String, Map<String, Integer>>>> folderDeps = new HashMap<Integer, Map<Integer, Map<String, Map<String, Integer>>>>();
 
 
+    /**
+     * @return the hierarchical dependencies of the session bound to the current thread
+     */
     public static HiDepData getInstance() {
-        return ourInstance;
+        return AnalysisSession.getCurrentSession().getHiDepData();
     }
 
-    private HiDepData() {
+    /**
+     * one per AnalysisSession
+     */
+    public HiDepData() {
     }
 
     public void addEntity(int id, String name, String type, int parentId) {
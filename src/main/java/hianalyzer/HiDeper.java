@@ -1,37 +1,48 @@
 package hianalyzer;
 
+import client.AnalysisSession;
 import uerr.*;
 import util.Configure;
-import util.Tuple;
 
 import java.util.Map;
 
 
 public class HiDeper {
-    private HiDepData hiDepData = HiDepData.getInstance();
-    private SingleCollect singleCollect = SingleCollect.getSingleCollectInstance();
-
+    private AnalysisSession session;
+    private HiDepData hiDepData;
+    private SingleCollect singleCollect;
+
+    public HiDeper(AnalysisSession session) {
+        this.session = session;
+        hiDepData = session.getHiDepData();
+        singleCollect = session.getSingleCollect();
+    }
 
     public void run() {
-        for(AbsEntity entity : singleCollect.getEntities()) {
-            buildEntity(entity.getId(), getEntityType(entity));
-            buildDep(entity);
+        AnalysisSession previous = session.bind();
+        try {
+            for(AbsEntity entity : singleCollect.getEntities()) {
+                buildEntity(entity.getId(), getEntityType(entity));
+                buildDep(entity);
+            }
+        } finally {
+            AnalysisSession.restore(previous);
         }
     }
 
 
     private String getEntityType(AbsEntity entity) {
         String entityType = "";
-        if(entity instanceof AbsFUNEntity) {
+        if(entity.getKind().is(EntityKind.FUNCTION)) {
             entityType = Configure.BASIC_ENTITY_FUNCTION;
         }
-        else if(entity instanceof AbsFILEntity) {
+        else if(entity.getKind().is(EntityKind.FILE)) {
             entityType = Configure.BASIC_ENTITY_FILE;
         }
-        else if(entity instanceof AbsCLSEntity) {
+        else if(entity.getKind().is(EntityKind.CLASS)) {
             entityType = Configure.BASIC_ENTITY_CLASS;
         }
-        else if(entity instanceof AbsFLDEntity) {
+        else if(entity.getKind().is(EntityKind.FOLDER)) {
             entityType = Configure.BASIC_ENTITY_FOLDER;
         }
         return entityType;
@@ -53,9 +64,10 @@ public class HiDeper {
      * folder->folder
      */
     private void buildDep(AbsEntity entity) {
-        for (Tuple<String, Integer> relation : entity.getRelations()) {
-            String primitiveType = relation.x;
-            int id2 = relation.y;
+        RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+        while (relation.next()) {
+            String primitiveType = relation.getLabel();
+            int id2 = relation.getTarget();
 
             if (primitiveType.equals(Configure.RELATION_IMPLEMENT)
                     || primitiveType.equals(Configure.RELATION_INHERIT)) {
@@ -75,14 +87,15 @@ public class HiDeper {
 
 
     private void buildHierModel(int id1, int id2, String primitiveType) {
-        int func1 = findFunction(id1);
-        int func2 = findFunction(id2);
-        int class1 = findClass(id1);
-        int class2 = findClass(id2);
-        int file1 = findFile(id1);
-        int file2 = findFile(id2);
-        int folder1 = findFolder(id1);
-        int folder2 = findFolder(id2);
+        AncestorIndex ancestorIndex = singleCollect.getAncestorIndex();
+        int func1 = ancestorIndex.getFunctionOf(id1);
+        int func2 = ancestorIndex.getFunctionOf(id2);
+        int class1 = ancestorIndex.getClassOf(id1);
+        int class2 = ancestorIndex.getClassOf(id2);
+        int file1 = ancestorIndex.getFileOf(id1);
+        int file2 = ancestorIndex.getFileOf(id2);
+        int folder1 = ancestorIndex.getFolderOf(id1);
+        int folder2 = ancestorIndex.getFolderOf(id2);
         String depType = Configure.IMPLICIT_DEPENDENCY;
 
         if(func1 != -1 && func2 != -1 && func1 != func2) {
@@ -116,46 +129,6 @@ public class HiDeper {
         }
     }
 
-    private int findFunction(int id) {
-        while(id != -1 && !(singleCollect.getEntities().get(id) instanceof AbsFUNEntity)) {
-            id = singleCollect.getEntities().get(id).getParentId();
-        }
-        if(id != -1 && singleCollect.getEntities().get(id) instanceof AbsFUNEntity) {
-            return id;
-        }
-        return -1;
-    }
-
-
-    private int findClass(int id) {
-        while(id != -1 && !(singleCollect.getEntities().get(id) instanceof AbsCLSEntity)) {
-            id = singleCollect.getEntities().get(id).getParentId();
-        }
-        if(id != -1 && singleCollect.getEntities().get(id) instanceof AbsCLSEntity) {
-            return id;
-        }
-        return -1;
-    }
-    private int findFile(int id) {
-        while(id != -1 && !(singleCollect.getEntities().get(id) instanceof AbsFILEntity)) {
-            id = singleCollect.getEntities().get(id).getParentId();
-        }
-        if(id != -1 && singleCollect.getEntities().get(id) instanceof AbsFILEntity) {
-            return id;
-        }
-        return -1;
-    }
-
-    private int findFolder(int id) {
-        while(id != -1 && !(singleCollect.getEntities().get(id) instanceof AbsFLDEntity)) {
-            id = singleCollect.getEntities().get(id).getParentId();
-        }
-        if(id != -1 && singleCollect.getEntities().get(id) instanceof AbsFLDEntity) {
-            return id;
-        }
-        return -1;
-    }
-
     public void tmpOutput() {
         Map<Integer, Map<Integer, Map<String, Map<String, Integer>>>> deps;
 
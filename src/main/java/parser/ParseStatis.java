@@ -0,0 +1,119 @@
+package parser;
+
+import client.AnalysisSession;
+import util.Tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * the statistics of lexing and parsing the files of one analysis, shared by all parsing threads.
+ */
+public class ParseStatis {
+    private AtomicInteger parsedFileNum = new AtomicInteger(0);
+    private AtomicInteger llFallbackFileNum = new AtomicInteger(0);
+    private AtomicInteger lexedFileNum = new AtomicInteger(0);
+
+    //the slowest parsed files (a min-heap by time), and the files over the parse budget
+    private static final int SLOWEST_FILE_NUM = 10;
+    private PriorityQueue<Tuple<Long, String>> slowestFiles = new PriorityQueue<Tuple<Long, String>>(
+            SLOWEST_FILE_NUM + 1, new Comparator<Tuple<Long, String>>() {
+        @Override
+        public int compare(Tuple<Long, String> o1, Tuple<Long, String> o2) {
+            return o1.x.compareTo(o2.x);
+        }
+    });
+    private List<String> overBudgetFiles = new ArrayList<String>();
+
+    /**
+     * @return the statistics of the session bound to the current thread
+     */
+    public static ParseStatis getParseStatisInstance() {
+        return AnalysisSession.getCurrentSession().getParseStatis();
+    }
+
+    public void addParsedFile() {
+        parsedFileNum.incrementAndGet();
+    }
+
+    public void addLlFallbackFile() {
+        llFallbackFileNum.incrementAndGet();
+    }
+
+    public void addLexedFile() {
+        lexedFileNum.incrementAndGet();
+    }
+
+    public int getParsedFileNum() {
+        return parsedFileNum.get();
+    }
+
+    public int getLlFallbackFileNum() {
+        return llFallbackFileNum.get();
+    }
+
+    public int getLexedFileNum() {
+        return lexedFileNum.get();
+    }
+
+    public void recordParseTime(String fileFullPath, long millis) {
+        synchronized (slowestFiles) {
+            slowestFiles.add(new Tuple<Long, String>(millis, fileFullPath));
+            if(slowestFiles.size() > SLOWEST_FILE_NUM) {
+                slowestFiles.poll();
+            }
+        }
+    }
+
+    public void recordOverBudget(String str) {
+        synchronized (overBudgetFiles) {
+            overBudgetFiles.add(str);
+        }
+    }
+
+    /**
+     * the slowest parsed files, and the files over the parse budget
+     * @return
+     */
+    public String budgetReport() {
+        String str = "";
+        ArrayList<Tuple<Long, String>> files;
+        synchronized (slowestFiles) {
+            files = new ArrayList<Tuple<Long, String>>(slowestFiles);
+        }
+        Collections.sort(files, Collections.reverseOrder(slowestFiles.comparator()));
+        if(!files.isEmpty()) {
+            str += "Slowest parsed files:\n";
+            for (Tuple<Long, String> file : files) {
+                str += (String.format("%8d ms  ", file.x) + file.y + "\n");
+            }
+        }
+        synchronized (overBudgetFiles) {
+            if(!overBudgetFiles.isEmpty()) {
+                str += ("Files over the parse budget: " + overBudgetFiles.size() + "\n");
+                for (String file : overBudgetFiles) {
+                    str += ("  " + file + "\n");
+                }
+            }
+        }
+        return str;
+    }
+
+    /**
+     * summary of the parsing strategy
+     * @return
+     */
+    public String parseStatis() {
+        String str = "";
+        str += ("Parsed files:      " + getParsedFileNum() + "\n");
+        str += ("LL fallback files: " + getLlFallbackFileNum() + "\n");
+        if(getLexedFileNum() != 0) {
+            str += ("Lexed-only files:  " + getLexedFileNum() + "\n");
+        }
+        return str;
+    }
+}
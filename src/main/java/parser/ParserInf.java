@@ -1,38 +1,366 @@
 package parser;
 
-import parser.parsego.GolangLexer;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import parser.parsego.GolangParser;
-import parser.parsepy.Python3Lexer;
 import parser.parsepy.Python3Parser;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ErrorNode;
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
 import util.Configure;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ParserInf {
 
+    private static final String BUDGET_TIME = "time";
+    private static final int LEX_CHUNK = 128;
+    private static final String BUDGET_TOKENS = "tokens";
+
+    //the result of the last file over the budget
+    private boolean isOverBudget = false;
+    private List<Token> fallbackTokens = null;
+
+    //the bundled sources for warming up the parser
+    private static final String WARMUP_GO_FILE = "/warmup/warmup.go";
+    private static final String WARMUP_PY_FILE = "/warmup/warmup.py";
+
+    /**
+     * parse the file within the budget of Configure.
+     * if the file is over the budget, the result depends on the budget action:
+     * null for skip, null with getFallbackTokens() for imports, or the partial tree for partial.
+     * @param fileFullPath
+     * @return
+     * @throws IOException
+     */
     public ParseTree rootEntry(String fileFullPath) throws IOException {
         CharStream input = CharStreams.fromFileName(fileFullPath);
+        ParseStatis.getParseStatisInstance().addParsedFile();
+        long startTime = System.nanoTime();
+        ParseTree tree = parse(input, fileFullPath);
+        ParseStatis.getParseStatisInstance().recordParseTime(fileFullPath, (System.nanoTime() - startTime) / 1000000);
+        return tree;
+    }
+
+    /**
+     * whether the last file given to rootEntry is over the budget
+     * @return
+     */
+    public boolean isOverBudget() {
+        return isOverBudget;
+    }
+
+    /**
+     * @return the tokens on the default channel of the last file over the budget, for the imports action.
+     */
+    public List<Token> getFallbackTokens() {
+        return fallbackTokens;
+    }
+
+    /**
+     * only tokenize the file, without parsing. used by the import-only mode.
+     * @param fileFullPath
+     * @return the tokens on the default channel, ending with EOF
+     * @throws IOException
+     */
+    public List<Token> lexEntry(String fileFullPath) throws IOException {
+        CharStream input = CharStreams.fromFileName(fileFullPath);
+        ParseStatis.getParseStatisInstance().addLexedFile();
+
+        Configure configure = Configure.getConfigureInstance();
+        ParserPool parserPool = ParserPool.getParserPool();
+        Lexer lexer;
+        if(configure.getLang().equals(Configure.GO_LANG)) {
+            lexer = parserPool.getGoLexer(input);
+        }
+        else {
+            lexer = parserPool.getPyLexer(input);
+        }
+        CommonTokenStream tokenStream = new CommonTokenStream(lexer);
+        tokenStream.fill();
+        List<Token> tokens = new ArrayList<Token>();
+        for (Token token : tokenStream.getTokens()) {
+            if(token.getChannel() == Token.DEFAULT_CHANNEL) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * parse the bundled source once, so that the shared DFA cache is already built
+     * when the worker threads start parsing the analyzed files.
+     */
+    public void warmUp() {
+        Configure configure = Configure.getConfigureInstance();
+        String warmUpFile = WARMUP_GO_FILE;
+        if(configure.getLang().equals(Configure.PYTHON_LANG)) {
+            warmUpFile = WARMUP_PY_FILE;
+        }
+        InputStream inputStream = ParserInf.class.getResourceAsStream(warmUpFile);
+        if(inputStream == null) {
+            return;
+        }
+        try {
+            parse(CharStreams.fromStream(inputStream), null);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @param input
+     * @param fileFullPath the parsed file, or null for warming up, which is neither counted nor limited.
+     * @return
+     */
+    private ParseTree parse(CharStream input, String fileFullPath) {
         Configure configure = Configure.getConfigureInstance();
         String lang = configure.getLang();
+        ParserPool parserPool = ParserPool.getParserPool();
+        boolean isCounted = fileFullPath != null;
 
-        ParseTree tree = null;
+        Parser parser;
         if(lang.equals(Configure.GO_LANG)) {
-            GolangLexer lexer = new GolangLexer(input);
-            CommonTokenStream tokens = new CommonTokenStream(lexer);
-            GolangParser parser = new GolangParser(tokens);
-            tree = parser.sourceFile();
+            parser = parserPool.getGoParser(input);
         }
         else if(lang.equals(Configure.PYTHON_LANG)) {
-            Python3Lexer lexer = new Python3Lexer(input);
-            CommonTokenStream tokens = new CommonTokenStream(lexer);
-            Python3Parser parser = new Python3Parser(tokens);
-            tree = parser.file_input();
+            parser = parserPool.getPyParser(input);
         }
-        return tree;
+        else {
+            return null;
+        }
+
+        int maxTokens = configure.getMaxParseTokens();
+        long maxMillis = configure.getMaxParseMillis();
+        long deadline = Long.MAX_VALUE;
+        if(maxMillis > 0) {
+            deadline = System.nanoTime() + maxMillis * 1000000;
+        }
+        //the lexing is a large part of the time for some grammars, so the tokens are fetched under the budget first
+        if(isCounted && (maxTokens > 0 || maxMillis > 0)) {
+            CommonTokenStream tokenStream = (CommonTokenStream) parser.getTokenStream();
+            if(!fillBefore(tokenStream, deadline)) {
+                return overBudget(parser, fileFullPath, BUDGET_TIME, null);
+            }
+            if(maxTokens > 0 && tokenStream.getNumberOfOnChannelTokens() > maxTokens) {
+                return overBudget(parser, fileFullPath, BUDGET_TOKENS, null);
+            }
+        }
+
+        BudgetListener budgetListener = null;
+        if(isCounted && maxMillis > 0) {
+            budgetListener = new BudgetListener(deadline);
+            parser.addParseListener(budgetListener);
+        }
+        try {
+            return parseTwoStage(parser, isCounted);
+        } catch (BudgetExceededException e) {
+            return overBudget(parser, fileFullPath, BUDGET_TIME, budgetListener.getRoot());
+        } finally {
+            if(budgetListener != null) {
+                parser.removeParseListener(budgetListener);
+            }
+        }
+    }
+
+    /**
+     * fetch all tokens in chunks, and stop at the deadline.
+     * @param tokenStream
+     * @param deadline
+     * @return false if the deadline is reached before all tokens are fetched
+     */
+    private boolean fillBefore(CommonTokenStream tokenStream, long deadline) {
+        for (int index = LEX_CHUNK; ; index += LEX_CHUNK) {
+            tokenStream.seek(index);
+            if(tokenStream.size() < index) {
+                break;
+            }
+            if(System.nanoTime() > deadline) {
+                return false;
+            }
+        }
+        tokenStream.seek(0);
+        return true;
+    }
+
+    /**
+     * apply the budget action on the file over the budget
+     * @param parser
+     * @param fileFullPath
+     * @param budget  time or tokens
+     * @param partialTree the tree built before the budget is exceeded, or null if not parsed
+     * @return the tree to visit
+     */
+    private ParseTree overBudget(Parser parser, String fileFullPath, String budget, ParseTree partialTree) {
+        String action = Configure.getConfigureInstance().getBudgetAction();
+        isOverBudget = true;
+        ParseStatis.getParseStatisInstance().recordOverBudget(fileFullPath + " (" + budget + ", " + action + ")");
+
+        if(action.equals(Configure.BUDGET_ACTION_IMPORTS)) {
+            fallbackTokens = fetchUnderBudget((CommonTokenStream) parser.getTokenStream());
+        }
+        else if(action.equals(Configure.BUDGET_ACTION_PARTIAL)) {
+            return partialTree;
+        }
+        return null;
+    }
+
+    /**
+     * the tokens on the default channel for the import scanners, lexed under a new budget of the same size,
+     * i.e., at most max-tokens tokens in at most max-parse-time, since the file is already over the budget.
+     * The imports are at the beginning of a golang file, so they are kept when the rest is cut off.
+     * @param tokenStream
+     * @return the first tokens of the file, ending with EOF only if the whole file is lexed
+     */
+    private List<Token> fetchUnderBudget(CommonTokenStream tokenStream) {
+        Configure configure = Configure.getConfigureInstance();
+        int maxTokens = configure.getMaxParseTokens();
+        long maxMillis = configure.getMaxParseMillis();
+        long deadline = Long.MAX_VALUE;
+        if(maxMillis > 0) {
+            deadline = System.nanoTime() + maxMillis * 1000000;
+        }
+
+        List<Token> tokens = new ArrayList<Token>();
+        for (int index = 0; ; index++) {
+            if(index == tokenStream.size()) {
+                if(System.nanoTime() > deadline) {
+                    break;
+                }
+                //fetch the next chunk
+                tokenStream.seek(index + LEX_CHUNK);
+                if(index == tokenStream.size()) {
+                    break;
+                }
+            }
+            Token token = tokenStream.get(index);
+            if(token.getChannel() == Token.DEFAULT_CHANNEL) {
+                tokens.add(token);
+                if(maxTokens > 0 && tokens.size() >= maxTokens) {
+                    break;
+                }
+            }
+            if(token.getType() == Token.EOF) {
+                break;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * stop the parsing when it exceeds the time budget.
+     * The time is checked when entering a rule or matching a token,
+     * so a single long adaptive prediction is not interrupted, but the next rule is.
+     */
+    private static class BudgetListener implements ParseTreeListener {
+        private static final int CHECK_INTERVAL = 256;
+
+        private long deadline;
+        private int eventNum = 0;
+        private ParserRuleContext root = null;
+
+        BudgetListener(long deadline) {
+            this.deadline = deadline;
+        }
+
+        ParserRuleContext getRoot() {
+            return root;
+        }
+
+        private void check() {
+            eventNum++;
+            if(eventNum % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                throw new BudgetExceededException();
+            }
+        }
+
+        @Override
+        public void enterEveryRule(ParserRuleContext ctx) {
+            //the LL stage starts a new tree
+            if(ctx.getParent() == null) {
+                root = ctx;
+            }
+            check();
+        }
+
+        @Override
+        public void visitTerminal(TerminalNode node) {
+            check();
+        }
+
+        @Override
+        public void visitErrorNode(ErrorNode node) {
+        }
+
+        @Override
+        public void exitEveryRule(ParserRuleContext ctx) {
+        }
+    }
+
+    private static class BudgetExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * first parse in the fast SLL prediction mode, which bails out at the first syntax error.
+     * only when it fails, rewind the tokens and re-parse in the full LL mode with the default error report and recovery.
+     * if SLL succeeds, the tree is the same as the LL one.
+     * SLL fails on most hand-written golang files (7 of 13 tried, including every file over 25 lines and warmup.go),
+     * but it is still tried for golang: parsing in LL directly was 1.2x slower on those files,
+     * and 6x slower on generated files where SLL succeeds.
+     * @param parser
+     * @param isCounted
+     * @return
+     */
+    private ParseTree parseTwoStage(Parser parser, boolean isCounted) {
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        try {
+            return startRule(parser);
+        } catch (ParseCancellationException e) {
+            if(isCounted) {
+                ParseStatis.getParseStatisInstance().addLlFallbackFile();
+            }
+            parser.getTokenStream().seek(0);
+            parser.reset();
+            parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            return startRule(parser);
+        }
+    }
+
+    /**
+     * the start rule of the grammar
+     * @param parser
+     * @return
+     */
+    private ParseTree startRule(Parser parser) {
+        if(parser instanceof GolangParser) {
+            return ((GolangParser) parser).sourceFile();
+        }
+        return ((Python3Parser) parser).file_input();
     }
 
 }
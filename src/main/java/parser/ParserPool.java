@@ -0,0 +1,99 @@
+package parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import parser.parsego.GolangLexer;
+import parser.parsego.GolangParser;
+import parser.parsepy.Python3Lexer;
+import parser.parsepy.Python3Parser;
+
+/**
+ * per-thread lexer, token stream and parser, which are reused for all files parsed by the same thread.
+ * The generated recognizers share their DFA cache statically,
+ * so the cache built on the first files benefits all the later ones in all threads.
+ *
+ * Python3Lexer keeps its indentation state in private fields which are not reset by setInputStream,
+ * so a new python lexer is created per file, while its token stream and parser are reused.
+ */
+public class ParserPool {
+
+    private static ThreadLocal<ParserPool> parserPools = new ThreadLocal<ParserPool>() {
+        @Override
+        protected ParserPool initialValue() {
+            return new ParserPool();
+        }
+    };
+
+    private GolangLexer goLexer = null;
+    private CommonTokenStream goTokens = null;
+    private GolangParser goParser = null;
+
+    private CommonTokenStream pyTokens = null;
+    private Python3Parser pyParser = null;
+
+    private ParserPool() {}
+
+    /**
+     * the pool of the current thread
+     * @return
+     */
+    public static ParserPool getParserPool() {
+        return parserPools.get();
+    }
+
+    /**
+     * @param input
+     * @return golang parser whose token stream reads input from the beginning
+     */
+    public GolangParser getGoParser(CharStream input) {
+        GolangLexer lexer = getGoLexer(input);
+        if(goParser == null) {
+            goTokens = new CommonTokenStream(lexer);
+            goParser = new GolangParser(goTokens);
+        }
+        else {
+            goTokens.setTokenSource(lexer);
+            goParser.setTokenStream(goTokens);
+        }
+        return goParser;
+    }
+
+    /**
+     * @param input
+     * @return golang lexer which reads input from the beginning
+     */
+    public GolangLexer getGoLexer(CharStream input) {
+        if(goLexer == null) {
+            goLexer = new GolangLexer(input);
+        }
+        else {
+            goLexer.setInputStream(input);
+        }
+        return goLexer;
+    }
+
+    /**
+     * @param input
+     * @return python lexer which reads input from the beginning
+     */
+    public Python3Lexer getPyLexer(CharStream input) {
+        return new Python3Lexer(input);
+    }
+
+    /**
+     * @param input
+     * @return python parser whose token stream reads input from the beginning
+     */
+    public Python3Parser getPyParser(CharStream input) {
+        Python3Lexer lexer = getPyLexer(input);
+        if(pyParser == null) {
+            pyTokens = new CommonTokenStream(lexer);
+            pyParser = new Python3Parser(pyTokens);
+        }
+        else {
+            pyTokens.setTokenSource(lexer);
+            pyParser.setTokenStream(pyTokens);
+        }
+        return pyParser;
+    }
+}
@@ -1,22 +1,47 @@
 package priextractor;
 
+import client.AnalysisSession;
 import priextractor.goextractor.GoDepLyzer;
 import priextractor.py3extractor.PyDepLyzer;
 import util.Configure;
 
 public class AnayzerIntf {
 
+    private AnalysisSession session;
+
+    public AnayzerIntf(AnalysisSession session) {
+        this.session = session;
+    }
+
     public void run() {
-        Configure configure = Configure.getConfigureInstance();
+        AnalysisSession previous = session.bind();
+        try {
+            extractDeps(session.getConfigure());
+        } finally {
+            AnalysisSession.restore(previous);
+        }
+    }
+
+    private void extractDeps(Configure configure) {
         String lang = configure.getLang();
 
         if(lang.equals(Configure.GO_LANG)) {
             GoDepLyzer goDepLyzer = new GoDepLyzer();
-            goDepLyzer.identifyDeps();
+            if(configure.isImportsOnly()) {
+                goDepLyzer.identifyImportDeps();
+            }
+            else {
+                goDepLyzer.identifyDeps();
+            }
         }
         else if(lang.equals(Configure.PYTHON_LANG)) {
             PyDepLyzer pyDepLyzer = new PyDepLyzer();
-            pyDepLyzer.identifyDeps();
+            if(configure.isImportsOnly()) {
+                pyDepLyzer.identifyImportDeps();
+            }
+            else {
+                pyDepLyzer.identifyDeps();
+            }
         }
     }
 }
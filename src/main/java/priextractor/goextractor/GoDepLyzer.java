@@ -4,11 +4,16 @@ import priextractor.goextractor.infer.TypeInfer;
 import priextractor.goextractor.godeper.BasicDepVisitor;
 import priextractor.goextractor.godeper.FuncDepVisitor;
 import priextractor.goextractor.godeper.MapInFun;
+import priextractor.goextractor.search.NameSearchTable;
 
 
 public class GoDepLyzer{
 
     public void identifyDeps() {
+        //the symbols of each file and package, for the name searchers
+        NameSearchTable nameSearchTable = NameSearchTable.getNameSearchTableInstance();
+        nameSearchTable.build();
+
         BasicDepVisitor basicDepVisitor = new BasicDepVisitor();
         MapInFun mapInFun = new MapInFun();
         FuncDepVisitor funcDepVisitor = new FuncDepVisitor();
@@ -17,6 +22,7 @@ public class GoDepLyzer{
         //imports, embeded, receiver relations
         basicDepVisitor.setUnsuredDeps();
         System.out.println("Imports, Embed, Receiver relations are built successfully...");
+        System.out.println(basicDepVisitor.importStatis());
 
         // build map for operandName inside a function.
         mapInFun.buildNameSearchTable();
@@ -25,11 +31,23 @@ public class GoDepLyzer{
         //priextractor.goextractor.infer type for all varEntities
         typeSearch.inferTypeForVarEntity();
         System.out.println("Infer type successfully...");
+        System.out.println(typeSearch.typeStatis());
 
         //typeSearch.output();
         // function Call, Set, Dep, Parameter, Return relations
         funcDepVisitor.setFuncDeps();
         System.out.println("Call, Set, Dep, Parameter, Return relations are built end...");
+        System.out.println(nameSearchTable.tableStatis());
+    }
+
+    /**
+     * only the import relations, for the import-only mode
+     */
+    public void identifyImportDeps() {
+        BasicDepVisitor basicDepVisitor = new BasicDepVisitor();
+        basicDepVisitor.setImport();
+        System.out.println("Import relations are built successfully...");
+        System.out.println(basicDepVisitor.importStatis());
     }
 
 
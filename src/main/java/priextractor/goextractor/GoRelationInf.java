@@ -12,6 +12,7 @@ import util.Tuple;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class GoRelationInf extends RelationInterface {
@@ -27,32 +28,32 @@ public class GoRelationInf extends RelationInterface {
         int varCount = 0;
 
         for(AbsEntity entity : singleCollect.getEntities()) {
-            if(entity instanceof AbsFLDEntity) {
+            if(entity.getKind().is(EntityKind.FOLDER)) {
                 packageCount ++;
             }
-            else if(entity instanceof AbsFILEntity) {
+            else if(entity.getKind().is(EntityKind.FILE)) {
                 fileCount ++;
             }
-            else if(entity instanceof AbsFUNEntity
-                    && !(entity instanceof MethodEntity)) {
+            else if(entity.getKind().is(EntityKind.FUNCTION)
+                    && !(entity.getKind().is(EntityKind.METHOD))) {
                 functionCount ++;
             }
-            else if (entity instanceof MethodEntity) {
+            else if (entity.getKind().is(EntityKind.METHOD)) {
                 methodCount ++;
             }
-            else if(entity instanceof StructEntity) {
+            else if(entity.getKind().is(EntityKind.STRUCT)) {
                 structCount ++;
             }
-            else if(entity instanceof AliasTypeEntity) {
+            else if(entity.getKind().is(EntityKind.ALIAS_TYPE)) {
                 aliasCount ++;
             }
-            else if(entity instanceof InterfaceEntity) {
+            else if(entity.getKind().is(EntityKind.INTERFACE)) {
                 interfaceCount ++;
             }
-            else if(entity instanceof AbsVAREntity) {
+            else if(entity.getKind().is(EntityKind.VARIABLE)) {
                 int parentId = entity.getParentId();
                 if(parentId != -1) {
-                    if(!(singleCollect.getEntities().get(parentId) instanceof StructEntity)) {
+                    if(!(singleCollect.isKind(parentId, EntityKind.STRUCT))) {
                         varCount ++;
                     }
                 }
@@ -85,18 +86,19 @@ public class GoRelationInf extends RelationInterface {
         depMap.put(Configure.RELATION_RETURN, 0);
 
         for (AbsEntity entity :singleCollect.getEntities()) {
-            for (Tuple<String, Integer> re : entity.getRelations()) {
-                if(re.x.equals(Configure.RELATION_IMPORT) ||
-                        re.x.equals(Configure.RELATION_INHERIT) ||
-                        re.x.equals(Configure.RELATION_IMPLEMENT) ||
-                        re.x.equals(Configure.RELATION_SET) ||
-                        re.x.equals(Configure.RELATION_USE) ||
-                        re.x.equals(Configure.RELATION_CALL) ||
-                        re.x.equals(Configure.RELATION_PARAMETER) ||
-                        re.x.equals(Configure.RELATION_RETURN)
+            RelationStore.Edges re = singleCollect.getRelationStore().forward(entity.getId());
+            while (re.next()) {
+                if(re.getLabel().equals(Configure.RELATION_IMPORT) ||
+                        re.getLabel().equals(Configure.RELATION_INHERIT) ||
+                        re.getLabel().equals(Configure.RELATION_IMPLEMENT) ||
+                        re.getLabel().equals(Configure.RELATION_SET) ||
+                        re.getLabel().equals(Configure.RELATION_USE) ||
+                        re.getLabel().equals(Configure.RELATION_CALL) ||
+                        re.getLabel().equals(Configure.RELATION_PARAMETER) ||
+                        re.getLabel().equals(Configure.RELATION_RETURN)
                 ) {
-                    int old = depMap.get(re.x);
-                    depMap.put(re.x, old + 1);
+                    int old = depMap.get(re.getLabel());
+                    depMap.put(re.getLabel(), old + 1);
                 }
             }
         }
@@ -113,27 +115,26 @@ public class GoRelationInf extends RelationInterface {
     @Override
     public ArrayList<Tuple<String, String>> getFunctionCalls(String level) {
         ArrayList<Tuple<String, String>> deps = new ArrayList<Tuple<String, String>>();
-        for (AbsEntity entity : singleCollect.getEntities()) {
-            if (entity instanceof AbsFUNEntity) {
-                String methodName1 =entity.getName();
-                String fileName1 = singleCollect.getEntities().get(entity.getParentId()).getName();
-
-                for (Tuple<String, Integer> relation : entity.getRelations()) {
-                    String relationType = relation.x;
-                    int entityId2 = relation.y;
-                    if(relationType.equals(Configure.RELATION_CALL)) {
-                        AbsEntity entity2 = singleCollect.getEntities().get(entityId2);
-                        String methodName2 = entity2.getName();
-                        String fileName2 = singleCollect.getEntities().get(entity2.getParentId()).getName();
-                        Tuple<String, String> oneCall;
-                        if(level.equals(Configure.RELATION_LEVEL_FILE)) {
-                            oneCall = new Tuple<String, String>(fileName1, fileName2);
-                        }
-                        else {
-                            oneCall = new Tuple<String, String>(methodName1, methodName2);
-                        }
-                        deps.add(oneCall);
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.FUNCTION)) {
+            String methodName1 =entity.getName();
+            String fileName1 = singleCollect.getEntities().get(entity.getParentId()).getName();
+
+            RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+            while (relation.next()) {
+                String relationType = relation.getLabel();
+                int entityId2 = relation.getTarget();
+                if(relationType.equals(Configure.RELATION_CALL)) {
+                    AbsEntity entity2 = singleCollect.getEntities().get(entityId2);
+                    String methodName2 = entity2.getName();
+                    String fileName2 = singleCollect.getEntities().get(entity2.getParentId()).getName();
+                    Tuple<String, String> oneCall;
+                    if(level.equals(Configure.RELATION_LEVEL_FILE)) {
+                        oneCall = new Tuple<String, String>(fileName1, fileName2);
+                    }
+                    else {
+                        oneCall = new Tuple<String, String>(methodName1, methodName2);
                     }
+                    deps.add(oneCall);
                 }
             }
         } // end big for
@@ -143,30 +144,29 @@ public class GoRelationInf extends RelationInterface {
     @Override
     public ArrayList<Tuple<String, String>> getFunctionParas(String level) {
         ArrayList<Tuple<String, String>> deps = new ArrayList<Tuple<String, String>>();
-        for (AbsEntity entity : singleCollect.getEntities()) {
-            if(entity instanceof AbsFUNEntity) {
-                int functionId = entity.getId();
-                String functionName = entity.getName();
-                int fileId1 = singleCollect.getEntities().get(functionId).getParentId();
-                String fileName1 = singleCollect.getEntities().get(fileId1).getName();
-
-                for(Tuple<String, Integer> relation : entity.getRelations()) {
-                    if(relation.x.equals(Configure.RELATION_PARAMETER)) {
-                        int varTypeId2 = relation.y;
-                        String varTypeName2 = singleCollect.getEntities().get(varTypeId2).getName();
-                        if(varTypeId2 != -1) {
-                            int fileId2 = singleCollect.getEntities().get(varTypeId2).getParentId();
-                            String fileName2 = singleCollect.getEntities().get(fileId2).getName();
-
-                            Tuple<String, String> oneSet;
-                            if(level.equals(Configure.RELATION_LEVEL_FILE)) {
-                                oneSet = new Tuple<String, String>(fileName1, fileName2);
-                            }
-                            else {
-                                oneSet = new Tuple<String, String>(functionName, varTypeName2);
-                            }
-                            deps.add(oneSet);
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.FUNCTION)) {
+            int functionId = entity.getId();
+            String functionName = entity.getName();
+            int fileId1 = singleCollect.getEntities().get(functionId).getParentId();
+            String fileName1 = singleCollect.getEntities().get(fileId1).getName();
+
+            RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+            while (relation.next()) {
+                if(relation.getLabel().equals(Configure.RELATION_PARAMETER)) {
+                    int varTypeId2 = relation.getTarget();
+                    String varTypeName2 = singleCollect.getEntities().get(varTypeId2).getName();
+                    if(varTypeId2 != -1) {
+                        int fileId2 = singleCollect.getEntities().get(varTypeId2).getParentId();
+                        String fileName2 = singleCollect.getEntities().get(fileId2).getName();
+
+                        Tuple<String, String> oneSet;
+                        if(level.equals(Configure.RELATION_LEVEL_FILE)) {
+                            oneSet = new Tuple<String, String>(fileName1, fileName2);
+                        }
+                        else {
+                            oneSet = new Tuple<String, String>(functionName, varTypeName2);
                         }
+                        deps.add(oneSet);
                     }
                 }
             }
@@ -177,30 +177,29 @@ public class GoRelationInf extends RelationInterface {
     @Override
     public ArrayList<Tuple<String, String>> getFunctionRets(String level) {
         ArrayList<Tuple<String, String>> deps = new ArrayList<Tuple<String, String>>();
-        for (AbsEntity entity : singleCollect.getEntities()) {
-            if(entity instanceof AbsFUNEntity) {
-                int functionId = entity.getId();
-                String functionName = entity.getName();
-                int fileId1 = singleCollect.getEntities().get(functionId).getParentId();
-                String fileName1 = singleCollect.getEntities().get(fileId1).getName();
-
-                for(Tuple<String, Integer> relation : entity.getRelations()) {
-                    if(relation.x.equals(Configure.RELATION_RETURN)) {
-                        int varTypeId2 = relation.y;
-                        String varTypeName2 = singleCollect.getEntities().get(varTypeId2).getName();
-                        if(varTypeId2 != -1) {
-                            int fileId2 = singleCollect.getEntities().get(varTypeId2).getParentId();
-                            String fileName2 = singleCollect.getEntities().get(fileId2).getName();
-
-                            Tuple<String, String> oneSet;
-                            if(level.equals(Configure.RELATION_LEVEL_FILE)) {
-                                oneSet = new Tuple<String, String>(fileName1, fileName2);
-                            }
-                            else {
-                                oneSet = new Tuple<String, String>(functionName, varTypeName2);
-                            }
-                            deps.add(oneSet);
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.FUNCTION)) {
+            int functionId = entity.getId();
+            String functionName = entity.getName();
+            int fileId1 = singleCollect.getEntities().get(functionId).getParentId();
+            String fileName1 = singleCollect.getEntities().get(fileId1).getName();
+
+            RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+            while (relation.next()) {
+                if(relation.getLabel().equals(Configure.RELATION_RETURN)) {
+                    int varTypeId2 = relation.getTarget();
+                    String varTypeName2 = singleCollect.getEntities().get(varTypeId2).getName();
+                    if(varTypeId2 != -1) {
+                        int fileId2 = singleCollect.getEntities().get(varTypeId2).getParentId();
+                        String fileName2 = singleCollect.getEntities().get(fileId2).getName();
+
+                        Tuple<String, String> oneSet;
+                        if(level.equals(Configure.RELATION_LEVEL_FILE)) {
+                            oneSet = new Tuple<String, String>(fileName1, fileName2);
                         }
+                        else {
+                            oneSet = new Tuple<String, String>(functionName, varTypeName2);
+                        }
+                        deps.add(oneSet);
                     }
                 }
             }
@@ -211,31 +210,30 @@ public class GoRelationInf extends RelationInterface {
     @Override
     public ArrayList<Tuple<String, String>> getFunctionSets(String level) {
         ArrayList<Tuple<String, String>> deps = new ArrayList<Tuple<String, String>>();
-        for (AbsEntity entity : singleCollect.getEntities()) {
-            if (entity instanceof AbsFUNEntity) {
-                String methodName1 =entity.getName();
-                String fileName1 = singleCollect.getEntities().get(entity.getParentId()).getName();
-
-                for (Tuple<String, Integer> relation : entity.getRelations()) {
-                    String relationType = relation.x;
-                    int entityId2 = relation.y;
-                    if(relationType.equals(Configure.RELATION_SET)) {
-                        AbsEntity entity2 = singleCollect.getEntities().get(entityId2);
-                        String varName2 = entity2.getName();
-                        int fileId2 = getFileForVar(entityId2);
-                        String fileName2 = "";
-                        if(fileId2 != -1){
-                            fileName2 = singleCollect.getEntities().get(fileId2).getName();
-                        }
-                        Tuple<String, String> oneSet;
-                        if(level.equals(Configure.RELATION_LEVEL_FILE)) {
-                            oneSet = new Tuple<String, String>(fileName1, fileName2);
-                        }
-                        else {
-                            oneSet = new Tuple<String, String>(methodName1, varName2);
-                        }
-                        deps.add(oneSet);
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.FUNCTION)) {
+            String methodName1 =entity.getName();
+            String fileName1 = singleCollect.getEntities().get(entity.getParentId()).getName();
+
+            RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+            while (relation.next()) {
+                String relationType = relation.getLabel();
+                int entityId2 = relation.getTarget();
+                if(relationType.equals(Configure.RELATION_SET)) {
+                    AbsEntity entity2 = singleCollect.getEntities().get(entityId2);
+                    String varName2 = entity2.getName();
+                    int fileId2 = getFileForVar(entityId2);
+                    String fileName2 = "";
+                    if(fileId2 != -1){
+                        fileName2 = singleCollect.getEntities().get(fileId2).getName();
+                    }
+                    Tuple<String, String> oneSet;
+                    if(level.equals(Configure.RELATION_LEVEL_FILE)) {
+                        oneSet = new Tuple<String, String>(fileName1, fileName2);
                     }
+                    else {
+                        oneSet = new Tuple<String, String>(methodName1, varName2);
+                    }
+                    deps.add(oneSet);
                 }
             }
         } // end big for
@@ -245,32 +243,31 @@ public class GoRelationInf extends RelationInterface {
     @Override
     public ArrayList<Tuple<String, String>> getFunctionUses(String level) {
         ArrayList<Tuple<String, String>> deps = new ArrayList<Tuple<String, String>>();
-        for (AbsEntity entity : singleCollect.getEntities()) {
-            if (entity instanceof AbsFUNEntity) {
-                String methodName1 =entity.getName();
-                String fileName1 = singleCollect.getEntities().get(entity.getParentId()).getName();
-
-                for (Tuple<String, Integer> relation : entity.getRelations()) {
-                    String relationType = relation.x;
-                    int entityId2 = relation.y;
-                    if(relationType.equals(Configure.RELATION_USE)) {
-                        AbsEntity entity2 = singleCollect.getEntities().get(entityId2);
-                        String varName2 = entity2.getName();
-                        int fileId2 = getFileForVar(entityId2);
-                        String fileName2 = "";
-                        if(fileId2 != -1){
-                            fileName2 = singleCollect.getEntities().get(fileId2).getName();
-                        }
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.FUNCTION)) {
+            String methodName1 =entity.getName();
+            String fileName1 = singleCollect.getEntities().get(entity.getParentId()).getName();
+
+            RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+            while (relation.next()) {
+                String relationType = relation.getLabel();
+                int entityId2 = relation.getTarget();
+                if(relationType.equals(Configure.RELATION_USE)) {
+                    AbsEntity entity2 = singleCollect.getEntities().get(entityId2);
+                    String varName2 = entity2.getName();
+                    int fileId2 = getFileForVar(entityId2);
+                    String fileName2 = "";
+                    if(fileId2 != -1){
+                        fileName2 = singleCollect.getEntities().get(fileId2).getName();
+                    }
 
-                        Tuple<String, String> oneSet;
-                        if(level.equals(Configure.RELATION_LEVEL_FILE)) {
-                            oneSet = new Tuple<String, String>(fileName1, fileName2);
-                        }
-                        else {
-                            oneSet = new Tuple<String, String>(methodName1, varName2);
-                        }
-                        deps.add(oneSet);
+                    Tuple<String, String> oneSet;
+                    if(level.equals(Configure.RELATION_LEVEL_FILE)) {
+                        oneSet = new Tuple<String, String>(fileName1, fileName2);
+                    }
+                    else {
+                        oneSet = new Tuple<String, String>(methodName1, varName2);
                     }
+                    deps.add(oneSet);
                 }
             }
         } // end big for
@@ -281,15 +278,16 @@ public class GoRelationInf extends RelationInterface {
     public ArrayList<Tuple<String, String>> getImplementDeps(String level) {
         ArrayList<Tuple<String, String>> deps = new ArrayList<Tuple<String, String>>();
         for (AbsEntity entity : singleCollect.getEntities()) {
-            if(entity instanceof StructEntity || entity instanceof AliasTypeEntity) {
+            if(entity.getKind().is(EntityKind.STRUCT) || entity.getKind().is(EntityKind.ALIAS_TYPE)) {
                 //int typeId = uerr.getId();
                 String typeName = entity.getName();
                 int fileId = entity.getParentId();
                 if(fileId != -1) {
                     String fileName1 = singleCollect.getEntities().get(fileId).getName();
-                    for(Tuple<String, Integer> relation : entity.getRelations()) {
-                        if(relation.x.equals(Configure.RELATION_IMPLEMENT)) {
-                            int interfaceId = relation.y;
+                    RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+                    while (relation.next()) {
+                        if(relation.getLabel().equals(Configure.RELATION_IMPLEMENT)) {
+                            int interfaceId = relation.getTarget();
                             String interfaceName = singleCollect.getEntities().get(interfaceId).getName();
                             int fileId2 = singleCollect.getEntities().get(interfaceId).getParentId();
                             String fileName2 = "";
@@ -322,27 +320,25 @@ public class GoRelationInf extends RelationInterface {
     @Override
     public ArrayList<Tuple<String, String>> getImportDeps(String level) {
         ArrayList<Tuple<String, String>> importDeps = new ArrayList<Tuple<String, String>>();
-        for(AbsEntity fileEntity : singleCollect.getEntities()) {
-            if (fileEntity instanceof AbsFILEntity) {
-                String fileName = fileEntity.getName();
-                ArrayList<Tuple<String, Integer>> relations = fileEntity.getRelations();
-                if (!relations.isEmpty()) {
-                    for (Tuple<String, Integer> oneRelation : relations) {
-                        if (oneRelation.x.equals(Configure.RELATION_IMPORT)) {
-                            String importedPackageName = ((AbsFLDEntity) singleCollect.getEntities().get(oneRelation.y)).getFullPath();
-                            if(level.equals(Configure.RELATION_LEVEL_FILE)) {
-                                ArrayList<Integer> fileIds2 = singleCollect.getEntities().get(oneRelation.y).getChildrenIds();
-                                for (int fileId2 : fileIds2) {
-                                    if(singleCollect.getEntities().get(fileId2) instanceof AbsFILEntity) {
-                                        importDeps.add(new Tuple<String, String>(fileName, singleCollect.getEntities().get(fileId2).getName()));
-                                    }
+        for (AbsEntity fileEntity : singleCollect.getEntitiesOfKind(EntityKind.FILE)) {
+            String fileName = fileEntity.getName();
+            RelationStore.Edges oneRelation = singleCollect.getRelationStore().forward(fileEntity.getId());
+            if (!oneRelation.isEmpty()) {
+                while (oneRelation.next()) {
+                    if (oneRelation.getLabel().equals(Configure.RELATION_IMPORT)) {
+                        String importedPackageName = ((AbsFLDEntity) singleCollect.getEntities().get(oneRelation.getTarget())).getFullPath();
+                        if(level.equals(Configure.RELATION_LEVEL_FILE)) {
+                            List<Integer> fileIds2 = singleCollect.getEntities().get(oneRelation.getTarget()).getChildrenIds();
+                            for (int fileId2 : fileIds2) {
+                                if(singleCollect.isKind(fileId2, EntityKind.FILE)) {
+                                    importDeps.add(new Tuple<String, String>(fileName, singleCollect.getEntities().get(fileId2).getName()));
                                 }
                             }
-                            else {
-                                importDeps.add(new Tuple<String, String>(fileName, importedPackageName));
-                            }
-
                         }
+                        else {
+                            importDeps.add(new Tuple<String, String>(fileName, importedPackageName));
+                        }
+
                     }
                 }
             }
@@ -354,23 +350,21 @@ public class GoRelationInf extends RelationInterface {
 
     private ArrayList<Tuple<String, String>> getEmbedStructDep(String level) {
         ArrayList<Tuple<String, String>> embedDeps = new ArrayList<Tuple<String, String>>();
-        for(AbsEntity structEntity : singleCollect.getEntities()) {
-            if (structEntity instanceof StructEntity) {
-                String structName = structEntity.getName();
-                ArrayList<Tuple<String, Integer>> relations = structEntity.getRelations();
-                if (!relations.isEmpty()) {
-                    String fileName1 = singleCollect.getEntities().get(structEntity.getParentId()).getName();
-                    for (Tuple<String, Integer> oneRelation : relations) {
-                        if (oneRelation.x.equals(Configure.RELATION_INHERIT)) {
-                            String embededStructName = singleCollect.getEntities().get(oneRelation.y).getName();
-                            int embededFileId = singleCollect.getEntities().get(oneRelation.y).getParentId();
-                            String fileName2 = singleCollect.getEntities().get(embededFileId).getName();
-                            if (level.equals(Configure.RELATION_LEVEL_FILE)) {
-                                embedDeps.add(new Tuple<String, String>(fileName1, fileName2));
-                            }
-                            else {
-                                embedDeps.add(new Tuple<String, String>(structName, embededStructName));
-                            }
+        for (AbsEntity structEntity : singleCollect.getEntitiesOfKind(EntityKind.STRUCT)) {
+            String structName = structEntity.getName();
+            RelationStore.Edges oneRelation = singleCollect.getRelationStore().forward(structEntity.getId());
+            if (!oneRelation.isEmpty()) {
+                String fileName1 = singleCollect.getEntities().get(structEntity.getParentId()).getName();
+                while (oneRelation.next()) {
+                    if (oneRelation.getLabel().equals(Configure.RELATION_INHERIT)) {
+                        String embededStructName = singleCollect.getEntities().get(oneRelation.getTarget()).getName();
+                        int embededFileId = singleCollect.getEntities().get(oneRelation.getTarget()).getParentId();
+                        String fileName2 = singleCollect.getEntities().get(embededFileId).getName();
+                        if (level.equals(Configure.RELATION_LEVEL_FILE)) {
+                            embedDeps.add(new Tuple<String, String>(fileName1, fileName2));
+                        }
+                        else {
+                            embedDeps.add(new Tuple<String, String>(structName, embededStructName));
                         }
                     }
                 }
@@ -381,29 +375,27 @@ public class GoRelationInf extends RelationInterface {
 
     private ArrayList<Tuple<String, String>> getEmbedInterfaceDep(String level) {
         ArrayList<Tuple<String, String>> embedDeps = new ArrayList<Tuple<String, String>>();
-        for(AbsEntity interfaceEntity : singleCollect.getEntities()) {
-            if (interfaceEntity instanceof InterfaceEntity) {
-                String interfaceName = interfaceEntity.getName();
-                ArrayList<Tuple<String, Integer>> relations = interfaceEntity.getRelations();
-                String fileName1 = "";
-                if (interfaceEntity.getParentId() != -1) {
-                    fileName1 = singleCollect.getEntities().get(interfaceEntity.getParentId()).getName();
-                }
-                if (!relations.isEmpty()) {
-                    for (Tuple<String, Integer> oneRelation : relations) {
-                        if (oneRelation.x.equals(Configure.RELATION_INHERIT)) {
-                            String embededInterfaceName = singleCollect.getEntities().get(oneRelation.y).getName();
-                            int embededFileId = singleCollect.getEntities().get(oneRelation.y).getParentId();
-                            String fileName2 = "";
-                            if (embededFileId != -1) {
-                                fileName2 = singleCollect.getEntities().get(embededFileId).getName();
-                            }
-                            if (level.equals(Configure.RELATION_LEVEL_FILE)) {
-                                embedDeps.add(new Tuple<String, String>(fileName1, fileName2));
-                            }
-                            else {
-                                embedDeps.add(new Tuple<String, String>(interfaceName, embededInterfaceName));
-                            }
+        for (AbsEntity interfaceEntity : singleCollect.getEntitiesOfKind(EntityKind.INTERFACE)) {
+            String interfaceName = interfaceEntity.getName();
+            RelationStore.Edges oneRelation = singleCollect.getRelationStore().forward(interfaceEntity.getId());
+            String fileName1 = "";
+            if (interfaceEntity.getParentId() != -1) {
+                fileName1 = singleCollect.getEntities().get(interfaceEntity.getParentId()).getName();
+            }
+            if (!oneRelation.isEmpty()) {
+                while (oneRelation.next()) {
+                    if (oneRelation.getLabel().equals(Configure.RELATION_INHERIT)) {
+                        String embededInterfaceName = singleCollect.getEntities().get(oneRelation.getTarget()).getName();
+                        int embededFileId = singleCollect.getEntities().get(oneRelation.getTarget()).getParentId();
+                        String fileName2 = "";
+                        if (embededFileId != -1) {
+                            fileName2 = singleCollect.getEntities().get(embededFileId).getName();
+                        }
+                        if (level.equals(Configure.RELATION_LEVEL_FILE)) {
+                            embedDeps.add(new Tuple<String, String>(fileName1, fileName2));
+                        }
+                        else {
+                            embedDeps.add(new Tuple<String, String>(interfaceName, embededInterfaceName));
                         }
                     }
                 }
@@ -423,37 +415,26 @@ public class GoRelationInf extends RelationInterface {
         if(varId == -1) {
             return -1;
         }
-        int parentId = singleCollect.getEntities().get(varId).getParentId();
-        while (parentId != -1 &&
-                !(singleCollect.getEntities().get(parentId) instanceof AbsFILEntity)) {
-            parentId = singleCollect.getEntities().get(parentId).getParentId();
-        }
-        if(parentId != -1 &&
-                singleCollect.getEntities().get(parentId) instanceof AbsFILEntity) {
-            return parentId;
-        }
-        return -1;
+        return singleCollect.getAncestorIndex().getFileOf(singleCollect.getEntities().get(varId).getParentId());
     }
 
     public ArrayList<Tuple<String, String>> getMethodReceiveDep(String level) {
         ArrayList<Tuple<String, String>> receiveDeps = new ArrayList<Tuple<String, String>>();
-        for(AbsEntity methodEntity : singleCollect.getEntities()) {
-            if (methodEntity instanceof MethodEntity) {
-                String methodEntityName = methodEntity.getName();
-                ArrayList<Tuple<String, Integer>> relations = methodEntity.getRelations();
-                if (!relations.isEmpty()) {
-                    String fileName1 = singleCollect.getEntities().get(methodEntity.getParentId()).getName();
-                    for (Tuple<String, Integer> oneRelation : relations) {
-                        if (oneRelation.x.equals(Configure.RELATION_RECEIVE)) {
-                            String structAliasName = singleCollect.getEntities().get(oneRelation.y).getName();
-                            int structAliasFileId = singleCollect.getEntities().get(oneRelation.y).getParentId();
-                            String fileName2 = singleCollect.getEntities().get(structAliasFileId).getName();
-                            if (level.equals(Configure.RELATION_LEVEL_FILE)) {
-                                receiveDeps.add(new Tuple<String, String>(fileName1, fileName2));
-                            }
-                            else {
-                                receiveDeps.add(new Tuple<String, String>(methodEntityName, structAliasName));
-                            }
+        for (AbsEntity methodEntity : singleCollect.getEntitiesOfKind(EntityKind.METHOD)) {
+            String methodEntityName = methodEntity.getName();
+            RelationStore.Edges oneRelation = singleCollect.getRelationStore().forward(methodEntity.getId());
+            if (!oneRelation.isEmpty()) {
+                String fileName1 = singleCollect.getEntities().get(methodEntity.getParentId()).getName();
+                while (oneRelation.next()) {
+                    if (oneRelation.getLabel().equals(Configure.RELATION_RECEIVE)) {
+                        String structAliasName = singleCollect.getEntities().get(oneRelation.getTarget()).getName();
+                        int structAliasFileId = singleCollect.getEntities().get(oneRelation.getTarget()).getParentId();
+                        String fileName2 = singleCollect.getEntities().get(structAliasFileId).getName();
+                        if (level.equals(Configure.RELATION_LEVEL_FILE)) {
+                            receiveDeps.add(new Tuple<String, String>(fileName1, fileName2));
+                        }
+                        else {
+                            receiveDeps.add(new Tuple<String, String>(methodEntityName, structAliasName));
                         }
                     }
                 }
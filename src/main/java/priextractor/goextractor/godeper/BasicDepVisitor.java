@@ -4,19 +4,33 @@ import entitybuilder.gobuilder.GoConstantString;
 import uerr.*;
 import entitybuilder.gobuilder.goentity.Signature;
 import entitybuilder.gobuilder.goentity.*;
+import priextractor.goextractor.search.ImportPathIndex;
+import priextractor.goextractor.search.NameSearchTable;
 import util.Configure;
 import util.Tuple;
 import uerr.SingleCollect;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * second pass to fill the relationName with entityId
  */
 public class BasicDepVisitor {
     private SingleCollect singleCollect = SingleCollect.getSingleCollectInstance();
+    private NameSearchTable nameSearchTable = NameSearchTable.getNameSearchTableInstance();
+    private ImportPathIndex importPathIndex = new ImportPathIndex();
+    //structId -> the interfaces embedded in it, saved by setEmbedStruct()
+    private Map<Integer, List<Integer>> struct2EmbededInterfaces = new HashMap<Integer, List<Integer>>();
 
 
     public void setUnsuredDeps() {
@@ -28,7 +42,11 @@ public class BasicDepVisitor {
         }
 
 
-    private void setImport() {
+    /**
+     * resolve the import paths of each file by go.mod, go.work, vendor dirs and <include-dir>
+     */
+    public void setImport() {
+        importPathIndex.build();
         ArrayList<Tuple<String, String>> importDeps = new ArrayList<Tuple<String, String>>();
         for(AbsEntity fileEntity : singleCollect.getEntities()) {
             if (fileEntity instanceof AbsFILEntity) {
@@ -39,7 +57,7 @@ public class BasicDepVisitor {
                         String importedPackageNameAlias = oneImport.x;
                         String importedPackageName = oneImport.y;
                         //System.out.println("setImport:" + fileName + "," +  importedPackageName);
-                        int importedPackageId = searchPackageIndex(importedPackageName);
+                        int importedPackageId = importPathIndex.resolve(importedPackageName, fileId);
                         if (importedPackageId != -1) {
                             saveRelation(fileId, importedPackageId,
                                     Configure.RELATION_IMPORT, Configure.RELATION_IMPORTED_BY);
@@ -87,6 +105,13 @@ public class BasicDepVisitor {
                             }
                             else {
                                 //System.out.println("StructRelation: embeded:" + embededStructName + ", file:-1");
+                                int embededInterfaceId = searchEmbededInterface(entityId, embededStructName);
+                                if (embededInterfaceId != -1) {
+                                    if (!struct2EmbededInterfaces.containsKey(entityId)) {
+                                        struct2EmbededInterfaces.put(entityId, new ArrayList<Integer>());
+                                    }
+                                    struct2EmbededInterfaces.get(entityId).add(embededInterfaceId);
+                                }
                             }
                         }
                     }
@@ -192,41 +217,231 @@ public class BasicDepVisitor {
     }
 
     /**
-     * structType/asliasType-implement interface
+     * structType/asliasType-implement interface.
+     * a type T is recorded to implement an interface if the method set of *T includes all methods of the interface,
+     * i.e. T or *T implements it, since *T has no entity of its own.
+     * So a value T may be recorded for an interface which only *T implements, e.g. by methods with pointer receivers.
+     * The implementers of an interface are the intersection of the posting lists of its methods
+     * in the index signature -> types having it.
      */
     private void setImplementation() {
-        Map<Integer, ArrayList<Signature>> inf2Sig = buildInterface2Methods();
-        Map<Integer, ArrayList<Signature>> type2Sig = buildType2Method();
-        ArrayList<Tuple<Integer, Integer>> tmps = new ArrayList<Tuple<Integer, Integer>>();
+        Map<Integer, ArrayList<Signature>> inf2Sig = buildInterfaceMethodSets(buildInterface2Methods());
+        Map<Integer, ArrayList<Signature>> type2Sig = buildTypeMethodSets(buildType2Method(), inf2Sig);
+        Map<Signature, ArrayList<Integer>> sig2Types = buildSig2Types(type2Sig);
+
+        for (Map.Entry<Integer, ArrayList<Signature>> entry : inf2Sig.entrySet()) {
+            int interfaceId = entry.getKey();
+            for (int typeId : findImplementers(entry.getValue(), sig2Types)) {
+                saveRelation(typeId, interfaceId, Configure.RELATION_IMPLEMENT, Configure.RELATION_IMPLEMENTED_BY);
+            }
+        }
+    }
 
-        for (Map.Entry<Integer, ArrayList<Signature>> entry1 : type2Sig.entrySet()) {
-            int typeId = entry1.getKey();
-            ArrayList<Signature> sig1 = entry1.getValue();
-            for (Map.Entry<Integer, ArrayList<Signature>> entry2: inf2Sig.entrySet()) {
-                int interfaceId = entry2.getKey();
-                ArrayList<Signature> sig2 = entry2.getValue();
-                if(isExtended(sig1, sig2)) { //sig1 >= sig2
-                    saveRelation(typeId, interfaceId, Configure.RELATION_IMPLEMENT, Configure.RELATION_IMPLEMENTED_BY);
+    /**
+     * @param type2Sig
+     * @return signature -> the ids of the types having it, in increasing order
+     */
+    private Map<Signature, ArrayList<Integer>> buildSig2Types(Map<Integer, ArrayList<Signature>> type2Sig) {
+        Map<Signature, ArrayList<Integer>> sig2Types = new HashMap<Signature, ArrayList<Integer>>();
+        for (Map.Entry<Integer, ArrayList<Signature>> entry : type2Sig.entrySet()) {
+            for (Signature signature : entry.getValue()) {
+                if (!sig2Types.containsKey(signature)) {
+                    sig2Types.put(signature, new ArrayList<Integer>());
                 }
+                sig2Types.get(signature).add(entry.getKey());
             }
         }
+        return sig2Types;
     }
 
     /**
-     * if an interface's all api in implemnted by a struct, then it is an extension
-     * @param structM
-     * @param intfM
-     * @return
+     * intersect the posting lists of the interface's methods, from the shortest one.
+     * @param intfM  the method set of an interface, not empty
+     * @param sig2Types
+     * @return the ids of the types having all methods in intfM, in increasing order
+     */
+    private List<Integer> findImplementers(ArrayList<Signature> intfM, Map<Signature, ArrayList<Integer>> sig2Types) {
+        ArrayList<ArrayList<Integer>> postings = new ArrayList<ArrayList<Integer>>();
+        for (Signature signature : intfM) {
+            ArrayList<Integer> posting = sig2Types.get(signature);
+            if (posting == null) {
+                return new ArrayList<Integer>();
+            }
+            postings.add(posting);
+        }
+        Collections.sort(postings, new Comparator<ArrayList<Integer>>() {
+            @Override
+            public int compare(ArrayList<Integer> o1, ArrayList<Integer> o2) {
+                return o1.size() - o2.size();
+            }
+        });
+        List<Integer> typeIds = postings.get(0);
+        for (int i = 1; i < postings.size() && !typeIds.isEmpty(); i++) {
+            typeIds = intersect(typeIds, postings.get(i));
+        }
+        return typeIds;
+    }
+
+    private List<Integer> intersect(List<Integer> ids1, List<Integer> ids2) {
+        ArrayList<Integer> ids = new ArrayList<Integer>();
+        int i = 0;
+        int j = 0;
+        while (i < ids1.size() && j < ids2.size()) {
+            int id1 = ids1.get(i);
+            int id2 = ids2.get(j);
+            if (id1 == id2) {
+                ids.add(id1);
+                i++;
+                j++;
+            }
+            else if (id1 < id2) {
+                i++;
+            }
+            else {
+                j++;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * the method set of the pointer type *T of a type T: its methods with value or pointer receivers,
+     * the methods promoted from its embedded structs, and the method sets of its embedded interfaces.
+     * A promoted method is the one at the shallowest depth of embedding,
+     * and a name found twice at that depth is promoted by neither.
+     * The method set of T itself, without the pointer receivers, is not built, see setImplementation().
+     * @param type2Method  typeId -> the methods received by it
+     * @param interfaceMethodSets  interfaceId -> its method set
+     * @return typeId -> its method set, in the order of typeId, for the types with a non-empty method set
      */
-    private boolean isExtended(ArrayList<Signature> structM, ArrayList<Signature> intfM) {
-        for(Signature s1 : intfM) {
-            for(Signature s2: structM) {
-                if(!s1.isEqual(s2)) {
-                    return false;
+    private Map<Integer, ArrayList<Signature>> buildTypeMethodSets(Map<Integer, ArrayList<Signature>> type2Method,
+                                                                   Map<Integer, ArrayList<Signature>> interfaceMethodSets) {
+        Map<Integer, ArrayList<Signature>> type2MethodSet = new TreeMap<Integer, ArrayList<Signature>>();
+        List<AbsEntity> typeEntities = new ArrayList<AbsEntity>(singleCollect.getEntitiesOfKind(EntityKind.STRUCT));
+        typeEntities.addAll(singleCollect.getEntitiesOfKind(EntityKind.ALIAS_TYPE));
+        for (AbsEntity typeEntity : typeEntities) {
+            ArrayList<Signature> methodSet = new ArrayList<Signature>();
+            Set<Integer> shallowerNames = new HashSet<Integer>();
+            //the types and the interfaces at the current depth
+            Set<Integer> visitedTypes = new HashSet<Integer>();
+            List<Integer> level = new ArrayList<Integer>();
+            level.add(typeEntity.getId());
+            visitedTypes.add(typeEntity.getId());
+            while (!level.isEmpty()) {
+                Map<Integer, Signature> levelMethods = new LinkedHashMap<Integer, Signature>();
+                Set<Integer> ambiguousNames = new HashSet<Integer>();
+                List<Integer> nextLevel = new ArrayList<Integer>();
+                for (int typeId : level) {
+                    addLevelMethods(type2Method.get(typeId), levelMethods, ambiguousNames);
+                    addLevelMethods(interfaceMethodSets.get(typeId), levelMethods, ambiguousNames);
+                    List<Integer> embededIds = getInheritedIds(typeId, EntityKind.STRUCT);
+                    if (struct2EmbededInterfaces.containsKey(typeId)) {
+                        embededIds.addAll(struct2EmbededInterfaces.get(typeId));
+                    }
+                    for (int embededId : embededIds) {
+                        if (visitedTypes.add(embededId)) {
+                            nextLevel.add(embededId);
+                        }
+                    }
+                }
+                for (Map.Entry<Integer, Signature> entry : levelMethods.entrySet()) {
+                    if (!shallowerNames.contains(entry.getKey()) && !ambiguousNames.contains(entry.getKey())) {
+                        methodSet.add(entry.getValue());
+                    }
                 }
+                shallowerNames.addAll(levelMethods.keySet());
+                level = nextLevel;
+            }
+            if (!methodSet.isEmpty()) {
+                type2MethodSet.put(typeEntity.getId(), methodSet);
             }
         }
-        return true;
+        return type2MethodSet;
+    }
+
+    /**
+     * add the methods of one type at the current depth, and mark the names found twice at it
+     * @param methods  null for none
+     * @param levelMethods  nameId -> method
+     * @param ambiguousNames
+     */
+    private void addLevelMethods(List<Signature> methods, Map<Integer, Signature> levelMethods, Set<Integer> ambiguousNames) {
+        if (methods == null) {
+            return;
+        }
+        for (Signature signature : methods) {
+            int nameId = signature.getNameId();
+            if (levelMethods.containsKey(nameId)) {
+                ambiguousNames.add(nameId);
+            }
+            else {
+                levelMethods.put(nameId, signature);
+            }
+        }
+    }
+
+    /**
+     * the method set of an interface: its methods, and the methods of its embedded interfaces.
+     * An interface embedding an interface not in the source code (e.g. io.Reader) is dropped, since its method set is not known.
+     * @param interface2Method interfaceId -> the methods declared in it
+     * @return interfaceId -> its method set, in the order of interfaceId, for the interfaces with a known and non-empty method set
+     */
+    private Map<Integer, ArrayList<Signature>> buildInterfaceMethodSets(Map<Integer, ArrayList<Signature>> interface2Method) {
+        Map<Integer, ArrayList<Signature>> interface2MethodSet = new TreeMap<Integer, ArrayList<Signature>>();
+        for (AbsEntity interfaceEntity : singleCollect.getEntitiesOfKind(EntityKind.INTERFACE)) {
+            LinkedHashSet<Signature> methodSet = new LinkedHashSet<Signature>();
+            Set<Integer> visitedInterfaces = new HashSet<Integer>();
+            ArrayList<Integer> toVisit = new ArrayList<Integer>();
+            toVisit.add(interfaceEntity.getId());
+            visitedInterfaces.add(interfaceEntity.getId());
+            boolean isKnown = true;
+            for (int i = 0; i < toVisit.size() && isKnown; i++) {
+                int interfaceId = toVisit.get(i);
+                if (interface2Method.containsKey(interfaceId)) {
+                    methodSet.addAll(interface2Method.get(interfaceId));
+                }
+                List<Integer> embededIds = getInheritedIds(interfaceId, EntityKind.INTERFACE);
+                if (embededIds.size() != countEmbededInterfaces(interfaceId)) {
+                    isKnown = false;
+                }
+                for (int embededId : embededIds) {
+                    if (visitedInterfaces.add(embededId)) {
+                        toVisit.add(embededId);
+                    }
+                }
+            }
+            if (isKnown && !methodSet.isEmpty()) {
+                interface2MethodSet.put(interfaceEntity.getId(), new ArrayList<Signature>(methodSet));
+            }
+        }
+        return interface2MethodSet;
+    }
+
+    /**
+     * @param entityId
+     * @param kind
+     * @return the ids of the entities of kind embedded in entityId, saved by setEmbedStruct() or setEmbedInterface()
+     */
+    private List<Integer> getInheritedIds(int entityId, EntityKind kind) {
+        List<Integer> ids = new ArrayList<Integer>();
+        for (Tuple<String, Integer> relation : singleCollect.getEntities().get(entityId).getRelations()) {
+            if (relation.x.equals(Configure.RELATION_INHERIT) && singleCollect.isKind(relation.y, kind)) {
+                ids.add(relation.y);
+            }
+        }
+        return ids;
+    }
+
+    private int countEmbededInterfaces(int interfaceId) {
+        int count = 0;
+        for (int fieldId : singleCollect.getEntities().get(interfaceId).getChildrenIds()) {
+            AbsEntity fieldEntity = singleCollect.getEntities().get(fieldId);
+            if (fieldEntity instanceof InterfaceFieldEntity
+                    && ((InterfaceFieldEntity) fieldEntity).getType().equals(GoConstantString.INTERFACE_FIELD_IS_TYPE)) {
+                count++;
+            }
+        }
+        return count;
     }
 
 
@@ -491,39 +706,20 @@ public class BasicDepVisitor {
      * @return
      */
     private int findNameLocal(int packageId, String unknownName, String entityType) {
-        //find the files in this package
-        ArrayList<Integer> fileIds = singleCollect.getEntities().get(packageId).getChildrenIds();
-
-        //find the unknownName, without naming transformation
-        for (int fileId : fileIds) {
-            for (int entityId : singleCollect.getEntities().get(fileId).getChildrenIds()) {
-                if (entityType.equals(GoConstantString.ENTITY_STRUCT)
-                        && singleCollect.getEntities().get(entityId) instanceof StructEntity
-                        && singleCollect.getEntities().get(entityId).getName().equals(unknownName)) {
-                    return entityId;
-                } else if (entityType.equals(GoConstantString.ENTITY_INTERFACE)
-                        && singleCollect.getEntities().get(entityId) instanceof InterfaceEntity
-                        && singleCollect.getEntities().get(entityId).getName().equals(unknownName)) {
-                    return entityId;
-                }
-                else if (entityType.equals(GoConstantString.ENTITY_STRUCT_ALIAS)
-                        && (singleCollect.getEntities().get(entityId) instanceof StructEntity
-                        || singleCollect.getEntities().get(entityId) instanceof AliasTypeEntity)
-                        && singleCollect.getEntities().get(entityId).getName().equals(unknownName)) {
-                    return entityId;
-                }
-                else if (entityType.equals(GoConstantString.ENTITY_FUNCTION)
-                        && singleCollect.getEntities().get(entityId) instanceof AbsFUNEntity
-                        && ! (singleCollect.getEntities().get(entityId) instanceof MethodEntity)
-                        && singleCollect.getEntities().get(entityId).getName().equals(unknownName)) {
-                    return entityId;
-                }
-                else if (entityType.equals(GoConstantString.ENTITY_METHOD)
-                        && ! (singleCollect.getEntities().get(entityId) instanceof MethodEntity)
-                        && singleCollect.getEntities().get(entityId).getName().equals(unknownName)) {
-                    return entityId;
-                }
-            }
+        //the first one in the files of this package, without naming transformation
+        if (entityType.equals(GoConstantString.ENTITY_STRUCT)) {
+            return nameSearchTable.find(unknownName, packageId, EntityKind.STRUCT);
+        } else if (entityType.equals(GoConstantString.ENTITY_INTERFACE)) {
+            return nameSearchTable.find(unknownName, packageId, EntityKind.INTERFACE);
+        }
+        else if (entityType.equals(GoConstantString.ENTITY_STRUCT_ALIAS)) {
+            return nameSearchTable.find(unknownName, packageId, EntityKind.STRUCT, EntityKind.ALIAS_TYPE);
+        }
+        else if (entityType.equals(GoConstantString.ENTITY_FUNCTION)) {
+            return nameSearchTable.find(unknownName, packageId, EntityKind.FUNCTION);
+        }
+        else if (entityType.equals(GoConstantString.ENTITY_METHOD)) {
+            return nameSearchTable.find(unknownName, packageId, EntityKind.METHOD);
         }
         return -1;
     }
@@ -545,18 +741,8 @@ public class BasicDepVisitor {
     }
 
 
-    private int searchPackageIndex(String packagePath) {
-        //System.out.println("searchPackageIndex: searched-" + packagePath);
-        ArrayList<AbsEntity> entities = singleCollect.getEntities();
-        for (int i = 0; i < entities.size(); i++) {
-            if (entities.get(i) instanceof AbsFLDEntity) {
-                //System.out.println("searchPackageIndex: ing-" + ((AbsFLDEntity) entities.get(i)).getFullPath());
-                if (((AbsFLDEntity) entities.get(i)).getFullPath().equals(packagePath)) {
-                    return i;
-                }
-            }
-        }
-        return -1;
+    public String importStatis() {
+        return importPathIndex.indexStatis();
     }
 
 }
@@ -8,10 +8,13 @@ import entitybuilder.gobuilder.goentity.StructEntity;
 import entitybuilder.gobuilder.goentity.StructFieldEntity;
 import priextractor.goextractor.search.*;
 import util.Configure;
+import util.ParallelUtil;
 import util.Tuple;
 import uerr.SingleCollect;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 public class FuncDepVisitor {
@@ -23,76 +26,105 @@ public class FuncDepVisitor {
     private NameSearchInterface nameSearchInterface = new NameSearchInterface();
 
 
-    public void setFuncDeps() {
-        setCalls();
-        setParameters();
-        setReturns();
-        setUses();
-        setSets();
-    }
+    //the relations found by a function, and saved in this order: call, parameter, return, use, set.
+    private static final int CALL = 0;
+    private static final int PARAMETER = 1;
+    private static final int RETURN = 2;
+    private static final int USE = 3;
+    private static final int SET = 4;
+    private static final String[][] RELATION_TYPES = {
+            {Configure.RELATION_CALL, Configure.RELATION_CALLED_BY},
+            {Configure.RELATION_PARAMETER, Configure.RELATION_PARAMETERED_BY},
+            {Configure.RELATION_RETURN, Configure.RELATION_RETURNED_BY},
+            {Configure.RELATION_USE, Configure.RELATION_USED_BY},
+            {Configure.RELATION_SET, Configure.RELATION_SETED_BY}};
+
+    //the number of functions taken by a thread at a time
+    private static final int FUNCTION_BATCH = 64;
 
     /**
-     * find add function-use-varId relations
+     * one pass over each function finds its calls, parameters, returns, uses and sets into its own EdgeBuffer,
+     * and the functions are visited by configure.getThreadNum() threads.
+     * A visit only reads the entities, so the relations are saved after all visits,
+     * kind by kind and function by function, i.e., in the same order as one pass per kind.
      */
-    private void setUses() {
-        for (AbsEntity entity : singleCollect.getEntities()) {
-            if(entity instanceof AbsFUNEntity) {
-                int functionId = entity.getId();
-                Map<String, ArrayList<String>> name2usage = ((AbsFUNEntity) entity).getName2UsageMap();
-                Map<String, Integer> name2Id = ((AbsFUNEntity) entity).getName2IdMap();
-                for (Map.Entry<String, ArrayList<String>> entry : name2usage.entrySet()) {
-                    String varName = entry.getKey();
-                    for (String usage : entry.getValue()) {
-                        if (usage.equals(GoConstantString.OPERAND_NAME_USAGE_USE)) {
-                            if (name2Id.containsKey(varName)) {
-                                int varId = name2Id.get(varName);
-                                saveRelation(functionId, varId, Configure.RELATION_USE, Configure.RELATION_USED_BY);
-                            }
-                        }
-                    }
+    public void setFuncDeps() {
+        final List<AbsEntity> functionEntities = singleCollect.getEntitiesOfKind(EntityKind.FUNCTION);
+        final EdgeBuffer[] edgeBuffers = new EdgeBuffer[functionEntities.size()];
+        singleCollect.internNames();
+        ParallelUtil.forEachIndex(functionEntities.size(), Configure.getConfigureInstance().getThreadNum(), FUNCTION_BATCH,
+                new ParallelUtil.IndexHandler() {
+            @Override
+            public void handle(int index) {
+                edgeBuffers[index] = visitFunction((AbsFUNEntity) functionEntities.get(index));
+            }
+        });
+
+        for (int kind = 0; kind < RELATION_TYPES.length; kind++) {
+            for (int index = 0; index < edgeBuffers.length; index++) {
+                if (edgeBuffers[index] != null) {
+                    edgeBuffers[index].saveRelations(functionEntities.get(index).getId(), kind);
                 }
             }
         }
     }
 
-
     /**
-     * find add function-set-varId relations
+     * the relations found by one function: (kind, the id of the other entity)
      */
-    private void setSets() {
-        for (AbsEntity entity : singleCollect.getEntities()) {
-            if(entity instanceof AbsFUNEntity) {
-                int functionId = entity.getId();
-                Map<String, ArrayList<String>> name2usage = ((AbsFUNEntity) entity).getName2UsageMap();
-                Map<String, Integer> name2Id = ((AbsFUNEntity) entity).getName2IdMap();
-                for (Map.Entry<String, ArrayList<String>> entry : name2usage.entrySet()) {
-                    String varName = entry.getKey();
-                    for (String usage : entry.getValue()) {
-                        if (usage.equals(GoConstantString.OPERAND_NAME_USAGE_SET)) {
-                            if (name2Id.containsKey(varName)) {
-                                int varId = name2Id.get(varName);
-                                saveRelation(functionId, varId, Configure.RELATION_SET, Configure.RELATION_SETED_BY);
-                            }
-                        }
-                    }
+    private class EdgeBuffer {
+        private int[] kinds = new int[8];
+        private int[] entityIds = new int[8];
+        private int size = 0;
+
+        private void add(int kind, int entityId) {
+            if (size == kinds.length) {
+                kinds = Arrays.copyOf(kinds, size * 2);
+                entityIds = Arrays.copyOf(entityIds, size * 2);
+            }
+            kinds[size] = kind;
+            entityIds[size] = entityId;
+            size++;
+        }
+
+        private void saveRelations(int functionId, int kind) {
+            for (int i = 0; i < size; i++) {
+                if (kinds[i] == kind) {
+                    saveRelation(functionId, entityIds[i], RELATION_TYPES[kind][0], RELATION_TYPES[kind][1]);
                 }
             }
         }
     }
 
+    private EdgeBuffer visitFunction(AbsFUNEntity functionEntity) {
+        EdgeBuffer edgeBuffer = new EdgeBuffer();
+        setCalls(functionEntity, edgeBuffer);
+        setParameters(functionEntity, edgeBuffer);
+        setReturns(functionEntity, edgeBuffer);
+        setUsesAndSets(functionEntity, edgeBuffer);
+        //the last pass over this function
+        singleCollect.releaseScratch(functionEntity);
+        return edgeBuffer;
+    }
 
     /**
-     * find add function-parameterType relations
+     * find function-use-varId and function-set-varId relations
      */
-    private void setParameters() {
-        for(AbsEntity entity : singleCollect.getEntities()) {
-            if(entity instanceof AbsFUNEntity) {
-                int functionId = entity.getId();
-                for (int parameterId : ((AbsFUNEntity) entity).getParameters()) {
-                    if(((AbsVAREntity) singleCollect.getEntities().get(parameterId)).getTypeId() != -1) {
-                        int typeId = ((AbsVAREntity) singleCollect.getEntities().get(parameterId)).getTypeId();
-                        saveRelation(functionId, typeId, Configure.RELATION_PARAMETER, Configure.RELATION_PARAMETERED_BY);
-                    }
+    private void setUsesAndSets(AbsFUNEntity functionEntity, EdgeBuffer edgeBuffer) {
+        Map<String, ArrayList<String>> name2usage = functionEntity.getName2UsageMap();
+        Map<String, Integer> name2Id = functionEntity.getName2IdMap();
+        for (Map.Entry<String, ArrayList<String>> entry : name2usage.entrySet()) {
+            String varName = entry.getKey();
+            if (!name2Id.containsKey(varName)) {
+                continue;
+            }
+            int varId = name2Id.get(varName);
+            for (String usage : entry.getValue()) {
+                if (usage.equals(GoConstantString.OPERAND_NAME_USAGE_USE)) {
+                    edgeBuffer.add(USE, varId);
+                }
+                else if (usage.equals(GoConstantString.OPERAND_NAME_USAGE_SET)) {
+                    edgeBuffer.add(SET, varId);
                 }
             }
         }
@@ -100,116 +132,68 @@ public class FuncDepVisitor {
 
 
     /**
-     * find add function-returnType relations
+     * find function-parameterType relations
      */
-    private void setReturns() {
-        for (AbsEntity entity : singleCollect.getEntities()) {
-            if(entity instanceof AbsFUNEntity) {
-                int functionId = entity.getId();
-                for (int returnId : ((AbsFUNEntity) entity).getReturns()) {
-                    if(((AbsVAREntity) singleCollect.getEntities().get(returnId)).getTypeId() != -1) {
-                        int typeId = ((AbsVAREntity) singleCollect.getEntities().get(returnId)).getTypeId();
-                        saveRelation(functionId, typeId, Configure.RELATION_RETURN, Configure.RELATION_RETURNED_BY);
-                    }
-                }
+    private void setParameters(AbsFUNEntity functionEntity, EdgeBuffer edgeBuffer) {
+        for (int parameterId : functionEntity.getParameters()) {
+            if(((AbsVAREntity) singleCollect.getEntities().get(parameterId)).getTypeId() != -1) {
+                int typeId = ((AbsVAREntity) singleCollect.getEntities().get(parameterId)).getTypeId();
+                edgeBuffer.add(PARAMETER, typeId);
             }
         }
     }
 
 
-
     /**
-     * find all function calls
+     * find function-returnType relations
      */
-    private void setCalls() {
-        for (AbsEntity functionOrMethodEntity : singleCollect.getEntities()) {
-            if(functionOrMethodEntity instanceof AbsFUNEntity) {
-                int callerEntityId = functionOrMethodEntity.getId(); //caller uerr id
-
-                //for debug
-                int callerFileId = functionOrMethodEntity.getParentId();
-                String callerFileName = singleCollect.getEntities().get(callerFileId).getName();
-
-                //this tmpCalleeEntityIds for save all id (including -1); because saveRelation only save ones without -1.
-                ArrayList<Integer> tmpCalleeEntityIds = new ArrayList<Integer>();
-                for (int calleeIndex = 0; calleeIndex < ((AbsFUNEntity) functionOrMethodEntity).getCalledFunctions().size(); calleeIndex++) {
-                    //System.out.println("call relation: callerName: " + functionOrMethodEntity.getName() + ";  file: " + callerFileName);
-
-                    String originalCalleeStr = ((AbsFUNEntity) functionOrMethodEntity).getCalledFunctions().get(calleeIndex);
-                    //if f1(f2()) or f1().f2(), substitute the first call, make the str has only one call with one ().
-                    String newCalleeStr = simplifyCalleeStr(originalCalleeStr, calleeIndex, ((AbsFUNEntity) functionOrMethodEntity).getCalledFunctions(), tmpCalleeEntityIds);
-                    String[] tmp = newCalleeStr.split("\\("); //delete parameter(..)
-                    //System.out.println("tmp split: " + tmp);
-                    String newCalleeName = tmp[0];
-                    int calleeEntityId = searchFunctionOrMethod(callerEntityId, newCalleeName);
-                    tmpCalleeEntityIds.add(calleeEntityId);
-
-                    if (calleeEntityId != -1) {
-                        saveRelation(callerEntityId, calleeEntityId, Configure.RELATION_CALL, Configure.RELATION_CALLED_BY);
-                        //for debug
-                        String calleeFileName = Configure.NULL_STRING;
-                        int calleeFileId = singleCollect.getEntities().get(calleeEntityId).getParentId();
-                        if (calleeFileId != -1) {
-                            calleeFileName = singleCollect.getEntities().get(calleeFileId).getName();
-                        }
-                        //System.out.println("calleeName: orig=" + originalCalleeStr  + ",  new=" + newCalleeStr + ", new=" + newCalleeName + ", file=" + calleeFileName);
-                    }
-                    else { //it is not found , or the callee is a system method/function //for debug
-                        //System.out.println("calleeName: orig=" + originalCalleeStr  + ",  new=" + newCalleeStr + ", new=" + newCalleeName + ", file=-1");
-                    }
-                }
+    private void setReturns(AbsFUNEntity functionEntity, EdgeBuffer edgeBuffer) {
+        for (int returnId : functionEntity.getReturns()) {
+            if(((AbsVAREntity) singleCollect.getEntities().get(returnId)).getTypeId() != -1) {
+                int typeId = ((AbsVAREntity) singleCollect.getEntities().get(returnId)).getTypeId();
+                edgeBuffer.add(RETURN, typeId);
             }
         }
     }
 
 
+
     /**
-     * if f1(f2()) or f1().f2(), substitute the first call.
-     * After processing, the newCalleeStr has only one call with one ().
-     * @param originalCalleeStr original text form of the calleeStr
-     * @param calleeIndex
-     * @param calleeFunctionStrs
-     * @param calleeFunctionIds
-     * @return return the outlayer callee form, which has only one ().
+     * find all function calls.
+     * the callee of a call site starting with an earlier call, e.g. f().m(), is searched in the type returned by that call.
      */
-    private String simplifyCalleeStr(String originalCalleeStr, int calleeIndex, ArrayList<String> calleeFunctionStrs, ArrayList<Integer> calleeFunctionIds) {
-        String newCalleeStr = originalCalleeStr;
-
-        //the return Type for substituting the matchedStr
-        String newSubStr = GoConstantString.UNKNOWN_TYPE;
-        String preStr = Configure.NULL_STRING;
-        if (calleeIndex > 0) {
-            //because the order of functionsStr in calledFunctions, we only need look at the currentIndex -1
-            preStr = calleeFunctionStrs.get(calleeIndex - 1);
-            int preEntityId = calleeFunctionIds.get(calleeIndex - 1);
-            if (preEntityId != -1) {
-                // use the first return as the return type.???????????????????? may have some issues.
-                // GoConstantString.CUSTOME_TYPE is used to label that this type is the return type of a function or methods.
-                //int firstReturnId = ((AbsFUNEntity) singleCollect.getEntities().get(preEntityId)).getReturns().get(0);
-                newSubStr = GoConstantString.CUSTOME_TYPE + Integer.toString(preEntityId);
+    private void setCalls(AbsFUNEntity functionOrMethodEntity, EdgeBuffer edgeBuffer) {
+        int callerEntityId = functionOrMethodEntity.getId(); //caller uerr id
+        ArrayList<CallSite> callSites = functionOrMethodEntity.getCallSites();
+        for (CallSite callSite : callSites) {
+            int calleeEntityId = -1;
+            if (!callSite.isSelectorChain()) {
+                //the callee is not found, e.g. a[i]() or func(){...}()
             }
-        }
-        if(!preStr.equals(Configure.NULL_STRING)) {
-            int startIndex = originalCalleeStr.indexOf(preStr);
-            //if the full match, it means the same function is called several times.
-            if (startIndex != -1 && !originalCalleeStr.equals(preStr)) {
-                int endIndex = startIndex + preStr.length(); //open range
-                newCalleeStr = originalCalleeStr.substring(0, startIndex) + newSubStr + originalCalleeStr.substring(endIndex, originalCalleeStr.length());
+            else if (callSite.getReceiverCallIndex() == -1) {
+                calleeEntityId = searchFunctionOrMethod(callerEntityId, callSite.getNames());
+            }
+            else {
+                int receiverCalleeId = callSites.get(callSite.getReceiverCallIndex()).getCalleeId();
+                calleeEntityId = searchMethodOfCallResult(receiverCalleeId, callSite.getNames());
+            }
+            callSite.setCalleeId(calleeEntityId);
+            if (calleeEntityId != -1) {
+                edgeBuffer.add(CALL, calleeEntityId);
             }
         }
-        return newCalleeStr;
     }
 
 
     /**
-     * For callerEntity, find its callee's entityId according to calleeName
+     * For callerEntity, find its callee's entityId according to the names of the callee
      * @param callerEntityId  the uerr id of caller
-     * @param calleeName     function or method name, without parameter "(..)"
+     * @param calleeNameArr  the names of function or method, e.g. {f}, {package, f}, {var, method}
      * @return               the uerr id of callee
      */
-    private int searchFunctionOrMethod(int callerEntityId, String calleeName) {
+    private int searchFunctionOrMethod(int callerEntityId, String[] calleeNameArr) {
         int calleeEntityId = -1;
-        String[] calleeNameArr = calleeName.split("\\.");
+        String calleeName = calleeNameArr[0];
 
         //CaseA: f; selector = 0, calleeName is just functionName
         if (calleeNameArr.length == 1 && nameSearchFunction.isFunctionName(calleeName, callerEntityId)) {
@@ -225,11 +209,6 @@ public class FuncDepVisitor {
             calleeEntityId = searchFunctionOrMethodCaseC(calleeNameArr, callerEntityId);
         }
 
-        //CaseD: MYT1.method();// MyT1 is a previous function()'s id
-        else if (isLabeledBefore(calleeNameArr[0])) {
-            calleeEntityId = searchFunctionOrMethodCaseD(calleeNameArr);
-        }
-
         //CaseE: package.var.method() or package.var1.var2.method()
         else if (calleeNameArr.length >= 3 && nameSearchFunction.isPackageName(calleeNameArr[0], callerEntityId)){
             calleeEntityId = searchFunctionOrMethodCaseE(calleeNameArr, callerEntityId);
@@ -237,7 +216,7 @@ public class FuncDepVisitor {
         else {
             //System.out.println("searchFunctionOrMethod: no such case!");
         }
-        if(calleeEntityId != -1 && singleCollect.getEntities().get(calleeEntityId) instanceof AbsFUNEntity) {
+        if(calleeEntityId != -1 && singleCollect.isKind(calleeEntityId, EntityKind.FUNCTION)) {
             return calleeEntityId;
         }
         return -1;
@@ -278,56 +257,31 @@ public class FuncDepVisitor {
     }
 
     /**
-     * check whether a string can be converted into integer
-     * @param str
+     * find the method called on the result of an earlier call, e.g. f().m() or f().member.m().
+     * the result is taken as the first return of the earlier callee.
+     * @param previousFunctionId  the callee of the earlier call, or -1
+     * @param calleeNameArr  the names after the earlier call, e.g. {m} or {member, m}
      * @return
      */
-    private boolean isIntegerParsable(String str) {
-        try{
-            Integer.valueOf(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
-    }
-
-
-    /**
-     * //CaseD: MYT1.method();// MyT1 is CUSTOME_TYPE + previous_function()_id
-     * @param calleeNameArr
-     * @return
-     */
-    public int searchFunctionOrMethodCaseD(String[] calleeNameArr) {
-        if(calleeNameArr.length != 2) {
+    private int searchMethodOfCallResult(int previousFunctionId, String[] calleeNameArr) {
+        if(previousFunctionId == -1
+                || ((AbsFUNEntity) singleCollect.getEntities().get(previousFunctionId)).getReturns().isEmpty()) {
             return -1;
         }
-        int methodId = -1;
-        String mycustomeType = calleeNameArr[0];
-        String calleeMethodName = calleeNameArr[1];
-        int previousFunctionId = -1;
-        if(mycustomeType.startsWith(GoConstantString.CUSTOME_TYPE)) {
-            String tmp = mycustomeType.substring(GoConstantString.CUSTOME_TYPE.length(), mycustomeType.length());
-            if(tmp.equals("-1")) {
-                previousFunctionId = -1;
-            }
-            else if (isIntegerParsable(tmp)){
-                //System.out.println("mycustomeType: " + mycustomeType + ";  tmp: " + tmp);
-                previousFunctionId = Integer.parseInt(tmp);
-            }
-            else {
-                previousFunctionId = -1;
+        int firstReturnId = ((AbsFUNEntity) singleCollect.getEntities().get(previousFunctionId)).getReturns().get(0);
+        int typeId = ((AbsVAREntity) singleCollect.getEntities().get(firstReturnId)).getTypeId();
+        for (int i = 0; i < calleeNameArr.length - 1 && typeId != -1; i++) {
+            int structFieldId = nameSearchStruct.findFieldInStructAndEmbededStructs(calleeNameArr[i], typeId);
+            if (structFieldId == -1) {
+                return -1;
             }
+            typeId = ((StructFieldEntity) singleCollect.getEntities().get(structFieldId)).getTypeId();
         }
-        if(previousFunctionId != -1 &&
-                !(((AbsFUNEntity) singleCollect.getEntities().get(previousFunctionId)).getReturns().isEmpty())
-                ) {
-            int firstReturnId = ((AbsFUNEntity) singleCollect.getEntities().get(previousFunctionId)).getReturns().get(0);
-            int firstReturnTypeId = ((AbsVAREntity) singleCollect.getEntities().get(firstReturnId)).getTypeId();
-            if(firstReturnTypeId != -1) {
-                methodId = searchMethodInType(calleeMethodName, firstReturnTypeId);
-            }
+        int methodId = searchMethodInType(calleeNameArr[calleeNameArr.length - 1], typeId);
+        if(methodId != -1 && singleCollect.isKind(methodId, EntityKind.FUNCTION)) {
+            return methodId;
         }
-        return methodId;
+        return -1;
     }
 
 
@@ -369,18 +323,6 @@ public class FuncDepVisitor {
     }
 
 
-    /**
-     * whether the string is added or changed by us or not
-     * @param typeName
-     * @return
-     */
-    private boolean isLabeledBefore(String typeName) {
-        if (typeName.startsWith(GoConstantString.CUSTOME_TYPE)) {
-            return true;
-        }
-        return false;
-    }
-
     /**
      * priextractor.goextractor.searcher method in a Type (structType, AliasType, InterfaceType)
      * @param methodName
@@ -392,13 +334,13 @@ public class FuncDepVisitor {
         if (typeId == -1) {
             return -1;
         }
-        if(singleCollect.getEntities().get(typeId) instanceof StructEntity) {
+        if(singleCollect.isKind(typeId, EntityKind.STRUCT)) {
             methodId = nameSearchStruct.findMethodInStructAndEmbededStructs(methodName, typeId);
         }
-        else if (singleCollect.getEntities().get(typeId) instanceof AliasTypeEntity) {
+        else if (singleCollect.isKind(typeId, EntityKind.ALIAS_TYPE)) {
             methodId = nameSearchAliasType.findMethodInAliasType(methodName, typeId);
         }
-        else if(singleCollect.getEntities().get(typeId) instanceof InterfaceEntity) {
+        else if(singleCollect.isKind(typeId, EntityKind.INTERFACE)) {
             methodId = nameSearchInterface.findMethodInInfAndEmbededInfs(methodName, typeId);
         }
         return methodId;
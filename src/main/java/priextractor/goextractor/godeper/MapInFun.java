@@ -4,64 +4,83 @@ import entitybuilder.gobuilder.GoConstantString;
 import uerr.*;
 import entitybuilder.gobuilder.goentity.MethodEntity;
 import util.Configure;
+import util.ParallelUtil;
 import util.Tuple;
 import uerr.SingleCollect;
 
+import java.util.List;
+
 public class MapInFun {
 
     SingleCollect singleCollect = SingleCollect.getSingleCollectInstance();
+    //the number of functions taken by a thread at a time
+    private static final int FUNCTION_BATCH = 64;
+
     /**
      * to refine localNames,
      * if localVar(var, shortvar, const), parameter, return, global var, function, then find id, and role
      *
+     * Each function writes only its own maps, and reads the entities and SymbolTable which are not changed here,
+     * so the functions are resolved by configure.getThreadNum() threads, each one taking a batch of functions at a time.
      */
     public void buildNameSearchTable() {
-        for(AbsEntity functionEntity : singleCollect.getEntities()) {
-            if(functionEntity instanceof AbsFUNEntity) {
-                int functionId = functionEntity.getId();
-                for(LocalName localName : ((AbsFUNEntity) singleCollect.getEntities().get(functionId)).getLocalNames()) {
-                    int parameterId = getIdIfParameter(localName.getName(), functionId);
-                    if(parameterId != -1) {//modify role, add 3 maps
-                        processAsPara(localName, parameterId, functionId);
-                        continue;
-                    }
+        final List<AbsEntity> functionEntities = singleCollect.getEntitiesOfKind(EntityKind.FUNCTION);
+        singleCollect.internNames();
+        ParallelUtil.forEachIndex(functionEntities.size(), Configure.getConfigureInstance().getThreadNum(), FUNCTION_BATCH,
+                new ParallelUtil.IndexHandler() {
+            @Override
+            public void handle(int index) {
+                buildNameSearchTable(functionEntities.get(index).getId());
+            }
+        });
+    }
 
-                    int returnId = getIdIfReturn(localName.getName(), functionId);
-                    if (returnId != -1) {//modify role, add 3 amps
-                        processAsRet(localName, returnId, functionId);
-                        continue;
-                    }
+    /**
+     * resolve the localNames of functionId into its name2Id, name2Role and name2Usage maps
+     * @param functionId
+     */
+    private void buildNameSearchTable(int functionId) {
+        for(LocalName localName : ((AbsFUNEntity) singleCollect.getEntities().get(functionId)).getLocalNames()) {
+            int parameterId = getIdIfParameter(localName.getName(), functionId);
+            if(parameterId != -1) {//modify role, add 3 maps
+                processAsPara(localName, parameterId, functionId);
+                continue;
+            }
 
-                    int receiverVarId = getIdIfReceiver(localName.getName(), functionId);
-                    if(receiverVarId != -1) {
-                        processAsReceiver(localName, receiverVarId, functionId);
-                    }
+            int returnId = getIdIfReturn(localName.getName(), functionId);
+            if (returnId != -1) {//modify role, add 3 amps
+                processAsRet(localName, returnId, functionId);
+                continue;
+            }
 
-                    int packageId = getIdIfPackage(localName.getName(), functionId);
-                    if(packageId != -1) { //modify role, add  2 maps without usage
-                        processAsPkg(localName, packageId, functionId);
-                        continue;
-                    }
+            int receiverVarId = getIdIfReceiver(localName.getName(), functionId);
+            if(receiverVarId != -1) {
+                processAsReceiver(localName, receiverVarId, functionId);
+            }
 
-                    int usedfuncId = getIdIfFunction(localName.getName(), functionId);
-                    if(usedfuncId != -1) {   //modify role, add 2 map without usages
-                        processAsFun(localName, usedfuncId, functionId);
-                        continue;
+            int packageId = getIdIfPackage(localName.getName(), functionId);
+            if(packageId != -1) { //modify role, add  2 maps without usage
+                processAsPkg(localName, packageId, functionId);
+                continue;
+            }
 
-                    }
+            int usedfuncId = getIdIfFunction(localName.getName(), functionId);
+            if(usedfuncId != -1) {   //modify role, add 2 map without usages
+                processAsFun(localName, usedfuncId, functionId);
+                continue;
 
-                    int localVarId = getIdIfLocalVar(localName, functionId);
-                    if(localVarId != -1) {//modify role, add 3 map without usages
-                        processAsLocalVar(localName, localVarId, functionId);
-                        continue;
-                    }
+            }
 
-                    int globalVarId = getIdIfGlobalVar(localName.getName(), functionId);
-                    if(globalVarId != -1) {//modify role, add 3 map without usages
-                        processAsGlobalVar(localName, globalVarId, functionId);
-                        continue;
-                    }
-                }
+            int localVarId = getIdIfLocalVar(localName, functionId);
+            if(localVarId != -1) {//modify role, add 3 map without usages
+                processAsLocalVar(localName, localVarId, functionId);
+                continue;
+            }
+
+            int globalVarId = getIdIfGlobalVar(localName.getName(), functionId);
+            if(globalVarId != -1) {//modify role, add 3 map without usages
+                processAsGlobalVar(localName, globalVarId, functionId);
+                continue;
             }
         }
     }
@@ -187,10 +206,11 @@ public class MapInFun {
                 || !(singleCollect.getEntities().get(functionId) instanceof AbsFUNEntity)) {
             return -1;
         }
+        int nameId = SymbolTable.getSymbolTableInstance().lookup(name);
         AbsFUNEntity functionEntity = (AbsFUNEntity) singleCollect.getEntities().get(functionId);
         for (int parameterId : functionEntity.getParameters()) {
             AbsVAREntity varEntity = (AbsVAREntity) singleCollect.getEntities().get(parameterId);
-            if(varEntity.getName().equals(name)) {
+            if(varEntity.getNameId() == nameId) {
                 return parameterId;
             }
         }
@@ -208,10 +228,11 @@ public class MapInFun {
                 || !(singleCollect.getEntities().get(functionId) instanceof AbsFUNEntity)) {
             return -1;
         }
+        int nameId = SymbolTable.getSymbolTableInstance().lookup(name);
         AbsFUNEntity functionEntity = (AbsFUNEntity) singleCollect.getEntities().get(functionId);
         for (int returnId : functionEntity.getReturns()) {
             AbsVAREntity varEntity = (AbsVAREntity) singleCollect.getEntities().get(returnId);
-            if(varEntity.getName().equals(name)) {
+            if(varEntity.getNameId() == nameId) {
                 return returnId;
             }
         }
@@ -229,10 +250,11 @@ public class MapInFun {
                 || !(singleCollect.getEntities().get(functionId) instanceof MethodEntity)) {
             return -1;
         }
+        int nameId = SymbolTable.getSymbolTableInstance().lookup(name);
         MethodEntity methodEntity = (MethodEntity) singleCollect.getEntities().get(functionId);
         int receiverVarId = methodEntity.getReceiverVarId();
         AbsVAREntity varEntity = (AbsVAREntity) singleCollect.getEntities().get(receiverVarId);
-        if(varEntity.getName().equals(name)) {
+        if(varEntity.getNameId() == nameId) {
             return receiverVarId;
         }
         return -1;
@@ -250,6 +272,7 @@ public class MapInFun {
                 || !(singleCollect.getEntities().get(functionId) instanceof AbsFUNEntity)) {
             return -1;
         }
+        int nameId = SymbolTable.getSymbolTableInstance().lookup(name);
         AbsFUNEntity functionEntity = (AbsFUNEntity) singleCollect.getEntities().get(functionId);
         int fileId = functionEntity.getParentId();
         if(fileId == -1 || !(singleCollect.getEntities().get(fileId) instanceof AbsFILEntity)) {
@@ -259,9 +282,8 @@ public class MapInFun {
         for (Tuple<String, Integer> oneImport : fileEntity.getRelations()) {
             if (oneImport.x.equals(Configure.RELATION_IMPORT)) {
                 int thisImportedPackageId = oneImport.y;
-                String thisImportedPackageName = singleCollect.getEntities().get(thisImportedPackageId).getName();
                 String thisImportedAliasName = ((AbsFILEntity) singleCollect.getEntities().get(fileId)).getImportsAlias().get(thisImportedPackageId);
-                if (name.equals(thisImportedPackageName)
+                if (singleCollect.getEntities().get(thisImportedPackageId).getNameId() == nameId
                         || name.equals(thisImportedAliasName)) {
                     return thisImportedPackageId;
                 }
@@ -281,6 +303,7 @@ public class MapInFun {
                 || !(singleCollect.getEntities().get(functionId) instanceof AbsFUNEntity)) {
             return -1;
         }
+        int nameId = SymbolTable.getSymbolTableInstance().lookup(name);
         AbsFUNEntity functionEntity = (AbsFUNEntity) singleCollect.getEntities().get(functionId);
         int fileId = functionEntity.getParentId();
         if(fileId == -1 || !(singleCollect.getEntities().get(fileId) instanceof AbsFILEntity)) {
@@ -297,7 +320,7 @@ public class MapInFun {
                     AbsEntity usedFunctionEntity = singleCollect.getEntities().get(usedFunctionId);
                     if (usedFunctionEntity instanceof AbsFUNEntity
                             && !(usedFunctionEntity instanceof MethodEntity)) {
-                        if(usedFunctionEntity.getName().equals(name)) {
+                        if(usedFunctionEntity.getNameId() == nameId) {
                             return usedFunctionEntity.getId();
                         }
                     }
@@ -319,6 +342,7 @@ public class MapInFun {
                 || !(singleCollect.getEntities().get(functionId) instanceof AbsFUNEntity)) {
             return -1;
         }
+        int nameId = SymbolTable.getSymbolTableInstance().lookup(name);
         AbsFUNEntity functionEntity = (AbsFUNEntity) singleCollect.getEntities().get(functionId);
         int fileId = functionEntity.getParentId();
         if(fileId == -1 || !(singleCollect.getEntities().get(fileId) instanceof AbsFILEntity)) {
@@ -333,7 +357,7 @@ public class MapInFun {
             if (singleCollect.getEntities().get(id) instanceof AbsFILEntity) {
                 for (int varId : singleCollect.getEntities().get(id).getChildrenIds()) {
                     if(singleCollect.getEntities().get(varId) instanceof AbsVAREntity) {
-                        if(singleCollect.getEntities().get(varId).getName().equals(name)) {
+                        if(singleCollect.getEntities().get(varId).getNameId() == nameId) {
                             return varId;
                         }
                     }
@@ -358,7 +382,7 @@ public class MapInFun {
         //System.out.println("function:" + singleCollect.getEntities().get(functionId).getName());
         //System.out.println("find: " + localName);
 
-        String currentName = localName.getName();
+        int currentNameId = localName.getNameId();
         int currentBlockId = localName.getLocalBlockId();
         int currentBlockDepth = ((AbsFUNEntity) singleCollect.getEntities().get(functionId)).getLocalBlocks().get(currentBlockId).getDepth();
 
@@ -366,16 +390,16 @@ public class MapInFun {
         int resBlockId = -1;
         for (int varId : singleCollect.getEntities().get(functionId).getChildrenIds()) {
             if (singleCollect.getEntities().get(varId) instanceof AbsVAREntity) {
-                String candidateName = singleCollect.getEntities().get(varId).getName();
+                int candidateNameId = singleCollect.getEntities().get(varId).getNameId();
                 int candidateBlockId = ((AbsVAREntity) singleCollect.getEntities().get(varId)).getLocalBlockId();
                 int candidateBlockDepth =  ((AbsFUNEntity) singleCollect.getEntities().get(functionId)).getLocalBlocks().get(candidateBlockId).getDepth();
                 // case 1
-                if(currentName.equals(candidateName) && currentBlockId == candidateBlockId) {
+                if(currentNameId == candidateNameId && currentBlockId == candidateBlockId) {
                     //System.out.println("found: " + singleCollect.getEntities().get(varId));
                     return varId;
                 }
                 //case 2
-                if(currentName.equals(candidateName) && candidateBlockId < currentBlockId && candidateBlockDepth < currentBlockDepth) {
+                if(currentNameId == candidateNameId && candidateBlockId < currentBlockId && candidateBlockDepth < currentBlockDepth) {
                     if(resBlockId == -1 || resBlockId < candidateBlockId) {
                         resBlockId = candidateBlockId;
                         resVarId = varId;
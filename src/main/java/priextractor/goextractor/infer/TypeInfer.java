@@ -7,12 +7,35 @@ import priextractor.goextractor.search.NameSearchPackage;
 import uerr.SingleCollect;
 import util.Configure;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
+
+/**
+ * Many variables share a few type names, so the searches are memoized:
+ * a type string -> its key type, and a key type -> its typeId in the scope it is searched in,
+ * i.e., the package for a name without package ("T"), and the file for a name with package ("pkg.T"),
+ * since the package name is resolved by the imports of the file.
+ */
 public class TypeInfer {
+    private static final Set<String> BUILTIN_TYPES = new HashSet<String>(Arrays.asList(GoConstantString.BUILTIN_TYPE));
+
     SingleCollect singleCollect = SingleCollect.getSingleCollectInstance();
     NameSearchPackage nameSearchPackage = new NameSearchPackage();
     NameSearchFile nameSearchFile = new NameSearchFile();
 
+    //type string -> key type
+    private Map<String, String> keyTypes = new HashMap<String, String>();
+    //packageId -> (type name without package -> typeId)
+    private Map<Integer, Map<String, Integer>> packageTypeIds = new HashMap<Integer, Map<String, Integer>>();
+    //fileId -> (type name with package -> typeId)
+    private Map<Integer, Map<String, Integer>> fileTypeIds = new HashMap<Integer, Map<String, Integer>>();
+    private long hitNum = 0;
+    private long missNum = 0;
+
     /**
      * for each varEntity, priextractor.goextractor.infer its typeId
      */
@@ -23,12 +46,16 @@ public class TypeInfer {
                     continue;
                 }
                 String type = ((AbsVAREntity) entity).getType();
-                String keyType = getKeyType(type);
+                String keyType = keyTypes.get(type);
+                if(keyType == null) {
+                    keyType = getKeyType(type);
+                    keyTypes.put(type, keyType);
+                }
                 int typeId = -1;
                 int fileId = findFileId(entity);
 
                 if(!isBuiltInType(keyType)) {
-                    typeId = searchTypeId(keyType, fileId);
+                    typeId = searchTypeIdInMemo(keyType, fileId);
                 }
                 if(((AbsVAREntity) singleCollect.getEntities().get(entity.getId())).getTypeId() == -1) {
                     ((AbsVAREntity) singleCollect.getEntities().get(entity.getId())).setTypeId(typeId);
@@ -110,12 +137,51 @@ public class TypeInfer {
      * @return
      */
     private Boolean isBuiltInType(String typeName) {
-        for (int i = 0; i < GoConstantString.BUILTIN_TYPE.length; i++) {
-            if (GoConstantString.BUILTIN_TYPE[i].equals(typeName)) {
-                return true;
+        return BUILTIN_TYPES.contains(typeName);
+    }
+
+    /**
+     * searchTypeId() with the memo of the package of fileId, or of fileId if typeName has a package
+     * @param typeName
+     * @param fileId
+     * @return
+     */
+    private int searchTypeIdInMemo(String typeName, int fileId) {
+        int scopeId = fileId;
+        Map<Integer, Map<String, Integer>> scopeTypeIds = fileTypeIds;
+        if(typeName.indexOf(Configure.DOT) == -1) {
+            scopeId = -1;
+            if(fileId != -1 && singleCollect.getEntities().get(fileId) instanceof AbsFILEntity) {
+                scopeId = singleCollect.getEntities().get(fileId).getParentId();
             }
+            scopeTypeIds = packageTypeIds;
+        }
+        Map<String, Integer> typeIds = scopeTypeIds.get(scopeId);
+        if(typeIds == null) {
+            typeIds = new HashMap<String, Integer>();
+            scopeTypeIds.put(scopeId, typeIds);
+        }
+        Integer typeId = typeIds.get(typeName);
+        if(typeId != null) {
+            hitNum++;
+            return typeId;
         }
-        return false;
+        missNum++;
+        typeId = searchTypeId(typeName, fileId);
+        typeIds.put(typeName, typeId);
+        return typeId;
+    }
+
+    public String typeStatis() {
+        long queries = hitNum + missNum;
+        String str = "";
+        str += ("Type queries:      " + queries + "\n");
+        str += ("Type memo hits:    " + hitNum);
+        if(queries != 0) {
+            str += (" (" + (hitNum * 100 / queries) + "%)");
+        }
+        str += "\n";
+        return str;
     }
 
     /** now we can priextractor.goextractor.infer X or X.X .  but not X.X.X,,,,,,
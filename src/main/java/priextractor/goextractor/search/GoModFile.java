@@ -0,0 +1,169 @@
+package priextractor.goextractor.search;
+
+import util.Configure;
+import util.Tuple;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the directives of a go.mod or go.work file, which are used to resolve the import paths:
+ * module path (go.mod), use dir (go.work) and replace path => local dir (both).
+ * The other directives, and the replacements by a module version instead of a local dir, are ignored.
+ */
+public class GoModFile {
+    public static final String GO_MOD = "go.mod";
+    public static final String GO_WORK = "go.work";
+
+    private static final String MODULE = "module";
+    private static final String USE = "use";
+    private static final String REPLACE = "replace";
+    private static final String ARROW = "=>";
+    private static final String COMMENT = "//";
+
+    //the dir of the file, relative to the input dir, e.g. "" or "a/b"
+    private String dir;
+    private String modulePath = null;
+    //the dirs of the modules used by go.work, relative to the input dir
+    private ArrayList<String> useDirs = new ArrayList<String>();
+    //(the replaced import path, the local dir relative to the input dir)
+    private ArrayList<Tuple<String, String>> replaces = new ArrayList<Tuple<String, String>>();
+
+    /**
+     * @param fileFullPath the go.mod or go.work file
+     * @param dir the dir of the file, relative to the input dir
+     */
+    public GoModFile(String fileFullPath, String dir) throws IOException {
+        this.dir = dir;
+        List<String> lines = Files.readAllLines(Paths.get(fileFullPath), StandardCharsets.UTF_8);
+        String block = null;
+        for (String line : lines) {
+            int commentIndex = line.indexOf(COMMENT);
+            if(commentIndex != -1) {
+                line = line.substring(0, commentIndex);
+            }
+            String[] tokens = line.trim().split("\\s+");
+            if(tokens[0].isEmpty()) {
+                continue;
+            }
+            //a block, e.g. replace ( ... )
+            if(block != null) {
+                if(tokens[0].equals(Configure.RIGHT_PARENTHESES)) {
+                    block = null;
+                }
+                else {
+                    processDirective(block, tokens, 0);
+                }
+            }
+            else if(tokens.length == 2 && tokens[1].equals(Configure.LEFT_PARENTHESES)) {
+                block = tokens[0];
+            }
+            else {
+                processDirective(tokens[0], tokens, 1);
+            }
+        }
+    }
+
+    /**
+     * @param verb
+     * @param tokens
+     * @param start the index of the first argument in tokens
+     */
+    private void processDirective(String verb, String[] tokens, int start) {
+        if(start >= tokens.length) {
+            return;
+        }
+        if(verb.equals(MODULE)) {
+            modulePath = unquote(tokens[start]);
+        }
+        else if(verb.equals(USE)) {
+            String useDir = joinDir(dir, unquote(tokens[start]));
+            if(useDir != null) {
+                useDirs.add(useDir);
+            }
+        }
+        else if(verb.equals(REPLACE)) {
+            //old [version] => new [version], the new one is a local dir if it starts with ./ or ../
+            for (int i = start; i < tokens.length - 1; i++) {
+                if(tokens[i].equals(ARROW)) {
+                    String newPath = unquote(tokens[i + 1]);
+                    if(newPath.startsWith("./") || newPath.startsWith("../")) {
+                        String replaceDir = joinDir(dir, newPath);
+                        if(replaceDir != null) {
+                            replaces.add(new Tuple<String, String>(unquote(tokens[start]), replaceDir));
+                        }
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private String unquote(String str) {
+        if(str.length() >= 2 && (str.startsWith("\"") || str.startsWith("`"))) {
+            return str.substring(1, str.length() - 1);
+        }
+        return str;
+    }
+
+    /**
+     * @param fileFullPath
+     * @return whether it is a go.mod or go.work file
+     */
+    public static boolean isModFile(String fileFullPath) {
+        Path fileName = Paths.get(fileFullPath).getFileName();
+        return fileName != null && (fileName.toString().equals(GO_MOD) || fileName.toString().equals(GO_WORK));
+    }
+
+    /**
+     * @param dir "" or "a/b"
+     * @param path a relative path, e.g. "./c" or "../c"
+     * @return the dir of path relative to the input dir, or null if it is out of the input dir
+     */
+    public static String joinDir(String dir, String path) {
+        ArrayList<String> segments = new ArrayList<String>();
+        for (String segment : (dir + "/" + path).split("/")) {
+            if(segment.isEmpty() || segment.equals(Configure.DOT)) {
+                continue;
+            }
+            if(segment.equals("..")) {
+                if(segments.isEmpty()) {
+                    return null;
+                }
+                segments.remove(segments.size() - 1);
+            }
+            else {
+                segments.add(segment);
+            }
+        }
+        String joined = Configure.NULL_STRING;
+        for (String segment : segments) {
+            joined += (joined.isEmpty() ? segment : "/" + segment);
+        }
+        return joined;
+    }
+
+    public String getDir() {
+        return dir;
+    }
+
+    /**
+     * @return the module path of go.mod, or null
+     */
+    public String getModulePath() {
+        return modulePath;
+    }
+
+    public ArrayList<String> getUseDirs() {
+        return useDirs;
+    }
+
+    public ArrayList<Tuple<String, String>> getReplaces() {
+        return replaces;
+    }
+}
@@ -0,0 +1,366 @@
+package priextractor.goextractor.search;
+
+import uerr.AbsEntity;
+import uerr.AbsFLDEntity;
+import uerr.EntityKind;
+import uerr.SingleCollect;
+import util.Configure;
+import util.StringUtil;
+import util.Tuple;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * a trie of golang import paths -> package ids, so an import is resolved by one walk of its path segments.
+ *
+ * A package is put into the trie under:
+ * 1) its import path under a vendor dir, e.g. a/vendor/x/y is x/y, which is only seen by the packages under a;
+ * 2) the import path given by the nearest go.mod above it, i.e., module path + its dir relative to the module,
+ *    and by the replace directives of go.mod and go.work which point to a local dir;
+ * 3) its full path, i.e., <include-dir> + its dir relative to <dir>, as the import path when there is no go.mod.
+ * An import is resolved in this order, so the copy in the nearest vendor dir seen by the importing file
+ * wins over the module with the same path, as the go command does when building with the vendor dir.
+ * The first package put into a trie node is kept at each level.
+ *
+ * When two go.mod declare the same module path, the one used by go.work is kept, otherwise the first one by dir.
+ */
+public class ImportPathIndex {
+    private static final String VENDOR = "vendor";
+    private static final String SLASH = "/";
+
+    private SingleCollect singleCollect = SingleCollect.getSingleCollectInstance();
+    private Configure configure = Configure.getConfigureInstance();
+
+    private Node root = new Node();
+    //packageId -> its dir relative to the input dir, e.g. "" or "a/b"
+    private HashMap<Integer, String> packageDirs = new HashMap<Integer, String>();
+
+    private int moduleNum = 0;
+    private int modulePackageNum = 0;
+    private int vendoredPackageNum = 0;
+    private int importNum = 0;
+    private int resolvedImportNum = 0;
+
+    private static class Node {
+        private HashMap<String, Node> children = null;
+        //by go.mod and go.work
+        private int modulePackageId = -1;
+        //the dir holding vendor -> package id
+        private HashMap<String, Integer> vendoredPackageIds = null;
+        //by <include-dir>
+        private int pathPackageId = -1;
+    }
+
+    /**
+     * put all packages into the trie, after all entities are built.
+     */
+    public void build() {
+        TreeMap<String, String> moduleDirs = new TreeMap<String, String>();
+        ArrayList<Tuple<String, String>> replaces = new ArrayList<Tuple<String, String>>();
+        readModFiles(moduleDirs, replaces);
+
+        String usagePath = configure.getUsageSrcPath();
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.FOLDER)) {
+            String fullPath = ((AbsFLDEntity) entity).getFullPath();
+            if(fullPath == null) {
+                continue;
+            }
+            int packageId = entity.getId();
+            Node pathNode = putPath(fullPath);
+            if(pathNode.pathPackageId == -1) {
+                pathNode.pathPackageId = packageId;
+            }
+
+            String dir = getRelativeDir(fullPath, usagePath);
+            if(dir == null) {
+                continue;
+            }
+            packageDirs.put(packageId, dir);
+
+            int vendorIndex = getVendorIndex(dir);
+            if(vendorIndex != -1) {
+                putVendoredPackage(dir, vendorIndex, packageId);
+                continue;
+            }
+            String moduleDir = findModuleDir(dir, moduleDirs);
+            if(moduleDir != null && moduleDirs.get(moduleDir) != null) {
+                putModulePackage(joinPath(moduleDirs.get(moduleDir), getSubDir(moduleDir, dir)), packageId);
+            }
+            for (Tuple<String, String> replace : replaces) {
+                String subDir = getSubDir(replace.y, dir);
+                if(subDir != null) {
+                    putModulePackage(joinPath(replace.x, subDir), packageId);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param importPath
+     * @param fileId the importing file
+     * @return the id of the imported package, or -1 if it is not in the source code
+     */
+    public int resolve(String importPath, int fileId) {
+        importNum++;
+        Node node = findNode(importPath);
+        int packageId = -1;
+        if(node != null) {
+            if(node.vendoredPackageIds != null) {
+                packageId = findVendoredPackage(node, fileId);
+            }
+            if(packageId == -1) {
+                packageId = node.modulePackageId;
+            }
+            if(packageId == -1) {
+                packageId = node.pathPackageId;
+            }
+        }
+        if(packageId != -1) {
+            resolvedImportNum++;
+        }
+        return packageId;
+    }
+
+    public String indexStatis() {
+        String str = "";
+        str += ("Go modules:        " + moduleNum + " (" + modulePackageNum + " packages, "
+                + vendoredPackageNum + " vendored)\n");
+        str += ("Imports resolved:  " + resolvedImportNum + " of " + importNum + "\n");
+        return str;
+    }
+
+    /**
+     * read all go.mod and go.work found by the discovery walk, except the ones under a vendor dir.
+     * @param moduleDirs the dir of each go.mod -> its module path, or null if the module path is taken by another go.mod
+     * @param replaces (the replaced import path, the local dir)
+     */
+    private void readModFiles(TreeMap<String, String> moduleDirs, ArrayList<Tuple<String, String>> replaces) {
+        ArrayList<String> modFiles = new ArrayList<String>(singleCollect.getModFiles());
+        Collections.sort(modFiles);
+
+        Path inputPath = Paths.get(configure.getInputSrcPath()).toAbsolutePath();
+        ArrayList<GoModFile> goMods = new ArrayList<GoModFile>();
+        HashSet<String> useDirs = new HashSet<String>();
+        for (String modFile : modFiles) {
+            String dir = StringUtil.unifyPath(inputPath.relativize(Paths.get(modFile).getParent()).toString());
+            if(getVendorIndex(dir) != -1) {
+                continue;
+            }
+            GoModFile goModFile;
+            try {
+                goModFile = new GoModFile(modFile, dir);
+            } catch (IOException e) {
+                System.out.println("Cannot read: " + modFile);
+                continue;
+            }
+            if(modFile.endsWith(GoModFile.GO_WORK)) {
+                useDirs.addAll(goModFile.getUseDirs());
+            }
+            else if(goModFile.getModulePath() != null) {
+                goMods.add(goModFile);
+            }
+            replaces.addAll(goModFile.getReplaces());
+        }
+
+        //module path -> the dir of the go.mod kept for it
+        HashMap<String, String> modulePaths = new HashMap<String, String>();
+        for (GoModFile goMod : goMods) {
+            String modulePath = goMod.getModulePath();
+            String keptDir = modulePaths.get(modulePath);
+            if(keptDir == null || (!useDirs.contains(keptDir) && useDirs.contains(goMod.getDir()))) {
+                modulePaths.put(modulePath, goMod.getDir());
+            }
+        }
+        for (GoModFile goMod : goMods) {
+            boolean isKept = modulePaths.get(goMod.getModulePath()).equals(goMod.getDir());
+            moduleDirs.put(goMod.getDir(), isKept ? goMod.getModulePath() : null);
+        }
+        moduleNum = modulePaths.size();
+    }
+
+    /**
+     * @param fullPath
+     * @param usagePath
+     * @return the dir of fullPath relative to the input dir, or null if fullPath is not under usagePath
+     */
+    private String getRelativeDir(String fullPath, String usagePath) {
+        if(!fullPath.startsWith(usagePath)) {
+            return null;
+        }
+        String dir = fullPath.substring(usagePath.length());
+        if(dir.isEmpty()) {
+            return dir;
+        }
+        if(!dir.startsWith(SLASH)) {
+            return null;
+        }
+        return dir.substring(1);
+    }
+
+    /**
+     * @param dir
+     * @return the index of the last vendor segment in dir, or -1
+     */
+    private int getVendorIndex(String dir) {
+        int index = dir.length();
+        while ((index = dir.lastIndexOf(VENDOR, index - 1)) != -1) {
+            boolean isSegmentStart = index == 0 || dir.charAt(index - 1) == '/';
+            int end = index + VENDOR.length();
+            boolean isSegmentEnd = end == dir.length() || dir.charAt(end) == '/';
+            if(isSegmentStart && isSegmentEnd) {
+                return index;
+            }
+            if(index == 0) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param dir
+     * @param moduleDirs
+     * @return the nearest dir of go.mod which holds dir, or null
+     */
+    private String findModuleDir(String dir, Map<String, String> moduleDirs) {
+        for (String moduleDir = dir; moduleDir != null; moduleDir = getParentDir(moduleDir)) {
+            if(moduleDirs.containsKey(moduleDir)) {
+                return moduleDir;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param dir "a/b", "a" or ""
+     * @return "a", "" or null
+     */
+    private String getParentDir(String dir) {
+        if(dir.isEmpty()) {
+            return null;
+        }
+        int index = dir.lastIndexOf('/');
+        return index == -1 ? Configure.NULL_STRING : dir.substring(0, index);
+    }
+
+    /**
+     * @param parentDir "a"
+     * @param dir "a/b/c"
+     * @return "b/c", "" if they are the same, or null if dir is not under parentDir
+     */
+    private String getSubDir(String parentDir, String dir) {
+        if(parentDir.isEmpty()) {
+            return dir;
+        }
+        if(dir.equals(parentDir)) {
+            return Configure.NULL_STRING;
+        }
+        if(dir.startsWith(parentDir) && dir.charAt(parentDir.length()) == '/') {
+            return dir.substring(parentDir.length() + 1);
+        }
+        return null;
+    }
+
+    private String joinPath(String path, String subDir) {
+        return subDir.isEmpty() ? path : path + SLASH + subDir;
+    }
+
+    private void putModulePackage(String importPath, int packageId) {
+        Node node = putPath(importPath);
+        if(node.modulePackageId == -1) {
+            node.modulePackageId = packageId;
+            modulePackageNum++;
+        }
+    }
+
+    /**
+     * @param dir "a/vendor/x/y"
+     * @param vendorIndex the index of the vendor segment in dir
+     * @param packageId
+     */
+    private void putVendoredPackage(String dir, int vendorIndex, int packageId) {
+        int pathStart = vendorIndex + VENDOR.length() + 1;
+        if(pathStart >= dir.length()) {
+            return;
+        }
+        String vendorParentDir = vendorIndex == 0 ? Configure.NULL_STRING : dir.substring(0, vendorIndex - 1);
+        Node node = putPath(dir.substring(pathStart));
+        if(node.vendoredPackageIds == null) {
+            node.vendoredPackageIds = new HashMap<String, Integer>();
+        }
+        if(!node.vendoredPackageIds.containsKey(vendorParentDir)) {
+            node.vendoredPackageIds.put(vendorParentDir, packageId);
+            vendoredPackageNum++;
+        }
+    }
+
+    /**
+     * @param node
+     * @param fileId
+     * @return the package in the nearest vendor dir seen by the file, or -1
+     */
+    private int findVendoredPackage(Node node, int fileId) {
+        if(fileId == -1) {
+            return -1;
+        }
+        String dir = packageDirs.get(singleCollect.getEntities().get(fileId).getParentId());
+        for ( ; dir != null; dir = getParentDir(dir)) {
+            Integer packageId = node.vendoredPackageIds.get(dir);
+            if(packageId != null) {
+                return packageId;
+            }
+        }
+        return -1;
+    }
+
+    private Node putPath(String path) {
+        Node node = root;
+        int start = 0;
+        while (start <= path.length()) {
+            int end = path.indexOf('/', start);
+            if(end == -1) {
+                end = path.length();
+            }
+            String segment = path.substring(start, end);
+            if(node.children == null) {
+                node.children = new HashMap<String, Node>();
+            }
+            Node child = node.children.get(segment);
+            if(child == null) {
+                child = new Node();
+                node.children.put(segment, child);
+            }
+            node = child;
+            start = end + 1;
+        }
+        return node;
+    }
+
+    private Node findNode(String path) {
+        Node node = root;
+        int start = 0;
+        while (start <= path.length()) {
+            if(node.children == null) {
+                return null;
+            }
+            int end = path.indexOf('/', start);
+            if(end == -1) {
+                end = path.length();
+            }
+            node = node.children.get(path.substring(start, end));
+            if(node == null) {
+                return null;
+            }
+            start = end + 1;
+        }
+        return node;
+    }
+}
@@ -4,6 +4,7 @@ import entitybuilder.gobuilder.goentity.AliasTypeEntity;
 import util.Configure;
 import util.Tuple;
 import uerr.SingleCollect;
+import uerr.SymbolTable;
 
 
 public class NameSearchAliasType {
@@ -23,10 +24,11 @@ public class NameSearchAliasType {
         if (!(singleCollect.getEntities().get(AliasTypeId) instanceof AliasTypeEntity)) {
             return -1;
         }
+        int nameId = SymbolTable.getSymbolTableInstance().lookup(methodName);
         for(Tuple<String, Integer> relation : singleCollect.getEntities().get(AliasTypeId).getRelations()) {
             if (relation.x.equals(Configure.RELATION_RECEIVED_BY)) {
                 int methodId = relation.y;
-                if (singleCollect.getEntities().get(methodId).getName().equals(methodName)) {
+                if (singleCollect.getEntities().get(methodId).getNameId() == nameId) {
                     return methodId;
                 }
             }
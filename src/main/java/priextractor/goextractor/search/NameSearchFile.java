@@ -14,6 +14,7 @@ import java.util.ArrayList;
 
 public class NameSearchFile {
     SingleCollect singleCollect = SingleCollect.getSingleCollectInstance();
+    NameSearchTable nameSearchTable = NameSearchTable.getNameSearchTableInstance();
 
     /**
      * find the varId in a file
@@ -27,13 +28,7 @@ public class NameSearchFile {
                 ) {
             return -1;
         }
-        for(int entityId: singleCollect.getEntities().get(fileId).getChildrenIds()) {
-            if (singleCollect.getEntities().get(entityId) instanceof AbsVAREntity
-                    && singleCollect.getEntities().get(entityId).getName().equals(varName)) {
-                return entityId;
-            }
-        }
-        return -1;
+        return nameSearchTable.find(varName, fileId, EntityKind.VARIABLE);
     }
 
     /**
@@ -48,13 +43,7 @@ public class NameSearchFile {
                 ) {
             return -1;
         }
-        for(int entityId: singleCollect.getEntities().get(fileId).getChildrenIds()) {
-            if (singleCollect.getEntities().get(entityId) instanceof StructEntity
-                    && singleCollect.getEntities().get(entityId).getName().equals(typeName)) {
-                return entityId;
-            }
-        }
-        return -1;
+        return nameSearchTable.find(typeName, fileId, EntityKind.STRUCT);
     }
 
 
@@ -70,13 +59,7 @@ public class NameSearchFile {
                 ) {
             return -1;
         }
-        for(int entityId: singleCollect.getEntities().get(fileId).getChildrenIds()) {
-            if (singleCollect.getEntities().get(entityId) instanceof AliasTypeEntity
-                    && singleCollect.getEntities().get(entityId).getName().equals(typeName)) {
-                return entityId;
-            }
-        }
-        return -1;
+        return nameSearchTable.find(typeName, fileId, EntityKind.ALIAS_TYPE);
     }
 
     /**
@@ -91,13 +74,7 @@ public class NameSearchFile {
                 ) {
             return -1;
         }
-        for(int entityId: singleCollect.getEntities().get(fileId).getChildrenIds()) {
-            if (singleCollect.getEntities().get(entityId) instanceof InterfaceEntity
-                    && singleCollect.getEntities().get(entityId).getName().equals(typeName)) {
-                return entityId;
-            }
-        }
-        return -1;
+        return nameSearchTable.find(typeName, fileId, EntityKind.INTERFACE);
     }
 
     /**
@@ -112,13 +89,7 @@ public class NameSearchFile {
                 ) {
             return -1;
         }
-        for(int entityId: singleCollect.getEntities().get(fileId).getChildrenIds()) {
-            if (singleCollect.getEntities().get(entityId) instanceof MethodEntity
-                    && singleCollect.getEntities().get(entityId).getName().equals(methodName)) {
-                return entityId;
-            }
-        }
-        return -1;
+        return nameSearchTable.find(methodName, fileId, EntityKind.METHOD);
     }
 
     /**
@@ -133,14 +104,7 @@ public class NameSearchFile {
                 ) {
             return -1;
         }
-        for(int entityId: singleCollect.getEntities().get(fileId).getChildrenIds()) {
-            if (!(singleCollect.getEntities().get(entityId) instanceof MethodEntity)
-                    && singleCollect.getEntities().get(entityId) instanceof AbsFUNEntity
-                    && singleCollect.getEntities().get(entityId).getName().equals(functionName)) {
-                return entityId;
-            }
-        }
-        return -1;
+        return nameSearchTable.find(functionName, fileId, EntityKind.FUNCTION);
     }
 
 
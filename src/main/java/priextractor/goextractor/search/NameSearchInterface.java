@@ -7,6 +7,7 @@ import entitybuilder.gobuilder.GoConstantString;
 import util.Configure;
 import util.Tuple;
 import uerr.SingleCollect;
+import uerr.SymbolTable;
 
 import java.util.ArrayList;
 
@@ -65,11 +66,12 @@ public class NameSearchInterface {
                 ) {
             return -1;
         }
+        int nameId = SymbolTable.getSymbolTableInstance().lookup(methodName);
         for(int childId : singleCollect.getEntities().get(interfaceId).getChildrenIds()) {
             if(singleCollect.getEntities().get(childId) instanceof InterfaceFieldEntity) {
                 InterfaceFieldEntity interfaceFieldEntity = (InterfaceFieldEntity) singleCollect.getEntities().get(childId);
                 if(interfaceFieldEntity.getType().equals(GoConstantString.INTERFACE_FIELD_IS_METHOD)
-                        && interfaceFieldEntity.getName().equals(methodName)) {
+                        && interfaceFieldEntity.getNameId() == nameId) {
                     return interfaceFieldEntity.getId();
                 }
             }
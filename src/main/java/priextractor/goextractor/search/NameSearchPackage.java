@@ -1,12 +1,13 @@
 package priextractor.goextractor.search;
 
 import uerr.AbsFLDEntity;
+import uerr.EntityKind;
 import uerr.SingleCollect;
 
 public class NameSearchPackage {
 
     SingleCollect singleCollect = SingleCollect.getSingleCollectInstance();
-    NameSearchFile nameSearchFile = new NameSearchFile();
+    NameSearchTable nameSearchTable = NameSearchTable.getNameSearchTableInstance();
 
     /**
      * find the varId in a package
@@ -19,13 +20,7 @@ public class NameSearchPackage {
                 || !(singleCollect.getEntities().get(packageId) instanceof AbsFLDEntity) ) {
             return -1;
         }
-        for (int fileId : singleCollect.getEntities().get(packageId).getChildrenIds()) {
-            int varId = nameSearchFile.findVarInFile(varName, fileId);
-            if (varId != -1) {
-                return varId;
-            }
-        }
-        return -1;
+        return nameSearchTable.find(varName, packageId, EntityKind.VARIABLE);
     }
 
     /**
@@ -39,13 +34,7 @@ public class NameSearchPackage {
                 || !(singleCollect.getEntities().get(packageId) instanceof AbsFLDEntity) ) {
             return -1;
         }
-        for (int fileId : singleCollect.getEntities().get(packageId).getChildrenIds()) {
-            int structId = nameSearchFile.findStructTypeInFile(typeName, fileId);
-            if (structId != -1) {
-                return structId;
-            }
-        }
-        return -1;
+        return nameSearchTable.find(typeName, packageId, EntityKind.STRUCT);
     }
 
 
@@ -60,13 +49,7 @@ public class NameSearchPackage {
                 || !(singleCollect.getEntities().get(packageId) instanceof AbsFLDEntity) ) {
             return -1;
         }
-        for (int fileId : singleCollect.getEntities().get(packageId).getChildrenIds()) {
-            int structId = nameSearchFile.findAliasTypeInFile(typeName, fileId);
-            if (structId != -1) {
-                return structId;
-            }
-        }
-        return -1;
+        return nameSearchTable.find(typeName, packageId, EntityKind.ALIAS_TYPE);
     }
 
 
@@ -81,13 +64,7 @@ public class NameSearchPackage {
                 || !(singleCollect.getEntities().get(packageId) instanceof AbsFLDEntity) ) {
             return -1;
         }
-        for (int fileId : singleCollect.getEntities().get(packageId).getChildrenIds()) {
-            int interfaceId = nameSearchFile.findInterfaceTypeInFile(typeName, fileId);
-            if (interfaceId != -1) {
-                return interfaceId;
-            }
-        }
-        return -1;
+        return nameSearchTable.find(typeName, packageId, EntityKind.INTERFACE);
     }
 
 
@@ -98,12 +75,6 @@ public class NameSearchPackage {
                 || !(singleCollect.getEntities().get(packageId) instanceof AbsFLDEntity) ) {
             return -1;
         }
-        for (int fileId : singleCollect.getEntities().get(packageId).getChildrenIds()) {
-            int functionId = nameSearchFile.findFunctionInFile(functionName, fileId);
-            if (functionId != -1) {
-                return functionId;
-            }
-        }
-        return -1;
+        return nameSearchTable.find(functionName, packageId, EntityKind.FUNCTION);
     }
 }
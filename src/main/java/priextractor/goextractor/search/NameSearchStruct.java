@@ -5,6 +5,7 @@ import entitybuilder.gobuilder.goentity.StructFieldEntity;
 import util.Configure;
 import util.Tuple;
 import uerr.SingleCollect;
+import uerr.SymbolTable;
 
 import java.util.ArrayList;
 
@@ -123,10 +124,11 @@ public class NameSearchStruct {
                 ) {
             return -1;
         }
+        int nameId = SymbolTable.getSymbolTableInstance().lookup(methodName);
         for(Tuple<String, Integer> relation : singleCollect.getEntities().get(structId).getRelations()) {
             if (relation.x.equals(Configure.RELATION_RECEIVED_BY)) {
                 int methodId = relation.y;
-                if (singleCollect.getEntities().get(methodId).getName().equals(methodName)) {
+                if (singleCollect.getEntities().get(methodId).getNameId() == nameId) {
                     return methodId;
                 }
             }
@@ -0,0 +1,170 @@
+package priextractor.goextractor.search;
+
+import client.AnalysisSession;
+import uerr.AbsEntity;
+import uerr.EntityKind;
+import uerr.SingleCollect;
+import uerr.SymbolTable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * the symbol tables of the golang files and packages: (name, kind) -> the first entity declared with them.
+ *
+ * The table of a file holds the children of the file, the table of a package merges the tables of its files
+ * in the order of the files, so a lookup gives the same entity as scanning the children one by one.
+ * The tables are built once, after all entities are built, and they are read-only then.
+ *
+ * The kind of a symbol is one of VARIABLE, STRUCT, ALIAS_TYPE, INTERFACE, METHOD and FUNCTION
+ * (a function but not a method).
+ */
+public class NameSearchTable {
+
+    private static final EntityKind[] SYMBOL_KINDS = {EntityKind.METHOD, EntityKind.FUNCTION,
+            EntityKind.STRUCT, EntityKind.ALIAS_TYPE, EntityKind.INTERFACE, EntityKind.VARIABLE};
+
+    private SingleCollect singleCollect;
+    private SymbolTable symbolTable;
+    //fileId or packageId -> the table of the scope
+    private volatile HashMap<Integer, HashMap<Long, Symbol>> scopeTables = null;
+
+    private AtomicLong queryNum = new AtomicLong(0);
+    private AtomicLong hitNum = new AtomicLong(0);
+
+    /**
+     * one per AnalysisSession
+     * @param singleCollect
+     * @param symbolTable
+     */
+    public NameSearchTable(SingleCollect singleCollect, SymbolTable symbolTable) {
+        this.singleCollect = singleCollect;
+        this.symbolTable = symbolTable;
+    }
+
+    /**
+     * @return the tables of the session bound to the current thread
+     */
+    public static NameSearchTable getNameSearchTableInstance() {
+        return AnalysisSession.getCurrentSession().getNameSearchTable();
+    }
+
+    /**
+     * an entity and its order in the scope: (the index of its file in the package, the index in the file)
+     */
+    private static class Symbol {
+        private int id;
+        private long order;
+
+        private Symbol(int id, long order) {
+            this.id = id;
+            this.order = order;
+        }
+    }
+
+    /**
+     * build the tables of all files and packages, it is called after all entities are built.
+     */
+    public synchronized void build() {
+        if(scopeTables != null) {
+            return;
+        }
+        HashMap<Integer, HashMap<Long, Symbol>> tables = new HashMap<Integer, HashMap<Long, Symbol>>();
+        for (AbsEntity fileEntity : singleCollect.getEntitiesOfKind(EntityKind.FILE)) {
+            tables.put(fileEntity.getId(), buildFileTable(fileEntity));
+        }
+        for (AbsEntity packageEntity : singleCollect.getEntitiesOfKind(EntityKind.FOLDER)) {
+            HashMap<Long, Symbol> packageTable = new HashMap<Long, Symbol>();
+            List<Integer> fileIds = packageEntity.getChildrenIds();
+            for (int fileIndex = 0; fileIndex < fileIds.size(); fileIndex++) {
+                HashMap<Long, Symbol> fileTable = tables.get(fileIds.get(fileIndex));
+                if(fileTable == null) {
+                    continue;
+                }
+                for (Map.Entry<Long, Symbol> entry : fileTable.entrySet()) {
+                    if(!packageTable.containsKey(entry.getKey())) {
+                        long order = ((long) fileIndex << 32) | entry.getValue().order;
+                        packageTable.put(entry.getKey(), new Symbol(entry.getValue().id, order));
+                    }
+                }
+            }
+            tables.put(packageEntity.getId(), packageTable);
+        }
+        scopeTables = tables;
+    }
+
+    private HashMap<Long, Symbol> buildFileTable(AbsEntity fileEntity) {
+        HashMap<Long, Symbol> fileTable = new HashMap<Long, Symbol>();
+        List<Integer> childrenIds = fileEntity.getChildrenIds();
+        for (int index = 0; index < childrenIds.size(); index++) {
+            AbsEntity child = singleCollect.getEntities().get(childrenIds.get(index));
+            EntityKind symbolKind = getSymbolKind(child.getKind());
+            if(symbolKind == null) {
+                continue;
+            }
+            long key = getKey(child.getNameId(), symbolKind);
+            if(!fileTable.containsKey(key)) {
+                fileTable.put(key, new Symbol(child.getId(), index));
+            }
+        }
+        return fileTable;
+    }
+
+    private static EntityKind getSymbolKind(EntityKind kind) {
+        for (EntityKind symbolKind : SYMBOL_KINDS) {
+            if(kind.is(symbolKind)) {
+                return symbolKind;
+            }
+        }
+        return null;
+    }
+
+    private static long getKey(int nameId, EntityKind symbolKind) {
+        return ((long) nameId << 8) | symbolKind.ordinal();
+    }
+
+    /**
+     * @param name
+     * @param scopeId  a fileId or a packageId
+     * @param kinds  the symbol kinds
+     * @return the first entity named name of one of the kinds in the scope, or -1
+     */
+    public int find(String name, int scopeId, EntityKind... kinds) {
+        if(scopeTables == null) {
+            build();
+        }
+        queryNum.incrementAndGet();
+        HashMap<Long, Symbol> scopeTable = scopeTables.get(scopeId);
+        int nameId = symbolTable.lookup(name);
+        if(scopeTable == null || nameId == SymbolTable.UNKNOWN_SYMBOL) {
+            return -1;
+        }
+        Symbol first = null;
+        for (EntityKind kind : kinds) {
+            Symbol symbol = scopeTable.get(getKey(nameId, kind));
+            if(symbol != null && (first == null || symbol.order < first.order)) {
+                first = symbol;
+            }
+        }
+        if(first == null) {
+            return -1;
+        }
+        hitNum.incrementAndGet();
+        return first.id;
+    }
+
+    public String tableStatis() {
+        long queries = queryNum.get();
+        long hits = hitNum.get();
+        String str = "";
+        str += ("Scope queries:     " + queries + "\n");
+        str += ("Scope hits:        " + hits);
+        if(queries != 0) {
+            str += (" (" + (hits * 100 / queries) + "%)");
+        }
+        str += "\n";
+        return str;
+    }
+}
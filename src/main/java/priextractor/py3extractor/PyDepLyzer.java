@@ -44,4 +44,13 @@ public class PyDepLyzer {
 
     }
 
+    /**
+     * only the import relations, for the import-only mode
+     */
+    public void identifyImportDeps() {
+        DepVisitor depVisitor = new ImportVisitor();
+        depVisitor.setDep();
+        System.out.println("Import dependency identified successfully");
+    }
+
 }
@@ -15,8 +15,8 @@ public class PyRelationInf extends RelationInterface {
     private boolean isInnerClass(AbsEntity entity) {
         int parentId = entity.getParentId();
         if(parentId != -1 && (
-                singleCollect.getEntities().get(parentId) instanceof AbsCLSEntity
-                        || singleCollect.getEntities().get(parentId) instanceof PyFunctionEntity)) {
+                singleCollect.isKind(parentId, EntityKind.CLASS)
+                        || singleCollect.isKind(parentId, EntityKind.PY_FUNCTION))) {
             return true;
         }
         return false;
@@ -24,10 +24,10 @@ public class PyRelationInf extends RelationInterface {
 
     private boolean isInnerFunction(AbsEntity entity) {
         int parentId = entity.getParentId();
-        if(parentId != -1 && (singleCollect.getEntities().get(parentId) instanceof AbsCLSEntity)) {
+        if(parentId != -1 && (singleCollect.isKind(parentId, EntityKind.CLASS))) {
             return true;
         }
-        if(parentId != -1 && singleCollect.getEntities().get(parentId) instanceof PyFunctionEntity) {
+        if(parentId != -1 && singleCollect.isKind(parentId, EntityKind.PY_FUNCTION)) {
             return true;
         }
         return false;
@@ -35,7 +35,7 @@ public class PyRelationInf extends RelationInterface {
 
     private boolean isInnerMethod(AbsEntity entity) {
         int parentId = entity.getParentId();
-        if(parentId != -1 && singleCollect.getEntities().get(parentId) instanceof PyFunctionEntity) {
+        if(parentId != -1 && singleCollect.isKind(parentId, EntityKind.PY_FUNCTION)) {
             return true;
         }
         return false;
@@ -54,18 +54,18 @@ public class PyRelationInf extends RelationInterface {
         //int varCount = 0;
 
         for(AbsEntity entity : singleCollect.getEntities()) {
-            if(entity instanceof AbsFLDEntity) {
+            if(entity.getKind().is(EntityKind.FOLDER)) {
                 packageCount ++;
             }
-            else if(entity instanceof ModuleEntity) {
+            else if(entity.getKind().is(EntityKind.MODULE)) {
                 fileCount ++;
             }
-            else if(entity instanceof PyFunctionEntity && !(entity instanceof PyMethodEntity)
+            else if(entity.getKind().is(EntityKind.PY_FUNCTION) && !(entity.getKind().is(EntityKind.PY_METHOD))
                 && !isInnerFunction(entity)
             && !entity.getSimpleName().equals("__main__")) {
                 functionCount ++;
             }
-            else if(entity instanceof PyMethodEntity && !isInnerMethod(entity)) {
+            else if(entity.getKind().is(EntityKind.PY_METHOD) && !isInnerMethod(entity)) {
                 methodCount ++;
             }
             //else if(entity instanceof ClassMethodEntity) {
@@ -78,7 +78,7 @@ public class PyRelationInf extends RelationInterface {
             //    instmethodCount ++;
             //}
 
-            else if(entity instanceof ClassEntity && !isInnerClass(entity)) {
+            else if(entity.getKind().is(EntityKind.PY_CLASS) && !isInnerClass(entity)) {
                 classCount ++;
             }
             //else if (entity instanceof AbsVAREntity) {
@@ -117,18 +117,19 @@ public class PyRelationInf extends RelationInterface {
         depMap.put(Configure.RELATION_RETURN, 0);
         depMap.put(Configure.RELATION_RECEIVE, 0);
         for (AbsEntity entity :singleCollect.getEntities()) {
-            for (Tuple<String, Integer> re : entity.getRelations()) {
-                if(re.x.equals(Configure.RELATION_IMPORT) ||
-                        re.x.equals(Configure.RELATION_INHERIT) ||
-                        re.x.equals(Configure.RELATION_IMPLEMENT) ||
-                        re.x.equals(Configure.RELATION_SET) ||
-                        re.x.equals(Configure.RELATION_USE) ||
-                        re.x.equals(Configure.RELATION_CALL) ||
-                        re.x.equals(Configure.RELATION_PARAMETER) ||
-                        re.x.equals(Configure.RELATION_RETURN)
+            RelationStore.Edges re = singleCollect.getRelationStore().forward(entity.getId());
+            while (re.next()) {
+                if(re.getLabel().equals(Configure.RELATION_IMPORT) ||
+                        re.getLabel().equals(Configure.RELATION_INHERIT) ||
+                        re.getLabel().equals(Configure.RELATION_IMPLEMENT) ||
+                        re.getLabel().equals(Configure.RELATION_SET) ||
+                        re.getLabel().equals(Configure.RELATION_USE) ||
+                        re.getLabel().equals(Configure.RELATION_CALL) ||
+                        re.getLabel().equals(Configure.RELATION_PARAMETER) ||
+                        re.getLabel().equals(Configure.RELATION_RETURN)
                 ) {
-                    int old = depMap.get(re.x);
-                    depMap.put(re.x, old + 1);
+                    int old = depMap.get(re.getLabel());
+                    depMap.put(re.getLabel(), old + 1);
                 }
             }
         }
@@ -150,11 +151,9 @@ public class PyRelationInf extends RelationInterface {
     @Override
     public ArrayList<Tuple<String, String>> getFunctionCalls(String level) {
         ArrayList<Tuple<String, String>> deps = new ArrayList<Tuple<String, String>>();
-        for(AbsEntity entity : singleCollect.getEntities()) {
-            if (entity instanceof PyFunctionEntity) {
-                ArrayList<Tuple<String, String>> dep = getFunctionCallForEntity(entity.getId(), level);
-                deps.addAll(dep);
-            }
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.PY_FUNCTION)) {
+            ArrayList<Tuple<String, String>> dep = getFunctionCallForEntity(entity.getId(), level);
+            deps.addAll(dep);
         }
         return deps;
     }
@@ -190,11 +189,9 @@ public class PyRelationInf extends RelationInterface {
     @Override
     public ArrayList<Tuple<String, String>> getFunctionSets(String level) {
         ArrayList<Tuple<String, String>> deps = new ArrayList<Tuple<String, String>>();
-        for(AbsEntity entity : singleCollect.getEntities()) {
-            if (entity instanceof PyFunctionEntity) {
-                ArrayList<Tuple<String, String>> dep = getFunctionSetsForEntity(entity.getId(), level);
-                deps.addAll(dep);
-            }
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.PY_FUNCTION)) {
+            ArrayList<Tuple<String, String>> dep = getFunctionSetsForEntity(entity.getId(), level);
+            deps.addAll(dep);
         }
         return deps;
     }
@@ -209,11 +206,9 @@ public class PyRelationInf extends RelationInterface {
     @Override
     public ArrayList<Tuple<String, String>> getFunctionUses(String level) {
         ArrayList<Tuple<String, String>> deps = new ArrayList<Tuple<String, String>>();
-        for (AbsEntity entity : singleCollect.getEntities()) {
-            if (entity instanceof PyFunctionEntity) {
-                ArrayList<Tuple<String, String>> dep = getFunctionUseForEntity(entity.getId(), level);
-                deps.addAll(dep);
-            }
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.PY_FUNCTION)) {
+            ArrayList<Tuple<String, String>> dep = getFunctionUseForEntity(entity.getId(), level);
+            deps.addAll(dep);
         }
         return deps;
     }
@@ -237,11 +232,9 @@ public class PyRelationInf extends RelationInterface {
     @Override
     public ArrayList<Tuple<String, String>> getInheritDeps(String level) {
         ArrayList<Tuple<String, String>> deps = new ArrayList<Tuple<String, String>>();
-        for (AbsEntity entity : singleCollect.getEntities()) {
-            if (entity instanceof ClassEntity) {
-                ArrayList<Tuple<String, String>> dep = getInheritDepForEntity(entity.getId(), level);
-                deps.addAll(dep);
-            }
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.PY_CLASS)) {
+            ArrayList<Tuple<String, String>> dep = getInheritDepForEntity(entity.getId(), level);
+            deps.addAll(dep);
         }
         return deps;
     }
@@ -255,8 +248,8 @@ public class PyRelationInf extends RelationInterface {
     public ArrayList<Tuple<String, String>> getImportDeps(String level) {
         ArrayList<Tuple<String, String>> deps = new ArrayList<Tuple<String, String>>();
         for (AbsEntity entity : singleCollect.getEntities()) {
-            if (entity instanceof PyFunctionEntity
-                    || entity instanceof ModuleEntity) {
+            if (entity.getKind().is(EntityKind.PY_FUNCTION)
+                    || entity.getKind().is(EntityKind.MODULE)) {
                 ArrayList<Tuple<String, String>> fundeps = getImportDepsForEntity(entity.getId(), level);
                 deps.addAll(fundeps);
             }
@@ -277,10 +270,11 @@ public class PyRelationInf extends RelationInterface {
         String className1 = entity.getName();
         String fileName1 = getEntityFileName(classId);
 
-        for (Tuple<String, Integer> relation : entity.getRelations()) {
-            if (relation.x.equals(Configure.RELATION_INHERIT)) {
-                String className2 = singleCollect.getEntities().get(relation.y).getName();
-                String fileName2 = getEntityFileName(relation.y);
+        RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+        while (relation.next()) {
+            if (relation.getLabel().equals(Configure.RELATION_INHERIT)) {
+                String className2 = singleCollect.getEntities().get(relation.getTarget()).getName();
+                String fileName2 = getEntityFileName(relation.getTarget());
                 if (level.equals(Configure.RELATION_LEVEL_FILE)) {
                     if (!fileName1.equals(Configure.NULL_STRING)
                             && !fileName2.equals(Configure.NULL_STRING)) {
@@ -311,9 +305,10 @@ public class PyRelationInf extends RelationInterface {
         String name1 = singleCollect.getEntities().get(functionOrModuelId).getName();
         String fileName1 = getEntityFileName(functionOrModuelId);
 
-        for(Tuple<String, Integer> relation : singleCollect.getEntities().get(functionOrModuelId).getRelations()) {
-            if(relation.x.equals(Configure.RELATION_IMPORT)) {
-                int id2 = relation.y;
+        RelationStore.Edges relation = singleCollect.getRelationStore().forward(functionOrModuelId);
+        while (relation.next()) {
+            if(relation.getLabel().equals(Configure.RELATION_IMPORT)) {
+                int id2 = relation.getTarget();
                 String name2 = singleCollect.getEntities().get(id2).getName();
                 //System.out.println("name1=" + name1);
                 //System.out.println("name2=" + name2);
@@ -348,7 +343,7 @@ public class PyRelationInf extends RelationInterface {
             return fileName;
         }
 
-        if(singleCollect.getEntities().get(entityId) instanceof AbsFLDEntity) {
+        if(singleCollect.isKind(entityId, EntityKind.FOLDER)) {
             int initFileId = getInitForPackage(entityId);
             if(initFileId != -1) {
                 return singleCollect.getEntities().get(initFileId).getName();
@@ -357,10 +352,10 @@ public class PyRelationInf extends RelationInterface {
 
         int fileId = entityId;
         while(fileId != -1
-            && !(singleCollect.getEntities().get(fileId) instanceof ModuleEntity)) {
+            && !(singleCollect.isKind(fileId, EntityKind.MODULE))) {
             fileId = singleCollect.getEntities().get(fileId).getParentId();
         }
-        if(fileId != -1 && singleCollect.getEntities().get(fileId) instanceof ModuleEntity) {
+        if(fileId != -1 && singleCollect.isKind(fileId, EntityKind.MODULE)) {
             return singleCollect.getEntities().get(fileId).getName();
         }
         return fileName;
@@ -373,7 +368,7 @@ public class PyRelationInf extends RelationInterface {
      */
     private int getInitForPackage(int pkgId) {
         for (int childId : singleCollect.getEntities().get(pkgId).getChildrenIds()) {
-            if(singleCollect.getEntities().get(childId) instanceof ModuleEntity) {
+            if(singleCollect.isKind(childId, EntityKind.MODULE)) {
                 String childName = singleCollect.getEntities().get(childId).getName();
                 if(childName.endsWith(PyConstantString.INIT_FILE_NAME)) {
                     return  childId;
@@ -390,9 +385,10 @@ public class PyRelationInf extends RelationInterface {
         String callerName = entity.getName();
         String callerFileName = getEntityFileName(functionId);
 
-        for (Tuple<String, Integer> relation : entity.getRelations()) {
-            if(relation.x.equals(Configure.RELATION_CALL)) {
-                int calleeId = relation.y;
+        RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+        while (relation.next()) {
+            if(relation.getLabel().equals(Configure.RELATION_CALL)) {
+                int calleeId = relation.getTarget();
                 String calleeName = singleCollect.getEntities().get(calleeId).getName();
                 String calleeFileName = getEntityFileName(calleeId);
                 Tuple<String, String> dep;
@@ -420,9 +416,10 @@ public class PyRelationInf extends RelationInterface {
         AbsEntity entity = singleCollect.getEntities().get(id1);
         String fileName1 = getEntityFileName(id1);
         String name1 = entity.getName();
-        for (Tuple<String, Integer> relation : entity.getRelations()) {
-            int id2 = relation.y;
-            String deptype = relation.x;
+        RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+        while (relation.next()) {
+            int id2 = relation.getTarget();
+            String deptype = relation.getLabel();
             if (deptype.equals(Configure.RELATION_IMPLICIT_EXTERNAL_CALL)) {
                 String fileName2 = getEntityFileName(id2);
                 String name2 = singleCollect.getEntities().get(id2).getName();
@@ -457,9 +454,10 @@ public class PyRelationInf extends RelationInterface {
         String callerName = entity.getName();
         String callerFileName = getEntityFileName(functionId);
 
-        for (Tuple<String, Integer> relation : entity.getRelations()) {
-            if (relation.x.equals(Configure.RELATION_SET)) {
-                int varId = relation.y;
+        RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+        while (relation.next()) {
+            if (relation.getLabel().equals(Configure.RELATION_SET)) {
+                int varId = relation.getTarget();
                 String varName = singleCollect.getEntities().get(varId).getName();
                 String varFileName = getEntityFileName(varId);
                 Tuple<String, String> dep;
@@ -494,9 +492,10 @@ public class PyRelationInf extends RelationInterface {
         String callerName = entity.getName();
         String callerFileName = getEntityFileName(functionId);
 
-        for (Tuple<String, Integer> relation : entity.getRelations()) {
-            if (relation.x.equals(Configure.RELATION_USE)) {
-                int varId = relation.y;
+        RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+        while (relation.next()) {
+            if (relation.getLabel().equals(Configure.RELATION_USE)) {
+                int varId = relation.getTarget();
                 String varName = singleCollect.getEntities().get(varId).getName();
                 String varFileName = getEntityFileName(varId);
                 Tuple<String, String> dep;
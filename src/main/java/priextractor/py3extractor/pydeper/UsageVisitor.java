@@ -26,6 +26,8 @@ public class UsageVisitor{
                 findLocalName2IDForEntity(functionId);
                 //use localName2IdMap and localName to build finalUsageMap
                 buildUsageMapForEntity(functionId);
+                //the calls are resolved before, and the usages are in finalUsageMap now
+                singleCollect.releaseScratch((PyFunctionEntity) entity);
             }
         }
     }
@@ -1,9 +1,12 @@
 package priextractor.py3extractor.searcher;
 
+import client.AnalysisSession;
 import uerr.AbsEntity;
 import uerr.AbsFLDEntity;
 import uerr.AbsVAREntity;
 import uerr.SingleCollect;
+import uerr.EntityKind;
+import uerr.SymbolTable;
 import entitybuilder.pybuilder.PyConstantString;
 import entitybuilder.pybuilder.pyentity.*;
 import util.Configure;
@@ -27,14 +30,21 @@ import java.util.Map;
  *  class object: class's child
  */
 public class NameSearch {
-    private static NameSearch nameSearchInstance = new NameSearch();
+    private SingleCollect singleCollect;
+    private SymbolTable symbolTable;
 
-    private NameSearch() {}
-
-
-    private SingleCollect singleCollect = SingleCollect.getSingleCollectInstance();
+    /**
+     * one per AnalysisSession
+     * @param singleCollect
+     * @param symbolTable
+     */
+    public NameSearch(SingleCollect singleCollect, SymbolTable symbolTable) {
+        this.singleCollect = singleCollect;
+        this.symbolTable = symbolTable;
+    }
 
-    //(scopeId, (name, nameEntityId))
+    //(scopeId, (name, nameEntityId)), the names are the shared instances in SymbolTable.
+    //they are not keyed by the symbol ids, since CallVisitor scans the names in the order of this map.
     private HashMap<Integer, HashMap<String, Integer>> nameMap = new HashMap<Integer, HashMap<String, Integer>>();
 
     public HashMap<Integer, HashMap<String, Integer>> getNameMap() {
@@ -50,8 +60,11 @@ public class NameSearch {
         }
     }
 
+    /**
+     * @return the scopes of the session bound to the current thread
+     */
     public static NameSearch getNameSearchInstance() {
-        return nameSearchInstance;
+        return AnalysisSession.getCurrentSession().getNameSearch();
     }
 
     /**
@@ -86,12 +99,10 @@ public class NameSearch {
      * class object scope: class's children
      */
     public void buildNameScopeForVar() {
-        for(AbsEntity entity : singleCollect.getEntities()) {
-            if (entity instanceof AbsVAREntity) {
-                int scopeId = entity.getId();
-                int typeId = ((AbsVAREntity) entity).getTypeId();
-                addInChildren(scopeId, typeId);
-            }
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.VARIABLE)) {
+            int scopeId = entity.getId();
+            int typeId = ((AbsVAREntity) entity).getTypeId();
+            addInChildren(scopeId, typeId);
         }
     }
 
@@ -99,24 +110,22 @@ public class NameSearch {
      * package: itschildren's name- module simple Name,  init_file's namescope
      */
     private void buildNameScopeForPackages() {
-        for (AbsEntity entity : singleCollect.getEntities()) {
-            if (entity instanceof AbsFLDEntity) {
-                int packageId = entity.getId();
-                addInChildren(packageId, packageId);
-                int initId = findInitModule(packageId);
-                if(initId == -1) {  //package should always have init file
-                    //System.out.println("Not found init module for " + ((AbsFLDEntity) uerr).getFullPath());
-                    continue;
-                }
-                if(!nameMap.containsKey(initId)) { //package may have init file which is empty.
-                    //System.out.println("null");
-                    continue;
-                }
-                for(Map.Entry<String, Integer> entry : nameMap.get(initId).entrySet()) {
-                    String key = entry.getKey();
-                    int id = entry.getValue();
-                    addNameMap(packageId, key, id);
-                }
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.FOLDER)) {
+            int packageId = entity.getId();
+            addInChildren(packageId, packageId);
+            int initId = findInitModule(packageId);
+            if(initId == -1) {  //package should always have init file
+                //System.out.println("Not found init module for " + ((AbsFLDEntity) uerr).getFullPath());
+                continue;
+            }
+            if(!nameMap.containsKey(initId)) { //package may have init file which is empty.
+                //System.out.println("null");
+                continue;
+            }
+            for(Map.Entry<String, Integer> entry : nameMap.get(initId).entrySet()) {
+                String key = entry.getKey();
+                int id = entry.getValue();
+                addNameMap(packageId, key, id);
             }
         }
     }
@@ -129,7 +138,7 @@ public class NameSearch {
      */
     private int findInitModule(int packageId) {
         for(int childId : singleCollect.getEntities().get(packageId).getChildrenIds()) {
-            if (singleCollect.getEntities().get(childId) instanceof ModuleEntity) {
+            if (singleCollect.isKind(childId, EntityKind.MODULE)) {
                 String childName = ((ModuleEntity) singleCollect.getEntities().get(childId)).getModuleSimpleName();
                 if (childName.equals(PyConstantString.INIT_MODULE_NAME)) {
                     return childId;
@@ -145,12 +154,10 @@ public class NameSearch {
      * Module: children, imported name.
      */
     private void buildNameScopeForModules() {
-        for(AbsEntity entity : singleCollect.getEntities()) {
-            if(entity instanceof ModuleEntity) {
-                int moduleId = entity.getId();
-                addInChildren(moduleId, moduleId);
-                addInImports(moduleId, moduleId);
-            }
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.MODULE)) {
+            int moduleId = entity.getId();
+            addInChildren(moduleId, moduleId);
+            addInImports(moduleId, moduleId);
         }
     }
 
@@ -161,21 +168,21 @@ public class NameSearch {
      */
     private void buildNameScopeForFunctions() {
         for(AbsEntity entity : singleCollect.getEntities()) {
-            if(entity instanceof PyFunctionEntity
-                    && !(entity instanceof PyMethodEntity)) {
+            if(entity.getKind().is(EntityKind.PY_FUNCTION)
+                    && !(entity.getKind().is(EntityKind.PY_METHOD))) {
                 int functionId = entity.getId();
                 addInChildren(functionId, functionId);
                 addInParas(functionId, functionId);
 
                 int parentId = entity.getParentId();
-                if(parentId != -1 && singleCollect.getEntities().get(parentId) instanceof ModuleEntity) {
+                if(parentId != -1 && singleCollect.isKind(parentId, EntityKind.MODULE)) {
                     addInChildren(functionId, parentId);
                     addInImports(functionId, parentId);
                 }
 
                 addInImports(functionId, functionId);
 
-                if(entity.getName().equals(PyConstantString.MAIN_NAME)) {
+                if(entity.getNameId() == symbolTable.lookup(PyConstantString.MAIN_NAME)) {
                     nameMap.get(functionId).remove(PyConstantString.MAIN_NAME);
                 }
             }
@@ -191,22 +198,20 @@ public class NameSearch {
      *         located module's visible name = module's chidren + module's import
      */
     private void buildNameScopeForClasses() {
-        for(AbsEntity entity : singleCollect.getEntities()) {
-            if(entity instanceof ClassEntity) {
-                int classId = entity.getId();
-                addInChildren(classId, classId);
-                addNameMap(classId, PyConstantString.SELF, classId);
-                addInBaseClassName(classId, classId);
-                addInBaseClassChildren(classId, classId);
-
-                int parentId = singleCollect.getEntities().get(classId).getParentId();
-                if(parentId != -1 && singleCollect.getEntities().get(parentId) instanceof ModuleEntity) {
-                    addInChildren(classId, parentId);
-                    addInImports(classId, parentId);
-                }
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.PY_CLASS)) {
+            int classId = entity.getId();
+            addInChildren(classId, classId);
+            addNameMap(classId, PyConstantString.SELF, classId);
+            addInBaseClassName(classId, classId);
+            addInBaseClassChildren(classId, classId);
+
+            int parentId = singleCollect.getEntities().get(classId).getParentId();
+            if(parentId != -1 && singleCollect.isKind(parentId, EntityKind.MODULE)) {
+                addInChildren(classId, parentId);
+                addInImports(classId, parentId);
+            }
 
 
-            }
         }
     }
 
@@ -214,27 +219,25 @@ public class NameSearch {
      * Method: children, parameter, self, BaseClass full name, located module's visible name, imported name.
      */
     private void buildNameScopeForMethods() {
-        for(AbsEntity entity :singleCollect.getEntities()) {
-            if(entity instanceof PyMethodEntity) {
-                int methodId = entity.getId();
-                int parentId = singleCollect.getEntities().get(methodId).getParentId();
-                addInChildren(methodId, methodId);
-                //self is conflicted with the parameter "self".
-                //parameter self is a new variable with different id with class.
-                //so we need to add self first, then add parameter in order to not cover the previous one.
-                addNameMap(methodId, PyConstantString.SELF, parentId);
-                addInParas(methodId, methodId);
-                addInBaseClassName(methodId, parentId);
-
-                int grandPaId = singleCollect.getEntities().get(parentId).getParentId();
-                if(grandPaId != -1 && singleCollect.getEntities().get(grandPaId) instanceof ModuleEntity) {
-                    addInChildren(methodId, grandPaId);
-                    addInImports(methodId, grandPaId);
-                }
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.PY_METHOD)) {
+            int methodId = entity.getId();
+            int parentId = singleCollect.getEntities().get(methodId).getParentId();
+            addInChildren(methodId, methodId);
+            //self is conflicted with the parameter "self".
+            //parameter self is a new variable with different id with class.
+            //so we need to add self first, then add parameter in order to not cover the previous one.
+            addNameMap(methodId, PyConstantString.SELF, parentId);
+            addInParas(methodId, methodId);
+            addInBaseClassName(methodId, parentId);
+
+            int grandPaId = singleCollect.getEntities().get(parentId).getParentId();
+            if(grandPaId != -1 && singleCollect.isKind(grandPaId, EntityKind.MODULE)) {
+                addInChildren(methodId, grandPaId);
+                addInImports(methodId, grandPaId);
+            }
 
-                addInImports(methodId, methodId);
+            addInImports(methodId, methodId);
 
-            }
         }
 
     }
@@ -246,6 +249,7 @@ public class NameSearch {
      * @param nameId
      */
     private void addNameMap(int scopeId, String name, int nameId) {
+        name = symbolTable.intern(name);
         if (!nameMap.containsKey(scopeId)) {
             nameMap.put(scopeId, new HashMap<String, Integer>());
         }
@@ -266,7 +270,7 @@ public class NameSearch {
         }
         for(int childId : singleCollect.getEntities().get(entityId).getChildrenIds()) {
             String childName = singleCollect.getEntities().get(childId).getName();
-            if(singleCollect.getEntities().get(childId) instanceof ModuleEntity) {
+            if(singleCollect.isKind(childId, EntityKind.MODULE)) {
                 childName = ((ModuleEntity) singleCollect.getEntities().get(childId)).getModuleSimpleName();
             }
             addNameMap(scopeId, childName, childId);
@@ -285,11 +289,11 @@ public class NameSearch {
         ArrayList<ImportStmt> importStmts = null;
         HashMap<Integer, Integer> importedId2Indexes = null;
 
-        if (singleCollect.getEntities().get(functionOrModuleId) instanceof ModuleEntity) {
+        if (singleCollect.isKind(functionOrModuleId, EntityKind.MODULE)) {
             importStmts =  ((ModuleEntity) singleCollect.getEntities().get(functionOrModuleId)).getImportStmts();
             importedId2Indexes = ((ModuleEntity) singleCollect.getEntities().get(functionOrModuleId)).getImportedId2Indexs();
         }
-        else if(singleCollect.getEntities().get(functionOrModuleId) instanceof PyFunctionEntity) {
+        else if(singleCollect.isKind(functionOrModuleId, EntityKind.PY_FUNCTION)) {
             importStmts =  ((PyFunctionEntity) singleCollect.getEntities().get(functionOrModuleId)).getImportStmts();
             importedId2Indexes = ((PyFunctionEntity) singleCollect.getEntities().get(functionOrModuleId)).getImportedId2Indexs();
         }
@@ -1,4 +1,8 @@
 package uerr;
 
 public class AbsCLSEntity extends AbsEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.CLASS;
+    }
 }
@@ -3,15 +3,26 @@ package uerr;
 import util.StringUtil;
 import util.Tuple;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
-public class AbsEntity {
+public class AbsEntity implements Serializable {
+    private static final long serialVersionUID = 1L;
     protected String name;
     protected String simpleName;
     protected int id;
     protected int parentId = -1;
+    //set by an initializer block of each entity class, so that it is the kind of the most derived class
+    protected EntityKind kind = EntityKind.ENTITY;
     protected ArrayList<Integer> childrenIds = new ArrayList<Integer>();
     protected ArrayList<Tuple<String,Integer>> relations = new ArrayList<Tuple<String, Integer>>();
+    //the children and the relations are read from here after freeze(), and childrenIds and relations are dropped
+    protected transient EntityStore store = null;
+    protected transient RelationStore relationStore = null;
+    //the id of name in SymbolTable, NO_SYMBOL until name is interned
+    protected transient int nameId = SymbolTable.NO_SYMBOL;
 
 
     public String getSimpleName() {
@@ -26,8 +37,34 @@ public class AbsEntity {
         return id;
     }
 
+    public EntityKind getKind() {
+        return kind;
+    }
+
     public void setName(String name) {
         this.name = name;
+        internName();
+    }
+
+    /**
+     * replace name by the shared instance in SymbolTable, and keep its id.
+     */
+    public void internName() {
+        SymbolTable symbolTable = SymbolTable.getSymbolTableInstance();
+        nameId = symbolTable.getId(name);
+        if(name != null) {
+            name = symbolTable.getSymbol(nameId);
+        }
+    }
+
+    /**
+     * @return the id of name in SymbolTable, two entities have the same name if and only if they have the same nameId.
+     */
+    public int getNameId() {
+        if(nameId == SymbolTable.NO_SYMBOL && name != null) {
+            internName();
+        }
+        return nameId;
     }
 
     public void setSimpleName() {
@@ -47,29 +84,101 @@ public class AbsEntity {
     }
 
     public void addRelation(Tuple<String,Integer> tuple) {
+        checkNotFrozen();
         relations.add(tuple);
     }
 
     public void addRelations(ArrayList<Tuple<String, Integer>> relations) {
+        checkNotFrozen();
         this.relations.addAll(relations);
     }
 
+    /**
+     * after freeze(), it is a copy built from RelationStore, use RelationStore.forward()/reverse() instead.
+     * @return
+     */
     public ArrayList<Tuple<String, Integer>> getRelations() {
+        if(relationStore != null) {
+            return relationStore.toTuples(id);
+        }
         return relations;
     }
 
     public void addChildId(Integer id) {
+        checkNotFrozen();
         childrenIds.add(id);
     }
 
     public void addChildrenIds(ArrayList<Integer> ids) {
+        checkNotFrozen();
         childrenIds.addAll(ids);
     }
 
-    public ArrayList<Integer> getChildrenIds() {
+    public List<Integer> getChildrenIds() {
+        if(store != null) {
+            return store.getChildrenIds(id);
+        }
         return childrenIds;
     }
 
+    /**
+     * move the children of this entity into store and its relations into relationStore,
+     * after the structure and the relations of all entities are final.
+     * the name is already the shared instance in SymbolTable, and simpleName is shared with it if it is a known symbol.
+     * @param store
+     * @param relationStore
+     */
+    void freeze(EntityStore store, RelationStore relationStore) {
+        this.store = store;
+        this.relationStore = relationStore;
+        SymbolTable symbolTable = SymbolTable.getSymbolTableInstance();
+        int simpleNameId = symbolTable.lookup(simpleName);
+        if(simpleNameId != SymbolTable.UNKNOWN_SYMBOL) {
+            simpleName = symbolTable.getSymbol(simpleNameId);
+        }
+        childrenIds = null;
+        relations = null;
+    }
+
+    public boolean isFrozen() {
+        return store != null;
+    }
+
+    private void checkNotFrozen() {
+        if(store != null) {
+            throw new IllegalStateException("A frozen entity cannot be changed: " + name);
+        }
+    }
+
+    /**
+     * replace the entity ids held by this entity according to idMap, the ids not in idMap are unchanged.
+     * it is used when the entity is moved to another position in SingleCollect.
+     * @param idMap  old id -> new id
+     */
+    public void remapIds(Map<Integer, Integer> idMap) {
+        id = remapId(id, idMap);
+        parentId = remapId(parentId, idMap);
+        checkNotFrozen();
+        remapIdList(childrenIds, idMap);
+        for (Tuple<String, Integer> relation : relations) {
+            relation.setY(remapId(relation.y, idMap));
+        }
+    }
+
+    protected static int remapId(int id, Map<Integer, Integer> idMap) {
+        Integer newId = idMap.get(id);
+        if(newId == null) {
+            return id;
+        }
+        return newId;
+    }
+
+    protected static void remapIdList(List<Integer> ids, Map<Integer, Integer> idMap) {
+        for (int i = 0; i < ids.size(); i++) {
+            ids.set(i, remapId(ids.get(i), idMap));
+        }
+    }
+
     @Override
     public String toString() {
         String str = "";
@@ -77,8 +186,8 @@ public class AbsEntity {
         str += ("name:" + name + ',');
         str += ("id:" + id + ',');
         str += ("parentId:" + parentId + ",");
-        str += ("childrenIds:" + childrenIds + ",");
-        str += ("relations:" + relations);
+        str += ("childrenIds:" + getChildrenIds() + ",");
+        str += ("relations:" + getRelations());
         str += ")\n";
         return str;
     }
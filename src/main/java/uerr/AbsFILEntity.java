@@ -7,6 +7,10 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class AbsFILEntity extends AbsEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.FILE;
+    }
     protected ArrayList<Tuple<String, String>> imports = new ArrayList<Tuple<String, String>>(); //one string is import name, another string is import path
     protected Map<Integer, String> importsAlias =  new HashMap<Integer, String>();
 
@@ -36,7 +40,7 @@ public class AbsFILEntity extends AbsEntity {
         //str += ("packageId:" + packageId + ",");
         //str += ("includes:" + includedEntities + "\n");
         str += ("parentId:" + parentId + ",");
-        str += ("childrenIds:" + childrenIds + ")\n");
+        str += ("childrenIds:" + getChildrenIds() + ")\n");
         return str;
     }
 
@@ -1,6 +1,10 @@
 package uerr;
 
 public class AbsFLDEntity extends AbsEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.FOLDER;
+    }
     protected String fullPath;  //key
 
     public AbsFLDEntity(int id, String fullPath, String name) {
@@ -25,7 +29,7 @@ public class AbsFLDEntity extends AbsEntity {
         str += ("id:" + id + ",");
         str += ("fullpath:" + fullPath + ",");
         str += ("name:" + name + ",");
-        str += ("childrenIds:" + childrenIds);
+        str += ("childrenIds:" + getChildrenIds());
         str += ("parentId:" + parentId);
         str += ")\n";
         return str;
@@ -5,9 +5,15 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class AbsFUNEntity extends AbsEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.FUNCTION;
+    }
     protected ArrayList<Integer> parameters = new ArrayList<Integer>();
     protected ArrayList<Integer> returns = new ArrayList<Integer>();
     protected ArrayList<String> calledFunctions = new ArrayList<String>();
+    //the calls inside a golang function, in the order they end. only the resolved ones are kept after releaseScratch().
+    protected ArrayList<CallSite> callSites = new ArrayList<CallSite>();
     //protected HashMap<String, Integer> calledWeightedFunctions = new HashMap<String, Integer>();
 
     //generate in the first visit. will be further processed in the second visit.
@@ -22,6 +28,17 @@ public class AbsFUNEntity extends AbsEntity {
 
     //generate in the first visit. it will be used for localName priextractor.goextractor.searcher.
     protected ArrayList<LocalBlock> localBlocks = new ArrayList<LocalBlock>();
+    //nameId -> the indexes of the localNames with this name, in ascending order.
+    //it is rebuilt from localNames when the entity is loaded from the entity cache.
+    protected transient HashMap<Integer, ArrayList<Integer>> localNamePositions = null;
+
+    //rough sizes for the memory report, with compressed references
+    private static final int REF_BYTES = 4;
+    private static final int MAP_ENTRY_BYTES = 36;
+    private static final int LOCAL_NAME_BYTES = 160;
+    private static final int LOCAL_BLOCK_BYTES = 32;
+    private static final int STRING_BYTES = 40;
+    private static final int CALL_SITE_BYTES = 40;
 
 
     public AbsFUNEntity() {}
@@ -74,6 +91,19 @@ public class AbsFUNEntity extends AbsEntity {
         this.calledFunctions.addAll(calledFunctions);
     }
 
+    /**
+     * @param callSite
+     * @return the index of callSite in this function
+     */
+    public int addCallSite(CallSite callSite) {
+        callSites.add(callSite);
+        return callSites.size() - 1;
+    }
+
+    public ArrayList<CallSite> getCallSites() {
+        return callSites;
+    }
+
    /* public HashMap<String, Integer> getCalledWeightedFunctions() {
         return calledWeightedFunctions;
     }
@@ -102,17 +132,59 @@ public class AbsFUNEntity extends AbsEntity {
          * It's not usable in static language,
          * but it is important in dynamic typing language.
          */
-        for (int i = localNames.size() - 1; i >= 0; i--) {
-            LocalName candidateLocalName = localNames.get(i);
-            int candidateLocalBlockId = candidateLocalName.getLocalBlockId();
-            if(candidateLocalName.getName().equals(name)
-                    && isCandidateBlockCoverThisBlock(candidateLocalBlockId, localBlockId)) {
-                return i;
+        ArrayList<Integer> positions = getLocalNamePositions(name);
+        if(positions == null) {
+            return -1;
+        }
+        for (int i = positions.size() - 1; i >= 0; i--) {
+            int position = positions.get(i);
+            int candidateLocalBlockId = localNames.get(position).getLocalBlockId();
+            if(isCandidateBlockCoverThisBlock(candidateLocalBlockId, localBlockId)) {
+                return position;
             }
         }
         return -1;
     }
 
+    /**
+     * @param name
+     * @return the index of the first localName with this name, or -1
+     */
+    public int searchFirstLocalName(String name) {
+        ArrayList<Integer> positions = getLocalNamePositions(name);
+        if(positions == null) {
+            return -1;
+        }
+        return positions.get(0);
+    }
+
+    /**
+     * @param name
+     * @return the indexes of the localNames with this name, or null if there is none
+     */
+    private ArrayList<Integer> getLocalNamePositions(String name) {
+        int nameId = SymbolTable.getSymbolTableInstance().lookup(name);
+        if(nameId == SymbolTable.UNKNOWN_SYMBOL || nameId == SymbolTable.NO_SYMBOL) {
+            return null;
+        }
+        if(localNamePositions == null) {
+            localNamePositions = new HashMap<Integer, ArrayList<Integer>>();
+            for (int i = 0; i < localNames.size(); i++) {
+                addLocalNamePosition(localNames.get(i), i);
+            }
+        }
+        return localNamePositions.get(nameId);
+    }
+
+    private void addLocalNamePosition(LocalName localName, int position) {
+        ArrayList<Integer> positions = localNamePositions.get(localName.getNameId());
+        if(positions == null) {
+            positions = new ArrayList<Integer>(2);
+            localNamePositions.put(localName.getNameId(), positions);
+        }
+        positions.add(position);
+    }
+
     /**
      * when blockID is same, or currentBlockDepth > candidiateBlockDepth
      * @param candidateBlockId
@@ -136,6 +208,9 @@ public class AbsFUNEntity extends AbsEntity {
 
     public void addLocalName(LocalName oneLocalName) {
         localNames.add(oneLocalName);
+        if(localNamePositions != null) {
+            addLocalNamePosition(oneLocalName, localNames.size() - 1);
+        }
     }
 
     public ArrayList<LocalName> getLocalNames() {
@@ -185,6 +260,72 @@ public class AbsFUNEntity extends AbsEntity {
     }
 
 
+    /**
+     * drop the localNames, localBlocks and calledFunctions collected by the entity visitor,
+     * and the name maps built from them, once the dependencies of this function are resolved.
+     * the parameters, returns and relations are kept, and so are the locations of the resolved call sites.
+     * @return the estimated bytes released
+     */
+    public long releaseScratch() {
+        if(isScratchReleased()) {
+            return 0;
+        }
+        long bytes = estimateScratchBytes();
+        localNames = null;
+        localNamePositions = null;
+        localBlocks = null;
+        calledFunctions = null;
+        ArrayList<CallSite> resolvedCallSites = new ArrayList<CallSite>();
+        for (CallSite callSite : callSites) {
+            if (callSite.getCalleeId() != -1) {
+                callSite.releaseNames();
+                resolvedCallSites.add(callSite);
+            }
+        }
+        bytes -= (long) resolvedCallSites.size() * (CALL_SITE_BYTES + REF_BYTES);
+        resolvedCallSites.trimToSize();
+        callSites = resolvedCallSites;
+        name2IdMap = null;
+        name2RoleMap = null;
+        name2Usage = null;
+        return bytes;
+    }
+
+    public boolean isScratchReleased() {
+        return localNames == null;
+    }
+
+    /**
+     * the names are shared with SymbolTable, so only the callee strings are counted as strings.
+     * @return
+     */
+    private long estimateScratchBytes() {
+        long bytes = 0;
+        bytes += (long) localNames.size() * (LOCAL_NAME_BYTES + REF_BYTES);
+        bytes += (long) localBlocks.size() * (LOCAL_BLOCK_BYTES + REF_BYTES);
+        for (String calledFunction : calledFunctions) {
+            bytes += STRING_BYTES + 2L * calledFunction.length() + REF_BYTES;
+        }
+        for (CallSite callSite : callSites) {
+            bytes += CALL_SITE_BYTES + REF_BYTES;
+            if (callSite.getNames() != null) {
+                bytes += (long) callSite.getNames().length * REF_BYTES;
+            }
+        }
+        bytes += (long) (name2IdMap.size() + name2RoleMap.size()) * MAP_ENTRY_BYTES;
+        for (ArrayList<String> usages : name2Usage.values()) {
+            bytes += MAP_ENTRY_BYTES + STRING_BYTES + (long) usages.size() * REF_BYTES;
+        }
+        return bytes;
+    }
+
+    @Override
+    public void remapIds(Map<Integer, Integer> idMap) {
+        super.remapIds(idMap);
+        remapIdList(parameters, idMap);
+        remapIdList(returns, idMap);
+    }
+
     @Override
     public String toString() {
         String str = "";
@@ -194,8 +335,8 @@ public class AbsFUNEntity extends AbsEntity {
         str += ("parameters:" + parameters + ",");
         str += ("returns:" + returns + ",");
         str += ("parentId:" + parentId + ",");
-        str += ("childrenIds:" + childrenIds + ",");
-        str += ("relations:" + relations);
+        str += ("childrenIds:" + getChildrenIds() + ",");
+        str += ("relations:" + getRelations());
         str += ")\n";
 
         return str;
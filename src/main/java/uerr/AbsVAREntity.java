@@ -1,6 +1,12 @@
 package uerr;
 
+import java.util.Map;
+
 public class AbsVAREntity extends AbsEntity {
+    private static final long serialVersionUID = 1L;
+    {
+        kind = EntityKind.VARIABLE;
+    }
     protected String type;
     protected String value;
     /**
@@ -53,6 +59,14 @@ public class AbsVAREntity extends AbsEntity {
         return localBlockId;
     }
 
+    @Override
+    public void remapIds(Map<Integer, Integer> idMap) {
+        super.remapIds(idMap);
+        if(typeId != -1) {
+            typeId = remapId(typeId, idMap);
+        }
+    }
+
     @Override
     public String toString() {
         String str = "";
@@ -0,0 +1,111 @@
+package uerr;
+
+import java.util.List;
+
+/**
+ * the nearest function, class, file and folder containing each entity, indexed by entity id.
+ * an entity of such a kind is its own nearest one, e.g. getFileOf(fileId) == fileId.
+ *
+ * It is built once by SingleCollect.freeze(), so that a lookup is an array access
+ * instead of a walk along the parentId chain.
+ */
+public class AncestorIndex {
+
+    private int size;
+    private int[] functionIds;
+    private int[] classIds;
+    private int[] fileIds;
+    private int[] folderIds;
+
+    public AncestorIndex(List<AbsEntity> entities) {
+        size = entities.size();
+        functionIds = build(entities, EntityKind.FUNCTION);
+        classIds = build(entities, EntityKind.CLASS);
+        fileIds = build(entities, EntityKind.FILE);
+        folderIds = build(entities, EntityKind.FOLDER);
+    }
+
+    /**
+     * the parent may have a larger id than its child (e.g. the folders found again for the cached files),
+     * so an entity not resolved yet walks up to the first resolved ancestor, and then resolves the walked path.
+     * @param entities
+     * @param kind
+     * @return
+     */
+    private int[] build(List<AbsEntity> entities, EntityKind kind) {
+        int[] ancestorIds = new int[size];
+        boolean[] isResolved = new boolean[size];
+        int[] path = new int[size];
+        for (int id = 0; id < size; id++) {
+            int pathLen = 0;
+            int ancestorId = -1;
+            int current = id;
+            while (current >= 0 && current < size) {
+                if(isResolved[current]) {
+                    ancestorId = ancestorIds[current];
+                    break;
+                }
+                AbsEntity entity = entities.get(current);
+                if(entity.getKind().is(kind)) {
+                    ancestorId = current;
+                    break;
+                }
+                if(pathLen == size) {
+                    //a cycle of parentIds
+                    break;
+                }
+                path[pathLen] = current;
+                pathLen++;
+                current = entity.getParentId();
+            }
+            if(current >= 0 && current < size && !isResolved[current]) {
+                ancestorIds[current] = ancestorId;
+                isResolved[current] = true;
+            }
+            for (int i = 0; i < pathLen; i++) {
+                ancestorIds[path[i]] = ancestorId;
+                isResolved[path[i]] = true;
+            }
+        }
+        return ancestorIds;
+    }
+
+    private int get(int[] ancestorIds, int id) {
+        if(id < 0 || id >= size) {
+            return -1;
+        }
+        return ancestorIds[id];
+    }
+
+    /**
+     * @param id
+     * @return the nearest function containing id, or -1
+     */
+    public int getFunctionOf(int id) {
+        return get(functionIds, id);
+    }
+
+    /**
+     * @param id
+     * @return the nearest class containing id, or -1
+     */
+    public int getClassOf(int id) {
+        return get(classIds, id);
+    }
+
+    /**
+     * @param id
+     * @return the nearest file containing id, or -1
+     */
+    public int getFileOf(int id) {
+        return get(fileIds, id);
+    }
+
+    /**
+     * @param id
+     * @return the nearest folder containing id, or -1
+     */
+    public int getFolderOf(int id) {
+        return get(folderIds, id);
+    }
+}
@@ -0,0 +1,90 @@
+package uerr;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * CallSite is a call appearing inside a function or method, e.g. f(), pkg.f(), v.field.m() and f().m().
+ * The callee is kept as the names of its selector chain, e.g. {pkg, f} or {v, field, m}.
+ * The head of the chain is either the first name, or the result of an earlier call in the same function,
+ * e.g. f() of f().m(), given by its index in the function's call sites; the names are then {m}.
+ *
+ * The calls are saved in the order they end, so the calls inside a callee or its arguments come first,
+ * and a receiver call always has a smaller index.
+ *
+ * Just like localName, CallSite is valid only inside a function/method.
+ * So, We bind a CallSite list to its functionEntity, please see AbsFUNEntity class declaration.
+ */
+public class CallSite implements Serializable {
+    private static final long serialVersionUID = 1L;
+    //null if the callee is not a selector chain, e.g. a[i]() or func(){...}()
+    private String[] names;
+    //the index of the call whose result is the head of the chain, or -1 if the head is names[0]
+    private int receiverCallIndex;
+    private int line;
+    private int column;
+    //the entity called, set when the calls are resolved
+    private int calleeId = -1;
+
+
+    public CallSite(String[] names, int receiverCallIndex, int line, int column) {
+        if (names != null) {
+            SymbolTable symbolTable = SymbolTable.getSymbolTableInstance();
+            for (int i = 0; i < names.length; i++) {
+                names[i] = symbolTable.intern(names[i]);
+            }
+        }
+        this.names = names;
+        this.receiverCallIndex = receiverCallIndex;
+        this.line = line;
+        this.column = column;
+    }
+
+    public String[] getNames() {
+        return names;
+    }
+
+    public boolean isSelectorChain() {
+        return names != null && names.length != 0;
+    }
+
+    public int getReceiverCallIndex() {
+        return receiverCallIndex;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public int getCalleeId() {
+        return calleeId;
+    }
+
+    public void setCalleeId(int calleeId) {
+        this.calleeId = calleeId;
+    }
+
+    /**
+     * drop the names once the callee is resolved, and keep the location.
+     */
+    public void releaseNames() {
+        names = null;
+    }
+
+    @Override
+    public String toString() {
+        String str = "";
+        str += "CallSite(";
+        str += ("names:" + Arrays.toString(names) + ",");
+        str += ("receiverCallIndex:" + receiverCallIndex + ",");
+        str += ("line:" + line + ",");
+        str += ("column:" + column + ",");
+        str += ("calleeId:" + calleeId);
+        str += ")";
+        return str;
+    }
+}
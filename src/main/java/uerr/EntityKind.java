@@ -0,0 +1,65 @@
+package uerr;
+
+/**
+ * the kind of an entity, one for each entity class.
+ * a kind is also of the kinds of all its super classes, e.g. a STRUCT is a TYPE, a CLASS and an ENTITY,
+ * so kind.is(FUNCTION) is the same as "entity instanceof AbsFUNEntity", without walking the class hierarchy.
+ */
+public enum EntityKind {
+    ENTITY(null),
+
+    FOLDER(ENTITY),
+    FILE(ENTITY),
+    CLASS(ENTITY),
+    FUNCTION(ENTITY),
+    VARIABLE(ENTITY),
+
+    //golang
+    TYPE(CLASS),
+    STRUCT(TYPE),
+    INTERFACE(TYPE),
+    ALIAS_TYPE(TYPE),
+    METHOD(FUNCTION),
+    CONST(VARIABLE),
+    STRUCT_FIELD(VARIABLE),
+    INTERFACE_FIELD(ENTITY),
+
+    //python
+    MODULE(FILE),
+    PY_CLASS(CLASS),
+    PY_FUNCTION(FUNCTION),
+    PY_METHOD(PY_FUNCTION),
+    INST_METHOD(PY_METHOD),
+    CLASS_METHOD(PY_METHOD),
+    CLASS_STATIC_METHOD(PY_METHOD),
+    CLASS_VAR(VARIABLE),
+    INST_VAR(VARIABLE);
+
+    private final EntityKind parent;
+    //the bit of each kind that this kind is
+    private long kindMask;
+
+    static {
+        for (EntityKind kind : values()) {
+            for (EntityKind k = kind; k != null; k = k.parent) {
+                kind.kindMask |= (1L << k.ordinal());
+            }
+        }
+    }
+
+    EntityKind(EntityKind parent) {
+        this.parent = parent;
+    }
+
+    public EntityKind getParent() {
+        return parent;
+    }
+
+    /**
+     * @param kind
+     * @return true if this kind is kind or one of its sub kinds
+     */
+    public boolean is(EntityKind kind) {
+        return (kindMask & (1L << kind.ordinal())) != 0;
+    }
+}
@@ -0,0 +1,103 @@
+package uerr;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * CSR store of the children of the entities, indexed by entity id.
+ *
+ * The children of all entities are kept in one int array,
+ * the children of entity id are childIds[childOffsets[id], childOffsets[id + 1]).
+ *
+ * It is built by SingleCollect.freeze() when the structure is final, i.e. after the dependencies are extracted.
+ * Then the entities give their children from here, and drop their own lists of boxed ids.
+ * The parent, kind (EntityKind) and name stay in the entities, which are still needed without the store.
+ * It only makes the heap after the extraction a little smaller; it does not lower the peak heap,
+ * which is reached while the entities are built and resolved, before the store exists.
+ */
+public class EntityStore {
+
+    private int size;
+    private int[] childOffsets;
+    private int[] childIds;
+
+    public EntityStore(List<AbsEntity> entities) {
+        size = entities.size();
+        childOffsets = new int[size + 1];
+
+        int childNum = 0;
+        for (int id = 0; id < size; id++) {
+            childNum += entities.get(id).getChildrenIds().size();
+        }
+        childIds = new int[childNum];
+
+        int offset = 0;
+        for (int id = 0; id < size; id++) {
+            AbsEntity entity = entities.get(id);
+            childOffsets[id] = offset;
+            for (int childId : entity.getChildrenIds()) {
+                childIds[offset] = childId;
+                offset++;
+            }
+        }
+        childOffsets[size] = offset;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getChildNum(int id) {
+        return childOffsets[id + 1] - childOffsets[id];
+    }
+
+    public int getChildId(int id, int index) {
+        return childIds[childOffsets[id] + index];
+    }
+
+    /**
+     * @param id
+     * @return the read-only view of the children of id
+     */
+    public List<Integer> getChildrenIds(int id) {
+        return new ChildrenIds(childOffsets[id], childOffsets[id + 1]);
+    }
+
+    /**
+     * the children of one entity, as a list without copying
+     */
+    private class ChildrenIds extends AbstractList<Integer> implements RandomAccess {
+        private int from;
+        private int to;
+
+        ChildrenIds(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Integer get(int index) {
+            if(index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return childIds[from + index];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * the size of the structure
+     * @return
+     */
+    public String storeStatis() {
+        String str = "";
+        str += ("Entities:          " + size + "\n");
+        str += ("Children:          " + childIds.length + "\n");
+        return str;
+    }
+}
@@ -1,5 +1,7 @@
 package uerr;
 
+import java.io.Serializable;
+
 /**
  * LocalBlock is the block inside function or method.
  * package block, file block, function block are coresponding to uerr,
@@ -12,7 +14,8 @@ package uerr;
  * Just like localName, LocalBlock is valid only inside a function/method.
  * So, We bind a LocalBlock list to its functionEntity, please see AbsFUNEntity class declaration.
  */
-public class LocalBlock {
+public class LocalBlock implements Serializable {
+    private static final long serialVersionUID = 1L;
     private int id;
     //depth is necessary, it 's the size of current block stack.
     //it is for searching var .
@@ -1,5 +1,6 @@
 package uerr;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 
@@ -11,7 +12,8 @@ import java.util.HashMap;
  * LocalName is valid only inside a function/method.
  * So, We bind a LocalName list to its functionEntity, please see AbsFUNEntity class declaration.
  */
-public class LocalName{
+public class LocalName implements Serializable {
+    private static final long serialVersionUID = 1L;
     private String name;    //operandName
     private String type;
     private String value;
@@ -19,12 +21,15 @@ public class LocalName{
     private ArrayList<String> usages = new ArrayList<String>(); //{"use", "set"} or {package}
     //map={set, number}
     private HashMap<String, Integer> weightedUsages = new HashMap<String, Integer>();
+    //the ids of name and type in SymbolTable, NO_SYMBOL until they are interned
+    private transient int nameId = SymbolTable.NO_SYMBOL;
+    private transient int typeId = SymbolTable.NO_SYMBOL;
 
 
     public LocalName(String name, int localBlockId, String type, String value) {
-        this.name = name;
+        setName(name);
         this.localBlockId = localBlockId;
-        this.type = type;
+        setType(type);
         this.value = value;
     }
 
@@ -32,10 +37,24 @@ public class LocalName{
         return name;
     }
 
+    public int getNameId() {
+        if(nameId == SymbolTable.NO_SYMBOL && name != null) {
+            setName(name);
+        }
+        return nameId;
+    }
+
     public String getType() {
         return type;
     }
 
+    public int getTypeId() {
+        if(typeId == SymbolTable.NO_SYMBOL && type != null) {
+            setType(type);
+        }
+        return typeId;
+    }
+
     public int getLocalBlockId() {
         return localBlockId;
     }
@@ -50,11 +69,15 @@ public class LocalName{
     }
 
     public void setType(String type) {
-        this.type = type;
+        SymbolTable symbolTable = SymbolTable.getSymbolTableInstance();
+        typeId = symbolTable.getId(type);
+        this.type = symbolTable.getSymbol(typeId);
     }
 
     public void setName(String name) {
-        this.name = name;
+        SymbolTable symbolTable = SymbolTable.getSymbolTableInstance();
+        nameId = symbolTable.getId(name);
+        this.name = symbolTable.getSymbol(nameId);
     }
 
     public void setLocalBlockId(int localBlockId) {
@@ -57,11 +57,9 @@ public abstract class RelationInterface {
 
     public ArrayList<String> getAllFiles() {
         ArrayList<String> files = new ArrayList<String>();
-        for (AbsEntity entity : singleCollect.getEntities()) {
-            if(entity instanceof AbsFILEntity) {
-                String fileName = entity.getName();
-                files.add(fileName);
-            }
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.FILE)) {
+            String fileName = entity.getName();
+            files.add(fileName);
         }
         return files;
     }
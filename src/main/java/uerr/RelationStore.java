@@ -0,0 +1,194 @@
+package uerr;
+
+import util.Tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * compressed sparse row store of the relations of all entities, indexed by entity id.
+ *
+ * Each relation is kept once as a forward edge: a byte code of RelationType and an int target.
+ * The forward edges of entity id are [forwardOffsets[id], forwardOffsets[id + 1]), in the order they were saved.
+ * The reverse edges ("...ed by") are not kept from AbsEntity.relations but built from the forward edges,
+ * the reverse edges of entity id are [reverseOffsets[id], reverseOffsets[id + 1]), ordered by source id.
+ *
+ * It is built by SingleCollect.freeze(), when all dependencies are extracted.
+ */
+public class RelationStore {
+
+    private int size;
+
+    private int[] forwardOffsets;
+    private byte[] forwardTypes;
+    private int[] forwardTargets;
+
+    private int[] reverseOffsets;
+    private byte[] reverseTypes;
+    private int[] reverseSources;
+
+    public RelationStore(List<AbsEntity> entities) {
+        size = entities.size();
+        forwardOffsets = new int[size + 1];
+        reverseOffsets = new int[size + 1];
+
+        int edgeNum = 0;
+        for (int id = 0; id < size; id++) {
+            for (Tuple<String, Integer> relation : entities.get(id).getRelations()) {
+                if(isForward(relation)) {
+                    edgeNum++;
+                }
+            }
+        }
+        forwardTypes = new byte[edgeNum];
+        forwardTargets = new int[edgeNum];
+        reverseTypes = new byte[edgeNum];
+        reverseSources = new int[edgeNum];
+
+        //forward edges, and count the reverse edges of each target
+        int[] reverseNums = new int[size];
+        int edge = 0;
+        for (int id = 0; id < size; id++) {
+            forwardOffsets[id] = edge;
+            for (Tuple<String, Integer> relation : entities.get(id).getRelations()) {
+                if(isForward(relation)) {
+                    forwardTypes[edge] = RelationType.fromLabel(relation.x).getCode();
+                    forwardTargets[edge] = relation.y;
+                    reverseNums[relation.y]++;
+                    edge++;
+                }
+            }
+        }
+        forwardOffsets[size] = edge;
+
+        //reverse edges, by a transpose of the forward edges
+        for (int id = 0; id < size; id++) {
+            reverseOffsets[id + 1] = reverseOffsets[id] + reverseNums[id];
+        }
+        int[] nextReverse = new int[size];
+        System.arraycopy(reverseOffsets, 0, nextReverse, 0, size);
+        for (int id = 0; id < size; id++) {
+            for (int i = forwardOffsets[id]; i < forwardOffsets[id + 1]; i++) {
+                int target = forwardTargets[i];
+                reverseTypes[nextReverse[target]] = forwardTypes[i];
+                reverseSources[nextReverse[target]] = id;
+                nextReverse[target]++;
+            }
+        }
+    }
+
+    /**
+     * the relations with an unknown label or a target out of the entities are dropped,
+     * and the reverse ones are built from the forward ones.
+     * @param relation
+     * @return
+     */
+    private boolean isForward(Tuple<String, Integer> relation) {
+        return RelationType.fromLabel(relation.x) != null
+                && relation.y != null && relation.y >= 0 && relation.y < size;
+    }
+
+    public int getRelationNum() {
+        return forwardTypes.length;
+    }
+
+    /**
+     * @param id
+     * @return the relations from id, in the order they were saved
+     */
+    public Edges forward(int id) {
+        return new Edges(forwardTypes, forwardTargets, forwardOffsets[id], forwardOffsets[id + 1]);
+    }
+
+    /**
+     * @param id
+     * @return the relations to id; the type is the forward type, e.g. CALL means "called by"
+     */
+    public Edges reverse(int id) {
+        return new Edges(reverseTypes, reverseSources, reverseOffsets[id], reverseOffsets[id + 1]);
+    }
+
+    /**
+     * the relations of one entity as tuples of (label, id), the forward ones first and then the reverse ones.
+     * it is for the code still reading AbsEntity.getRelations().
+     * @param id
+     * @return
+     */
+    ArrayList<Tuple<String, Integer>> toTuples(int id) {
+        ArrayList<Tuple<String, Integer>> relations = new ArrayList<Tuple<String, Integer>>();
+        Edges edges = forward(id);
+        while (edges.next()) {
+            relations.add(new Tuple<String, Integer>(edges.getLabel(), edges.getTarget()));
+        }
+        edges = reverse(id);
+        while (edges.next()) {
+            relations.add(new Tuple<String, Integer>(edges.getType().getReverseLabel(), edges.getTarget()));
+        }
+        return relations;
+    }
+
+    /**
+     * a cursor over the relations of one entity, without boxing:
+     *
+     * Edges edges = relationStore.forward(id);
+     * while (edges.next()) {
+     *     edges.getLabel(); edges.getTarget();
+     * }
+     */
+    public static class Edges {
+        private byte[] types;
+        private int[] targets;
+        private int start;
+        private int current;
+        private int end;
+
+        private Edges(byte[] types, int[] targets, int start, int end) {
+            this.types = types;
+            this.targets = targets;
+            this.start = start;
+            this.current = start - 1;
+            this.end = end;
+        }
+
+        public int size() {
+            return end - start;
+        }
+
+        public boolean isEmpty() {
+            return end == start;
+        }
+
+        /**
+         * move to the next relation
+         * @return false if there is no more relation
+         */
+        public boolean next() {
+            current++;
+            return current < end;
+        }
+
+        public RelationType getType() {
+            return RelationType.fromCode(types[current]);
+        }
+
+        /**
+         * @return the label of the forward type, the same as Configure.RELATION_XXX
+         */
+        public String getLabel() {
+            return getType().getLabel();
+        }
+
+        /**
+         * @return the target id of a forward relation, or the source id of a reverse relation
+         */
+        public int getTarget() {
+            return targets[current];
+        }
+    }
+
+    public String relationStatis() {
+        String str = "";
+        str += ("Relations:         " + forwardTypes.length + "\n");
+        return str;
+    }
+}
@@ -0,0 +1,76 @@
+package uerr;
+
+import util.Configure;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * the primitive relation types, each one is saved with its reverse type in AbsEntity.relations.
+ * the code of a type is its ordinal, so that a relation is kept as a byte in RelationStore.
+ */
+public enum RelationType {
+    RECEIVE(Configure.RELATION_RECEIVE, Configure.RELATION_RECEIVED_BY),
+    IMPLEMENT(Configure.RELATION_IMPLEMENT, Configure.RELATION_IMPLEMENTED_BY),
+    IMPORT(Configure.RELATION_IMPORT, Configure.RELATION_IMPORTED_BY),
+    CALL(Configure.RELATION_CALL, Configure.RELATION_CALLED_BY),
+    IMPLICIT_INTERNAL_CALL(Configure.RELATION_IMPLICIT_INTERNAL_CALL, Configure.RELATION_IMPLICIT_INTERNAL_CALLED_BY),
+    IMPLICIT_EXTERNAL_CALL(Configure.RELATION_IMPLICIT_EXTERNAL_CALL, Configure.RELATION_IMPLICIT_EXTERNAL_CALLED_BY),
+    PARAMETER(Configure.RELATION_PARAMETER, Configure.RELATION_PARAMETERED_BY),
+    RETURN(Configure.RELATION_RETURN, Configure.RELATION_RETURNED_BY),
+    SET(Configure.RELATION_SET, Configure.RELATION_SETED_BY),
+    USE(Configure.RELATION_USE, Configure.RELATION_USED_BY),
+    INHERIT(Configure.RELATION_INHERIT, Configure.RELATION_INHERITED_BY);
+
+    private static final RelationType[] TYPES = values();
+
+    //label -> type, and reverse label -> type
+    private static final Map<String, RelationType> forwardLabels = new HashMap<String, RelationType>();
+    private static final Map<String, RelationType> reverseLabels = new HashMap<String, RelationType>();
+    static {
+        for (RelationType type : TYPES) {
+            forwardLabels.put(type.label, type);
+            reverseLabels.put(type.reverseLabel, type);
+        }
+    }
+
+    private final String label;
+    private final String reverseLabel;
+
+    RelationType(String label, String reverseLabel) {
+        this.label = label;
+        this.reverseLabel = reverseLabel;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getReverseLabel() {
+        return reverseLabel;
+    }
+
+    public byte getCode() {
+        return (byte) ordinal();
+    }
+
+    public static RelationType fromCode(byte code) {
+        return TYPES[code];
+    }
+
+    /**
+     * @param label
+     * @return the type whose label is label, or null if label is a reverse label or unknown
+     */
+    public static RelationType fromLabel(String label) {
+        return forwardLabels.get(label);
+    }
+
+    /**
+     * @param label
+     * @return the type whose reverse label is label, or null
+     */
+    public static RelationType fromReverseLabel(String label) {
+        return reverseLabels.get(label);
+    }
+}
@@ -1,23 +1,64 @@
 package uerr;
 
+import client.AnalysisSession;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SingleCollect {
     // all entities.  set id = index
     private ArrayList<AbsEntity> entities = new ArrayList<AbsEntity>();
+    //the entities of each kind (by ordinal), including the ones of its sub kinds, in the order of ids
+    private ArrayList<ArrayList<AbsEntity>> entitiesOfKinds = new ArrayList<ArrayList<AbsEntity>>();
 
-    private static SingleCollect singleCollectInstance = new SingleCollect();
+    //fullPath -> the id of the first folder (package) with this path
+    private HashMap<String, Integer> folderPath2Id = new HashMap<String, Integer>();
+
+    //the structure and the relations of all entities, built by freeze()
+    private EntityStore entityStore = null;
+    private RelationStore relationStore = null;
+    private AncestorIndex ancestorIndex = null;
+
+    //the go.mod and go.work files found by the discovery walk of BuilderIntf
+    private ArrayList<String> modFiles = new ArrayList<String>();
+
+    //the functions whose scratch data is released, and the estimated bytes released
+    private AtomicInteger releasedFunctionNum = new AtomicInteger(0);
+    private AtomicLong releasedScratchBytes = new AtomicLong(0);
 
     //collect functions with same name.
     private Map<String, ArrayList<Integer>> methodsWithSameName = new HashMap<String, ArrayList<Integer>>();
 
-    private SingleCollect(){}
+    /**
+     * one per AnalysisSession
+     */
+    public SingleCollect(){
+        for (int i = 0; i < EntityKind.values().length; i++) {
+            entitiesOfKinds.add(new ArrayList<AbsEntity>());
+        }
+    }
 
+    /**
+     * @return the entities of the session bound to the current thread
+     */
     public static SingleCollect getSingleCollectInstance() {
-        return singleCollectInstance;
+        return AnalysisSession.getCurrentSession().getSingleCollect();
+    }
+
+    /**
+     * it is called by the discovery walk only, which ends before the entities are resolved.
+     * @param fileFullPath
+     */
+    public void addModFile(String fileFullPath) {
+        modFiles.add(fileFullPath);
+    }
+
+    public ArrayList<String> getModFiles() {
+        return modFiles;
     }
 
     public int getCurrentIndex() {
@@ -29,56 +70,143 @@ public class SingleCollect {
     }
 
     public void addEntity(AbsEntity entity) {
+        entity.internName();
         entities.add(entity);
+        if(entity.getKind().is(EntityKind.FOLDER)) {
+            String fullPath = ((AbsFLDEntity) entity).getFullPath();
+            if(fullPath != null && !folderPath2Id.containsKey(fullPath)) {
+                folderPath2Id.put(fullPath, entities.size() - 1);
+            }
+        }
+        for (EntityKind kind = entity.getKind(); kind != EntityKind.ENTITY; kind = kind.getParent()) {
+            entitiesOfKinds.get(kind.ordinal()).add(entity);
+        }
     }
 
+    /**
+     * @param fullPath
+     * @return the id of the folder (package) with fullPath, or -1
+     */
+    public int getFolderIdByPath(String fullPath) {
+        Integer id = folderPath2Id.get(fullPath);
+        if(id == null) {
+            return -1;
+        }
+        return id;
+    }
 
-
-    public boolean isFolder(int id) {
-        if(id == -1) {
-            return false;
+    /**
+     * @param kind
+     * @return the entities of kind or its sub kinds, in the order of ids. it should not be changed.
+     */
+    public List<AbsEntity> getEntitiesOfKind(EntityKind kind) {
+        if(kind == EntityKind.ENTITY) {
+            return entities;
         }
-        if (singleCollectInstance.getEntities().get(id) instanceof AbsFLDEntity) {
-            return true;
+        return entitiesOfKinds.get(kind.ordinal());
+    }
+
+    /**
+     * move the children of all entities into a CSR store,
+     * and their relations into a CSR store, when no entity or relation is added anymore.
+     * the entities read their children and relations from the stores after that.
+     */
+    public void freeze() {
+        entityStore = new EntityStore(entities);
+        relationStore = new RelationStore(entities);
+        ancestorIndex = new AncestorIndex(entities);
+        for (AbsEntity entity : entities) {
+            entity.freeze(entityStore, relationStore);
         }
-        return false;
     }
 
-    public boolean isFile(int id) {
-        if(id == -1) {
-            return false;
+    /**
+     * @return the store of the entity structure, or null before freeze()
+     */
+    public EntityStore getEntityStore() {
+        return entityStore;
+    }
+
+    /**
+     * @return the store of the relations, or null before freeze()
+     */
+    public RelationStore getRelationStore() {
+        return relationStore;
+    }
+
+    /**
+     * intern the names of all entities, since getNameId() interns a name at its first call.
+     * Then the names can be read by several threads at the same time.
+     */
+    public void internNames() {
+        for (AbsEntity entity : entities) {
+            entity.getNameId();
         }
-        if(singleCollectInstance.getEntities().get(id) instanceof AbsFILEntity) {
-            return true;
+    }
+
+    /**
+     * release the scratch data of a function whose dependencies are resolved, and count it for scratchStatis()
+     * @param functionEntity
+     */
+    public void releaseScratch(AbsFUNEntity functionEntity) {
+        if(functionEntity.isScratchReleased()) {
+            return;
         }
-        return false;
+        releasedScratchBytes.addAndGet(functionEntity.releaseScratch());
+        releasedFunctionNum.incrementAndGet();
+    }
+
+    public String scratchStatis() {
+        Runtime runtime = Runtime.getRuntime();
+        long usedBytes = runtime.totalMemory() - runtime.freeMemory();
+        String str = "";
+        str += ("Scratch released:  " + releasedFunctionNum.get() + " functions\n");
+        str += ("Scratch bytes:     " + (releasedScratchBytes.get() / 1024) + " KB (estimated)\n");
+        str += ("Heap in use:       " + (usedBytes / (1024 * 1024)) + " MB\n");
+        return str;
+    }
+
+    /**
+     * @return the nearest function/class/file/folder of each entity, or null before freeze()
+     */
+    public AncestorIndex getAncestorIndex() {
+        return ancestorIndex;
+    }
+
+
+
+    public boolean isFolder(int id) {
+        return isKind(id, EntityKind.FOLDER);
+    }
+
+    public boolean isFile(int id) {
+        return isKind(id, EntityKind.FILE);
     }
 
     public boolean isClass(int id) {
-        if(id != -1 && singleCollectInstance.getEntities().get(id) instanceof AbsCLSEntity) {
-            return true;
-        }
-        return false;
+        return isKind(id, EntityKind.CLASS);
     }
 
     public boolean isFunction(int id) {
-        if(id != -1 && singleCollectInstance.getEntities().get(id) instanceof AbsFUNEntity) {
-            return true;
-        }
-        return false;
-
+        return isKind(id, EntityKind.FUNCTION);
     }
 
     public boolean isVariable(int id) {
-        if(id != -1 && singleCollectInstance.getEntities().get(id) instanceof AbsVAREntity) {
-            return true;
-        }
-        return false;
+        return isKind(id, EntityKind.VARIABLE);
+    }
+
+    /**
+     * @param id
+     * @param kind
+     * @return true if the entity of id is of kind or its sub kinds
+     */
+    public boolean isKind(int id, EntityKind kind) {
+        return id != -1 && entities.get(id).getKind().is(kind);
     }
 
     public boolean isVarTypeResolved(int id) {
         if(isVariable(id)
-                && ((AbsVAREntity)singleCollectInstance.getEntities().get(id)).getTypeId() != -1) {
+                && ((AbsVAREntity)getEntities().get(id)).getTypeId() != -1) {
             return true;
         }
         return false;
@@ -102,19 +230,17 @@ public class SingleCollect {
      * maybe we should consider the number of parameters in future
      */
     public void identifySameMethodName() {
-        for (AbsEntity entity : singleCollectInstance.getEntities()) {
-            if(entity instanceof AbsFUNEntity) {
-                String name = entity.getName();
-                if(name.equals("__init__")) {
-                    continue;
-                }
-                int parentId = entity.getParentId();
-                if(parentId != -1 && singleCollectInstance.getEntities().get(parentId) instanceof AbsCLSEntity) {
-                    if(!methodsWithSameName.containsKey(name)) {
-                        methodsWithSameName.put(name, new ArrayList<Integer>());
-                    }
-                    methodsWithSameName.get(name).add(entity.getId());
+        for (AbsEntity entity : getEntitiesOfKind(EntityKind.FUNCTION)) {
+            String name = entity.getName();
+            if(name.equals("__init__")) {
+                continue;
+            }
+            int parentId = entity.getParentId();
+            if(parentId != -1 && isKind(parentId, EntityKind.CLASS)) {
+                if(!methodsWithSameName.containsKey(name)) {
+                    methodsWithSameName.put(name, new ArrayList<Integer>());
                 }
+                methodsWithSameName.get(name).add(entity.getId());
             }
         }
 
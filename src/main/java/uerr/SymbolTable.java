@@ -0,0 +1,100 @@
+package uerr;
+
+import client.AnalysisSession;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * the table of all names and type strings of the entities and localNames, each one is kept once with an int id.
+ * the names are interned when the entities are added into SingleCollect, and the localNames are created,
+ * so that two names are the same if and only if their ids are the same.
+ */
+public class SymbolTable {
+
+    //the id of null
+    public static final int NO_SYMBOL = 0;
+    //the id given by lookup() for a string not in the table
+    public static final int UNKNOWN_SYMBOL = -1;
+
+    private ConcurrentHashMap<String, Integer> symbol2Id = new ConcurrentHashMap<String, Integer>();
+    private ArrayList<String> symbols = new ArrayList<String>();
+
+    /**
+     * one per AnalysisSession
+     */
+    public SymbolTable() {
+        symbols.add(null);
+    }
+
+    /**
+     * @return the symbols of the session bound to the current thread
+     */
+    public static SymbolTable getSymbolTableInstance() {
+        return AnalysisSession.getCurrentSession().getSymbolTable();
+    }
+
+    /**
+     * get the id of str, and add it into the table if it is a new one.
+     * @param str
+     * @return
+     */
+    public int getId(String str) {
+        if(str == null) {
+            return NO_SYMBOL;
+        }
+        Integer id = symbol2Id.get(str);
+        if(id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = symbol2Id.get(str);
+            if(id == null) {
+                id = symbols.size();
+                symbols.add(str);
+                symbol2Id.put(str, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * get the id of str without adding it.
+     * @param str
+     * @return UNKNOWN_SYMBOL if str is not in the table, so no name is equal to it.
+     */
+    public int lookup(String str) {
+        if(str == null) {
+            return NO_SYMBOL;
+        }
+        Integer id = symbol2Id.get(str);
+        if(id == null) {
+            return UNKNOWN_SYMBOL;
+        }
+        return id;
+    }
+
+    public synchronized String getSymbol(int id) {
+        return symbols.get(id);
+    }
+
+    /**
+     * @param str
+     * @return the shared instance equal to str
+     */
+    public String intern(String str) {
+        if(str == null) {
+            return null;
+        }
+        return getSymbol(getId(str));
+    }
+
+    public synchronized int size() {
+        return symbols.size() - 1;
+    }
+
+    public String symbolStatis() {
+        String str = "";
+        str += ("Symbols:           " + size() + "\n");
+        return str;
+    }
+}
@@ -1,9 +1,16 @@
 package util;
 
+import client.AnalysisSession;
+
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 public class Configure {
-    private Configure() {}
+    /**
+     * one per AnalysisSession
+     */
+    public Configure() {}
 
     public static final String WINDOWS = "windows";
     public static final String LINUX = "linux";
@@ -92,12 +99,31 @@ public class Configure {
     //public static final String RELATION_INHERIT = "Embed";
     //public static final String RELATION_INHERITED_BY = "Embeded by";
 
+    //command line options, given as --name=value after the positional parameters
+    public static final String OPTION_PREFIX = "--";
+    public static final String OPTION_THREADS = "threads";
+    public static final String OPTION_WARMUP = "warmup";
+    public static final String OPTION_EXCLUDE = "exclude";
+    public static final String OPTION_CACHE = "cache";
+    public static final String OPTION_WATCH = "watch";
+    public static final String OPTION_IMPORTS_ONLY = "imports-only";
+    public static final String OPTION_MAX_PARSE_TIME = "max-parse-time";
+    public static final String OPTION_MAX_TOKENS = "max-tokens";
+    public static final String OPTION_BUDGET_ACTION = "budget-action";
+    public static final String OPTION_CALL_SITES = "call-sites";
+
+    public static final String BUDGET_ACTION_SKIP = "skip";
+    public static final String BUDGET_ACTION_IMPORTS = "imports";
+    public static final String BUDGET_ACTION_PARTIAL = "partial";
+
     public static final String RELATION_LEVEL_FILE = "File";
     public static final String RELATION_LEVEL_FUNCTION = "FUNCTION";
 
-    private static Configure configure = new Configure();
+    /**
+     * @return the configuration of the session bound to the current thread
+     */
     public static Configure getConfigureInstance() {
-        return configure;
+        return AnalysisSession.getCurrentSession().getConfigure();
     }
 
 
@@ -107,10 +133,48 @@ public class Configure {
     private String analyzedProjectName = "beego";
     private String lang = "golang";
     private String curr_pro_suffix = ".go";
+    /**
+     * the number of worker threads used to parse source files. 1 means sequential parsing.
+     */
+    private int threadNum = 1;
+    /**
+     * parse a bundled source before the analyzed files, to warm up the parser's DFA cache.
+     */
+    private boolean warmUp = false;
+    /**
+     * glob patterns of the directories and files which are not analyzed
+     */
+    private ArrayList<String> excludePatterns = new ArrayList<String>(Arrays.asList(".git", ".svn", ".hg"));
+    /**
+     * the directory of the per-file entity cache. null means no cache.
+     */
+    private String cacheDir = null;
+    /**
+     * keep running after the first analysis, and analyze again when the source files change.
+     */
+    private boolean watch = false;
+    /**
+     * only tokenize the files and extract the import relations, without parsing.
+     */
+    private boolean importsOnly = false;
+    /**
+     * the parse budget of each file: milliseconds, and tokens on the default channel. 0 means no limit.
+     */
+    private long maxParseMillis = 0;
+    private int maxParseTokens = 0;
+    /**
+     * what to do with a file over the budget: skip it, extract its imports from the tokens, or visit the partial tree.
+     */
+    private String budgetAction = BUDGET_ACTION_IMPORTS;
+    /**
+     * also write the location of each resolved golang call, i.e., caller, callee, file, line and column.
+     */
+    private boolean callSites = false;
 
     private String outputDotFile = analyzedProjectName + ".dot";
     private String outputCsvNodeFile = analyzedProjectName + "_node.csv";
     private String outputCsvEdgeFile = analyzedProjectName + "_edge.csv";
+    private String outputCsvCallSiteFile = analyzedProjectName + "_call_sites.csv";
     private String outputJsonFile = analyzedProjectName  + "_dep.json";
     private String outputXmlFile = analyzedProjectName + "_dep.xml";
     private String attributeName = analyzedProjectName + "-sdsm";
@@ -122,6 +186,7 @@ public class Configure {
         outputXmlFile = analyzedProjectName + "_dep.xml";
         outputCsvNodeFile = analyzedProjectName + "_node.csv";
         outputCsvEdgeFile = analyzedProjectName + "_edge.csv";
+        outputCsvCallSiteFile = analyzedProjectName + "_call_sites.csv";
         attributeName = analyzedProjectName + "-sdsm";
     }
 
@@ -179,6 +244,10 @@ public class Configure {
         return outputCsvNodeFile;
     }
 
+    public String getOutputCsvCallSiteFile() {
+        return outputCsvCallSiteFile;
+    }
+
     public void setOutputJsonFile(String outputJsonFile) {
         this.outputJsonFile = outputJsonFile;
     }
@@ -229,5 +298,97 @@ public class Configure {
     public String getOutputDotFile() {
         return outputDotFile;
     }
-}
 
+    public int getThreadNum() {
+        return threadNum;
+    }
+
+    public void setThreadNum(int threadNum) {
+        if(threadNum < 1) {
+            threadNum = 1;
+        }
+        this.threadNum = threadNum;
+    }
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public ArrayList<String> getExcludePatterns() {
+        return excludePatterns;
+    }
+
+    public void addExcludePattern(String excludePattern) {
+        excludePatterns.add(excludePattern);
+    }
+
+    public String getCacheDir() {
+        return cacheDir;
+    }
+
+    public void setCacheDir(String cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    public boolean isWatch() {
+        return watch;
+    }
+
+    public void setWatch(boolean watch) {
+        this.watch = watch;
+    }
+
+    public boolean isImportsOnly() {
+        return importsOnly;
+    }
+
+    public void setImportsOnly(boolean importsOnly) {
+        this.importsOnly = importsOnly;
+    }
+
+    public long getMaxParseMillis() {
+        return maxParseMillis;
+    }
+
+    public void setMaxParseMillis(long maxParseMillis) {
+        this.maxParseMillis = maxParseMillis;
+    }
+
+    public int getMaxParseTokens() {
+        return maxParseTokens;
+    }
+
+    public void setMaxParseTokens(int maxParseTokens) {
+        this.maxParseTokens = maxParseTokens;
+    }
+
+    public String getBudgetAction() {
+        return budgetAction;
+    }
+
+    /**
+     * @param budgetAction
+     * @return false if budgetAction is not supported
+     */
+    public boolean setBudgetAction(String budgetAction) {
+        if(!budgetAction.equals(BUDGET_ACTION_SKIP)
+                && !budgetAction.equals(BUDGET_ACTION_IMPORTS)
+                && !budgetAction.equals(BUDGET_ACTION_PARTIAL)) {
+            return false;
+        }
+        this.budgetAction = budgetAction;
+        return true;
+    }
+
+    public boolean isCallSites() {
+        return callSites;
+    }
+
+    public void setCallSites(boolean callSites) {
+        this.callSites = callSites;
+    }
+}
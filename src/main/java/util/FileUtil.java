@@ -1,48 +1,133 @@
 package util;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 
 public class FileUtil {
 
-    private ArrayList<String> fileNameList = new ArrayList<String>();
+    /**
+     * receive each source file as soon as it is found by the walk
+     */
+    public interface FoundFileHandler {
+        void handle(String fileFullPath);
+    }
+
+    /**
+     * walk the tree in depth-first order, and hand each file with suffix to handler during the walk.
+     * A directory or file is skipped when its relative path to dirName, or its name, matches one of the exclude globs.
+     * Symbolic links are followed, and the links forming a loop are skipped.
+     * @param dirName
+     * @param suffix
+     * @param excludePatterns  glob patterns, such as "vendor", "testdata", "*_gen.go"
+     * @param handler
+     */
+    public static void walkFiles(String dirName, String suffix, List<String> excludePatterns,
+                                 FoundFileHandler handler) {
+        walkFiles(dirName, suffix, excludePatterns, handler, null);
+    }
 
-    public FileUtil(String dirName) {
-        RecursiveFindFile(dirName);
+    /**
+     * walk the tree as walkFiles, and also hand each other file which is not excluded to otherHandler,
+     * so that a caller looking for some more files, e.g. go.mod, does not walk the tree again.
+     * @param dirName
+     * @param suffix
+     * @param excludePatterns
+     * @param handler
+     * @param otherHandler  null for none
+     */
+    public static void walkFiles(String dirName, String suffix, List<String> excludePatterns,
+                                 FoundFileHandler handler, FoundFileHandler otherHandler) {
+        walk(dirName, suffix, excludePatterns, handler, otherHandler, null);
     }
 
-    public void RecursiveFindFile(String dirName)
-    {
-        //System.out.println(dirName);
-        File dir = new File(dirName);
-        if(dir.isFile()) {
-            this.fileNameList.add(dir.getAbsolutePath());
-            return;
+    /**
+     * walk the tree as walkFiles, and hand each directory which is not excluded to handler, including dirName.
+     * @param dirName
+     * @param excludePatterns
+     * @param handler
+     */
+    public static void walkDirs(String dirName, List<String> excludePatterns, FoundFileHandler handler) {
+        walk(dirName, Configure.NULL_STRING, excludePatterns, null, null, handler);
+    }
+
+    private static void walk(String dirName, final String suffix, List<String> excludePatterns,
+                             final FoundFileHandler fileHandler, final FoundFileHandler otherFileHandler,
+                             final FoundFileHandler dirHandler) {
+        final Path root = Paths.get(dirName).toAbsolutePath();
+        final ArrayList<PathMatcher> excludeMatchers = new ArrayList<PathMatcher>();
+        for (String pattern : excludePatterns) {
+            excludeMatchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
         }
-        for (File eachFile : dir.listFiles())
-        {
-            if(eachFile.isFile())
-            {
-                this.fileNameList.add(eachFile.getAbsolutePath());
-            }
-            else if(eachFile.isDirectory())
-            {
-                RecursiveFindFile(eachFile.getAbsolutePath());
-            }
+
+        try {
+            Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+                    new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(root) && isExcluded(root, dir, excludeMatchers)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    if (dirHandler != null) {
+                        dirHandler.handle(dir.toString());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String fileFullPath = file.toString();
+                    if ((fileHandler == null && otherFileHandler == null) || !attrs.isRegularFile()
+                            || isExcluded(root, file, excludeMatchers)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    if (fileFullPath.endsWith(suffix)) {
+                        if (fileHandler != null) {
+                            fileHandler.handle(fileFullPath);
+                        }
+                    }
+                    else if (otherFileHandler != null) {
+                        otherFileHandler.handle(fileFullPath);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    if (!(e instanceof FileSystemLoopException)) {
+                        System.out.println("Cannot read: " + file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
-
-    public ArrayList<String> getFileNameList(String suffix)
-    {
-        ArrayList<String> filePathList = new ArrayList<String>();
-        for(String fileName : this.fileNameList)
-        {
-            if(fileName.endsWith(suffix))
-            {
-                filePathList.add(fileName);
+    private static boolean isExcluded(Path root, Path path, ArrayList<PathMatcher> excludeMatchers) {
+        if (excludeMatchers.isEmpty()) {
+            return false;
+        }
+        Path relativePath = root.relativize(path);
+        Path name = path.getFileName();
+        for (PathMatcher matcher : excludeMatchers) {
+            if (matcher.matches(relativePath) || (name != null && matcher.matches(name))) {
+                return true;
             }
         }
-        return filePathList;
+        return false;
     }
+
 }
@@ -0,0 +1,100 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelUtil {
+
+    /**
+     * receive each index of a loop, maybe in several threads at the same time
+     */
+    public interface IndexHandler {
+        void handle(int index);
+    }
+
+    /**
+     * call handler for each index in [0, size) by threadNum threads, each one taking batchSize indexes at a time,
+     * so the threads keep busy when the work of the indexes is uneven.
+     * It runs in the current thread if threadNum is 1 or there is only one batch.
+     * The threads inherit the AnalysisSession of the current thread.
+     * If handler throws, the other threads stop taking batches, and the exception is thrown here,
+     * as it is in the sequential run. A checked one is wrapped in a RuntimeException.
+     * @param size
+     * @param threadNum
+     * @param batchSize
+     * @param handler
+     */
+    public static void forEachIndex(final int size, int threadNum, final int batchSize, final IndexHandler handler) {
+        if(threadNum <= 1 || size <= batchSize) {
+            for (int index = 0; index < size; index++) {
+                handler.handle(index);
+            }
+            return;
+        }
+
+        final AtomicInteger nextIndex = new AtomicInteger(0);
+        final AtomicBoolean isFailed = new AtomicBoolean(false);
+        ExecutorService executor = Executors.newFixedThreadPool(threadNum);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int i = 0; i < threadNum; i++) {
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    int start;
+                    try {
+                        while (!isFailed.get() && !Thread.currentThread().isInterrupted()
+                                && (start = nextIndex.getAndAdd(batchSize)) < size) {
+                            int end = Math.min(start + batchSize, size);
+                            for (int index = start; index < end; index++) {
+                                handler.handle(index);
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        isFailed.set(true);
+                        throw e;
+                    } catch (Error e) {
+                        isFailed.set(true);
+                        throw e;
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw rethrowCause(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * throw the cause of e as it is if it is a RuntimeException or an Error,
+     * so a task in another thread fails the same way as in the current thread.
+     * @param e
+     * @return a RuntimeException wrapping a checked cause, to be thrown by the caller
+     */
+    public static RuntimeException rethrowCause(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if(cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if(cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new RuntimeException(cause);
+    }
+}
@@ -1,7 +1,10 @@
 package util;
 
-public class Tuple<X, Y>
+import java.io.Serializable;
+
+public class Tuple<X, Y> implements Serializable
 {
+    private static final long serialVersionUID = 1L;
     public X x;
     public Y y;
     public Tuple(X x, Y y)
@@ -0,0 +1,49 @@
+package writer;
+
+import uerr.AbsEntity;
+import uerr.AbsFUNEntity;
+import uerr.CallSite;
+import uerr.EntityKind;
+import uerr.SingleCollect;
+import util.Configure;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CallSiteWriter {
+    private SingleCollect singleCollect = SingleCollect.getSingleCollectInstance();
+
+    public void writeCallSites(String fileName) {
+        CsvWriter writer = new CsvWriter();
+        writer.writeCsv(getCallSiteList(), fileName);
+    }
+
+    /**
+     * output: [caller, callee, file, line, column], the line starts from 1 and the column from 0.
+     * @return
+     */
+    private List<String[]> getCallSiteList() {
+        List<String[]> callSiteList = new ArrayList<String[]>();
+        callSiteList.add(new String[] {"Caller", "Callee", "File", "Line", "Column"});
+        for (AbsEntity entity : singleCollect.getEntitiesOfKind(EntityKind.FUNCTION)) {
+            String fileName = getContainFile(entity.getId());
+            for (CallSite callSite : ((AbsFUNEntity) entity).getCallSites()) {
+                if (callSite.getCalleeId() == -1) {
+                    continue;
+                }
+                callSiteList.add(new String[] {Integer.toString(entity.getId()),
+                        Integer.toString(callSite.getCalleeId()), fileName,
+                        Integer.toString(callSite.getLine()), Integer.toString(callSite.getColumn())});
+            }
+        }
+        return callSiteList;
+    }
+
+    private String getContainFile(int id) {
+        int fileId = singleCollect.getAncestorIndex().getFileOf(id);
+        if(fileId != -1) {
+            return singleCollect.getEntities().get(fileId).getName();
+        }
+        return Configure.NULL_STRING;
+    }
+}
@@ -2,13 +2,14 @@ package writer;
 
 import uerr.AbsEntity;
 import uerr.AbsFLDEntity;
+import uerr.RelationStore;
 import uerr.SingleCollect;
 import util.Configure;
-import util.Tuple;
 
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * write (primitive dependencies)into graph dot
@@ -62,10 +63,11 @@ public class DotWriter {
             if(!isCaredEntity(id1, filter)) {
                 continue;
             }
-            for (Tuple<String, Integer> relation: entity.getRelations()) {
-                if(isCaredEntity(relation.y, filter)
-                        && isCaredRelation(relation.x, filter)) {
-                    int id2 = relation.y;
+            RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+            while (relation.next()) {
+                if(isCaredEntity(relation.getTarget(), filter)
+                        && isCaredRelation(relation.getLabel(), filter)) {
+                    int id2 = relation.getTarget();
                     String id2Str = genNodeIdInEdge(id2);
                     finalStr += (id1Str + DotUtil.ARROW + id2Str + DotUtil.SEMI_COLON + DotUtil.NEWLINE);
                 }
@@ -85,7 +87,7 @@ public class DotWriter {
         }
     }
 
-    private void writeSubGraph(PrintWriter out, ArrayList<Integer> childIds, String filter) {
+    private void writeSubGraph(PrintWriter out, List<Integer> childIds, String filter) {
         for (int id : childIds) {
             String style = getStyle(id);
             String label = singleCollect.getEntities().get(id).getSimpleName();
@@ -101,7 +103,7 @@ public class DotWriter {
                     genSubGraph(out, idStr, labelAttr, styleAttr);
                 }
 
-                ArrayList<Integer> newChildIds = singleCollect.getEntities().get(id).getChildrenIds();
+                List<Integer> newChildIds = singleCollect.getEntities().get(id).getChildrenIds();
                 writeSubGraph(out, newChildIds, filter);
                 if (isCaredEntity(id, filter)) {
                     out.println(DotUtil.R_LACE_BRACKET);
@@ -1,9 +1,9 @@
 package writer;
 
 import uerr.AbsEntity;
+import uerr.RelationStore;
 import uerr.SingleCollect;
 import util.Configure;
-import util.Tuple;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -32,9 +32,10 @@ public class ImplicitCallWriter {
         for(AbsEntity entity : singleCollect.getEntities()) {
             int id1 = entity.getId();
             String fileName1 = getContainFile(id1);
-            for (Tuple<String, Integer> relation : entity.getRelations()) {
-                int id2 = relation.y;
-                String deptype = relation.x;
+            RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+            while (relation.next()) {
+                int id2 = relation.getTarget();
+                String deptype = relation.getLabel();
                 if(deptype.equals(Configure.RELATION_IMPLICIT_EXTERNAL_CALL)) {
                     String fileName2 = getContainFile(id2);
                     if(fileName1.equals(Configure.NULL_STRING)
@@ -75,13 +76,9 @@ public class ImplicitCallWriter {
 
 
     private String getContainFile(int id) {
-        while (id != -1) {
-            if (singleCollect.isFile(id)) {
-                return singleCollect.getEntities().get(id).getName();
-            }
-            else {
-                id = singleCollect.getEntities().get(id).getParentId();
-            }
+        int fileId = singleCollect.getAncestorIndex().getFileOf(id);
+        if(fileId != -1) {
+            return singleCollect.getEntities().get(fileId).getName();
         }
         return "";
     }
@@ -4,9 +4,9 @@ import entitybuilder.pybuilder.pyentity.ModuleEntity;
 import entitybuilder.pybuilder.pyentity.PyFunctionEntity;
 import entitybuilder.pybuilder.pyentity.PyMethodEntity;
 import uerr.AbsEntity;
+import uerr.RelationStore;
 import uerr.SingleCollect;
 import util.Configure;
-import util.Tuple;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -37,9 +37,10 @@ public class UndWriter {
             int id1 = entity.getId();
             String shortname1 = getShortName(id1);
             String longname1 = getLongName(id1);
-            for (Tuple<String, Integer> relation : entity.getRelations()) {
-                String depType = getDepType(relation.x);
-                int id2 = relation.y;
+            RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+            while (relation.next()) {
+                String depType = getDepType(relation.getLabel());
+                int id2 = relation.getTarget();
                 if(!depType.equals("")) {
                     String shorname2 = getShortName(id2);
                     String longname2 = getLongName(id2);
@@ -61,9 +62,10 @@ public class UndWriter {
         for(AbsEntity entity : singleCollect.getEntities()) {
             int id1 = entity.getId();
             String longname1 = getLongName(id1);
-            for (Tuple<String, Integer> relation : entity.getRelations()) {
-                String depType = getDepType(relation.x);
-                int id2 = relation.y;
+            RelationStore.Edges relation = singleCollect.getRelationStore().forward(entity.getId());
+            while (relation.next()) {
+                String depType = getDepType(relation.getLabel());
+                int id2 = relation.getTarget();
                 if(!depType.equals("")) {
                     String longname2 = getLongName(id2);
                     if(!depSta.containsKey(depType)) {
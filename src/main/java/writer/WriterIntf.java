@@ -1,5 +1,6 @@
 package writer;
 
+import client.AnalysisSession;
 import formator.fjson.JDepObject;
 import formator.fxml.XDepObject;
 import util.Configure;
@@ -8,9 +9,24 @@ import java.util.ArrayList;
 
 public class WriterIntf {
 
-    Configure configure = Configure.getConfigureInstance();
+    private AnalysisSession session;
+    private Configure configure;
+
+    public WriterIntf(AnalysisSession session) {
+        this.session = session;
+        configure = session.getConfigure();
+    }
 
     public void run(JDepObject jDepObject, XDepObject xDepObject, ArrayList<String[]> nodes, ArrayList<String[]> edges) {
+        AnalysisSession previous = session.bind();
+        try {
+            write(jDepObject, xDepObject, nodes, edges);
+        } finally {
+            AnalysisSession.restore(previous);
+        }
+    }
+
+    private void write(JDepObject jDepObject, XDepObject xDepObject, ArrayList<String[]> nodes, ArrayList<String[]> edges) {
 
         //output data by writers
 
@@ -27,14 +43,19 @@ public class WriterIntf {
         System.out.println("Export "+configure.getOutputCsvNodeFile());
         csvWriter.writeCsv(edges, configure.getOutputCsvEdgeFile());
         System.out.println("Export "+configure.getOutputCsvEdgeFile());
+        if(configure.isCallSites()) {
+            CallSiteWriter callSiteWriter = new CallSiteWriter();
+            callSiteWriter.writeCallSites(configure.getOutputCsvCallSiteFile());
+            System.out.println("Export "+configure.getOutputCsvCallSiteFile());
+        }
 
         DotWriter dotWriter = new DotWriter();
-        String fileName1 = Configure.getConfigureInstance().getAnalyzedProjectName() + "_" + DotUtil.FILTER_NO_DEP + ".dot";
-        String fileName2 = Configure.getConfigureInstance().getAnalyzedProjectName() + "_" + DotUtil.FILTER_FILE_FOLDER_DEP + ".dot";
-        String fileName3 = Configure.getConfigureInstance().getAnalyzedProjectName() + "_" + DotUtil.FILTER_CLASS_DEP + ".dot";
-        String fileName4 = Configure.getConfigureInstance().getAnalyzedProjectName() + "_" + DotUtil.FILTER_FUNC_CLASS_DEP + ".dot";
-        String fileName5 = Configure.getConfigureInstance().getAnalyzedProjectName() + "_" + DotUtil.FILTER_FUNCTION_DEP + ".dot";
-        String fileName6 = Configure.getConfigureInstance().getAnalyzedProjectName() + "_" + DotUtil.FILTER_DEFAULT_DEP + ".dot";
+        String fileName1 = configure.getAnalyzedProjectName() + "_" + DotUtil.FILTER_NO_DEP + ".dot";
+        String fileName2 = configure.getAnalyzedProjectName() + "_" + DotUtil.FILTER_FILE_FOLDER_DEP + ".dot";
+        String fileName3 = configure.getAnalyzedProjectName() + "_" + DotUtil.FILTER_CLASS_DEP + ".dot";
+        String fileName4 = configure.getAnalyzedProjectName() + "_" + DotUtil.FILTER_FUNC_CLASS_DEP + ".dot";
+        String fileName5 = configure.getAnalyzedProjectName() + "_" + DotUtil.FILTER_FUNCTION_DEP + ".dot";
+        String fileName6 = configure.getAnalyzedProjectName() + "_" + DotUtil.FILTER_DEFAULT_DEP + ".dot";
 
         dotWriter.writeDot(DotUtil.FILTER_NO_DEP, fileName1);
         dotWriter.writeDot(DotUtil.FILTER_FILE_FOLDER_DEP, fileName2);
@@ -0,0 +1,82 @@
+// Package warmup is parsed once before the analysis to warm the parser's prediction cache.
+package warmup
+
+import (
+	"errors"
+	"fmt"
+	str "strings"
+)
+
+const (
+	First = iota
+	Second
+)
+
+var registry = map[string]Handler{}
+
+type Handler interface {
+	Handle(req *Request) (int, error)
+	Name() string
+}
+
+type Request struct {
+	Path    string
+	Headers map[string][]string
+	Body    []byte
+	next    *Request
+}
+
+type Counter int
+
+type embedded struct {
+	count Counter
+	Request
+}
+
+func (c *Counter) Inc() {
+	*c++
+}
+
+func (e embedded) Name() string {
+	return e.Path
+}
+
+func (e *embedded) Handle(req *Request) (int, error) {
+	if req == nil {
+		return 0, errors.New("nil request")
+	} else if len(req.Body) > 0 {
+		e.count.Inc()
+	}
+	for i, h := range req.Headers {
+		fmt.Println(i, str.Join(h, ","))
+	}
+	for i := 0; i < len(req.Body); i++ {
+		_ = req.Body[i:]
+	}
+	switch req.Path {
+	case "/":
+		return 1, nil
+	default:
+	}
+	var x interface{} = req
+	switch v := x.(type) {
+	case *Request:
+		_ = v.next
+	}
+	ch := make(chan int, 1)
+	select {
+	case n := <-ch:
+		return n, nil
+	default:
+	}
+	go func() { ch <- 1 }()
+	defer close(ch)
+	return int(e.count), nil
+}
+
+func Register(name string, h Handler) {
+	registry[name] = h
+	f := func(a, b int) int { return a + b }
+	_ = f(1, 2)
+	_ = &Request{Path: name, Headers: map[string][]string{"a": {"b"}}}
+}
@@ -0,0 +1,55 @@
+"""parsed once before the analysis to warm the parser's prediction cache."""
+import os
+import sys as system
+from collections import OrderedDict
+from .sibling import helper, other as alias
+
+
+class Base(object):
+    count = 0
+
+    def __init__(self, name, *args, **kwargs):
+        self.name = name
+        self.items = [x * 2 for x in args if x > 0]
+        self.options = {k: v for k, v in kwargs.items()}
+
+    @classmethod
+    def create(cls, name):
+        return cls(name)
+
+    @staticmethod
+    def join(*parts):
+        return os.path.join(*parts)
+
+
+class Child(Base):
+    def run(self, value=None):
+        try:
+            result = helper(value) or alias.call(self.name)
+        except (ValueError, KeyError) as e:
+            raise RuntimeError(str(e))
+        finally:
+            Base.count += 1
+        while value:
+            value -= 1
+            if value % 2 == 0:
+                continue
+            elif value > 10:
+                break
+        with open(self.name) as f:
+            data = f.read()[1:-1]
+        lam = lambda a, b=2: a + b
+        return result, data, lam(1), system.argv
+
+
+def main(argv):
+    child = Child.create(argv[0])
+    for i, item in enumerate(child.items):
+        print(i, item)
+    global_value = OrderedDict()
+    global_value["key"] = not child.run(len(argv))
+    return global_value
+
+
+if __name__ == "__main__":
+    main(system.argv)